@@ -43,17 +43,6 @@ public class ClientHttpCodec extends HttpCodec {
         return new ClientHttpFrame();
     }
 
-    @Override
-    int decode_remain_body(Channel ch, ByteBuf src, HttpFrame frame) {
-        ClientHttpFrame f = (ClientHttpFrame) frame;
-        if (f.isChunked()) {
-            //TODO chunked support
-            return decode_state_complete;
-        } else {
-            return super.decode_remain_body(ch, src, f);
-        }
-    }
-
     @Override
     public ByteBuf encode(Channel ch, Frame frame) {
         ClientHttpFrame f            = (ClientHttpFrame) frame;
@@ -17,13 +17,13 @@ package com.firenio.codec.http11;
 
 import java.io.IOException;
 
+import com.firenio.buffer.ByteBuf;
 import com.firenio.collection.IntMap;
 import com.firenio.common.Util;
 import com.firenio.component.Channel;
 
 public class ClientHttpFrame extends HttpFrame {
 
-    boolean        chunked;
     IntMap<String> client_response_headers = new IntMap<>();
 
     public ClientHttpFrame() {
@@ -52,15 +52,12 @@ public class ClientHttpFrame extends HttpFrame {
     }
 
     public boolean isChunked() {
-        return chunked || "chunked".equals(getResponse(HttpHeader.Transfer_Encoding));
+        return super.isChunked() || "chunked".equals(getResponse(HttpHeader.Transfer_Encoding));
     }
 
     @Override
-    void setReadHeader(String name, String value) {
-        HttpHeader header = getHeader(name);
-        if (header != null) {
-            client_response_headers.put(header.getId(), value);
-        }
+    void setReadHeader(HttpHeader header, ByteBuf src, int start, int end) {
+        client_response_headers.put(header.getId(), HttpCodec.to_string(src, start, end));
     }
 
     @Override
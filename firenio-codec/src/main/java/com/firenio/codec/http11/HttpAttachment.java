@@ -22,12 +22,54 @@ import com.firenio.buffer.ByteBuf;
  */
 public class HttpAttachment {
 
+    // the bytes of the streamed body or the current chunk not yet read
+    private int bodyRemain;
+
+    // the chunked body buffered when it is not streamed
+    private byte[] chunkBody;
+
+    private int chunkBodyLength;
+
+    private int chunkState;
+
     private HttpFrame uncompleteFrame;
 
     private String websocketFrameName;
 
     private ByteBuf lastWriteBuf = ByteBuf.empty();
 
+    public int getBodyRemain() {
+        return bodyRemain;
+    }
+
+    public void setBodyRemain(int bodyRemain) {
+        this.bodyRemain = bodyRemain;
+    }
+
+    public byte[] getChunkBody() {
+        return chunkBody;
+    }
+
+    public void setChunkBody(byte[] chunkBody) {
+        this.chunkBody = chunkBody;
+    }
+
+    public int getChunkBodyLength() {
+        return chunkBodyLength;
+    }
+
+    public void setChunkBodyLength(int chunkBodyLength) {
+        this.chunkBodyLength = chunkBodyLength;
+    }
+
+    public int getChunkState() {
+        return chunkState;
+    }
+
+    public void setChunkState(int chunkState) {
+        this.chunkState = chunkState;
+    }
+
     public ByteBuf getLastWriteBuf() {
         return lastWriteBuf;
     }
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.firenio.codec.http11;
+
+import com.firenio.buffer.ByteBuf;
+import com.firenio.component.Channel;
+
+/**
+ * Receive the request bodies in parts instead of buffering them in the frame,
+ * the frame is accepted by the IoEventHandle when its headers are decoded,
+ * and the parts of its body are pushed to this listener as they are read, the
+ * body limit of the codec is not applied to them.
+ * <p>
+ * All the methods are called in the io event loop of the channel, the frame
+ * should not be released before onBodyComplete, which is not called if the
+ * channel is closed before the body is complete.
+ *
+ * @author wangkai
+ */
+public interface HttpBodyListener {
+
+    /**
+     * called when the headers of a request with body are decoded
+     *
+     * @return true to stream the body of this request, false to buffer it
+     */
+    boolean onHeaders(Channel ch, HttpFrame f) throws Exception;
+
+    /**
+     * the buf is a view of the read buf of the channel, it is only valid in
+     * this call, the bytes should be copied if they are used later
+     */
+    void onBody(Channel ch, HttpFrame f, ByteBuf buf) throws Exception;
+
+    void onBodyComplete(Channel ch, HttpFrame f) throws Exception;
+
+}
@@ -17,17 +17,20 @@ package com.firenio.codec.http11;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 import com.firenio.Develop;
 import com.firenio.buffer.ByteBuf;
+import com.firenio.buffer.CompositeByteBuf;
 import com.firenio.collection.ByteTree;
 import com.firenio.collection.IntMap;
 import com.firenio.common.ByteUtil;
 import com.firenio.common.Util;
 import com.firenio.component.Channel;
 import com.firenio.component.FastThreadLocal;
+import com.firenio.component.FileRegion;
 import com.firenio.component.Frame;
 import com.firenio.component.NioEventLoop;
 import com.firenio.component.ProtocolCodec;
@@ -37,30 +40,56 @@ import com.firenio.component.ProtocolCodec;
  */
 public class HttpCodec extends ProtocolCodec {
 
-    static final byte[]      CONTENT_LENGTH_MATCH      = ByteUtil.b("Content-Length:");
-    static final int         decode_state_body         = 2;
-    static final int         decode_state_complete     = 3;
-    static final int         decode_state_header       = 1;
-    static final int         decode_state_line_one     = 0;
-    static final int         encode_bytes_arrays_index = nextIndexedVariablesIndex();
-    static final int         content_len_index         = nextIndexedVariablesIndex();
-    static final String      FRAME_CACHE_KEY           = "_HTTP_FRAME_CACHE_KEY";
-    static final byte        N                         = '\n';
-    static final IOException OVER_LIMIT                = EXCEPTION("over writeIndex");
-    static final IOException ILLEGAL_METHOD            = EXCEPTION("illegal http method");
-    static final byte        R                         = '\r';
-    static final byte        SPACE                     = ' ';
-    static final int         NUM_GET                   = ByteUtil.getInt("GET ".getBytes(), 0);
-    static final int         NUM_POST                  = ByteUtil.getInt("POST".getBytes(), 0);
-
-    private final int        blimit;
-    private final byte[][]   cl_bytes = new byte[1024][];
-    private final int        hlimit;
-    private final int        fcache;
-    private final boolean    lite;
-    private final boolean    inline;
-    private final ByteBuffer cl_buf;
-    private final ByteTree   cached_urls;
+    static final byte[]       CHUNKED_MATCH             = ByteUtil.b("chunked");
+    static final byte[]       CONTENT_LENGTH_MATCH      = ByteUtil.b("Content-Length:");
+    static final byte[]       TRANSFER_ENCODING_MATCH   = ByteUtil.b("Transfer-Encoding:");
+    static final byte[]       HEX                       = ByteUtil.b("0123456789abcdef");
+    static final byte[]       LAST_CHUNK                = ByteUtil.b("0\r\n\r\n");
+    // the size line and the trailer lines of the chunked body
+    static final int          CHUNK_LINE_LIMIT          = 1024;
+    static final int          chunk_state_data          = 1;
+    static final int          chunk_state_data_end      = 2;
+    static final int          chunk_state_size          = 0;
+    static final int          chunk_state_trailer       = 3;
+    static final int          decode_state_body         = 2;
+    static final int          decode_state_body_stream  = 4;
+    static final int          decode_state_complete     = 3;
+    static final int          decode_state_header       = 1;
+    static final int          decode_state_line_one     = 0;
+    static final int          encode_bytes_arrays_index = nextIndexedVariablesIndex();
+    static final int          content_len_index         = nextIndexedVariablesIndex();
+    static final String       FRAME_CACHE_KEY           = "_HTTP_FRAME_CACHE_KEY";
+    static final byte         N                         = '\n';
+    static final IOException  OVER_LIMIT                = EXCEPTION("over writeIndex");
+    static final IOException  ILLEGAL_METHOD            = EXCEPTION("illegal http method");
+    static final IOException  ILLEGAL_CHUNK             = EXCEPTION("illegal chunk");
+    static final byte         R                         = '\r';
+    static final byte         SPACE                     = ' ';
+    // the methods and the space after them are matched by the first 8 bytes of the line one, the common ones first
+    static final HttpMethod[] METHODS                   = {HttpMethod.GET, HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.PATCH, HttpMethod.TRACE, HttpMethod.CONNECT};
+    static final long[]       METHOD_MASKS              = new long[METHODS.length];
+    static final long[]       METHOD_NUMS               = new long[METHODS.length];
+
+    static {
+        for (int i = 0; i < METHODS.length; i++) {
+            byte[] b   = Arrays.copyOf(METHODS[i].getBytes(), 8);
+            int    len = METHODS[i].getBytes().length + 1;
+            b[len - 1] = SPACE;
+            METHOD_MASKS[i] = len == 8 ? -1L : ~(-1L >>> (len * 8));
+            METHOD_NUMS[i] = ByteUtil.getLong(b, 0) & METHOD_MASKS[i];
+        }
+    }
+
+    private final int              blimit;
+    private final HttpBodyListener body_listener;
+    private final byte[]           chunked_bytes;
+    private final byte[][]         cl_bytes = new byte[1024][];
+    private final int              hlimit;
+    private final int              fcache;
+    private final boolean          lite;
+    private final boolean          inline;
+    private final ByteBuffer       cl_buf;
+    private final ByteTree         cached_urls;
 
     public HttpCodec() {
         this(0);
@@ -86,18 +115,29 @@ public class HttpCodec extends ProtocolCodec {
         this(server, frameCache, 1024 * 8, 1024 * 256, lite, inline, cachedUrls);
     }
 
+    public HttpCodec(String server, int frameCache, HttpBodyListener bodyListener) {
+        this(server, frameCache, 1024 * 8, 1024 * 256, false, false, null, bodyListener);
+    }
+
     public HttpCodec(String server, int fcache, int hlimit, int blimit, boolean lite, boolean inline, ByteTree cachedUrls) {
+        this(server, fcache, hlimit, blimit, lite, inline, cachedUrls, null);
+    }
+
+    public HttpCodec(String server, int fcache, int hlimit, int blimit, boolean lite, boolean inline, ByteTree cachedUrls, HttpBodyListener bodyListener) {
         this.lite = lite;
         this.inline = inline;
         this.hlimit = hlimit;
         this.blimit = blimit;
         this.fcache = fcache;
         this.cached_urls = cachedUrls;
+        this.body_listener = bodyListener;
         ByteBuffer temp = ByteBuffer.allocate(128);
         if (server == null) {
             temp.put(ByteUtil.b("\r\nContent-Length: "));
+            chunked_bytes = ByteUtil.b("\r\nTransfer-Encoding: chunked");
         } else {
             temp.put(ByteUtil.b("\r\nServer: " + server + "\r\nContent-Length: "));
+            chunked_bytes = ByteUtil.b("\r\nServer: " + server + "\r\nTransfer-Encoding: chunked");
         }
         cl_buf = temp.duplicate();
         cl_buf.flip();
@@ -111,9 +151,9 @@ public class HttpCodec extends ProtocolCodec {
         }
     }
 
-    private static String parse_url(ByteBuf src, int url_start, int url_end) {
+    static String to_string(ByteBuf src, int start, int end) {
         StringBuilder line = FastThreadLocal.get().getStringBuilder();
-        for (int i = url_start; i < url_end; i++) {
+        for (int i = start; i < end; i++) {
             line.append((char) (src.getByteAbs(i) & 0xff));
         }
         return line.toString();
@@ -154,7 +194,7 @@ public class HttpCodec extends ProtocolCodec {
         int index     = Util.indexOf(line, '?');
         int lastSpace = Util.lastIndexOf(line, ' ');
         if (index > -1) {
-            parse_kv(f.getRequestParams(), line, index + 1, lastSpace, '=', '&');
+            f.setRequestQuery(line, index + 1, lastSpace);
             f.setRequestURL((String) line.subSequence(skip, index));
         } else {
             f.setRequestURL((String) line.subSequence(skip, lastSpace));
@@ -209,6 +249,78 @@ public class HttpCodec extends ProtocolCodec {
         }
     }
 
+    private static boolean end_with(ByteBuf src, int ps, int pe, byte[] match) {
+        return pe - match.length >= ps && start_with(src, pe - match.length, pe, match);
+    }
+
+    private static int parse_chunk_size(ByteBuf src, int ps, int pe) throws IOException {
+        int size = 0;
+        int i    = ps;
+        for (; i < pe; i++) {
+            int b = src.getByteAbs(i);
+            int v;
+            if (b >= '0' && b <= '9') {
+                v = b - '0';
+            } else if (b >= 'a' && b <= 'f') {
+                v = b - 'a' + 10;
+            } else if (b >= 'A' && b <= 'F') {
+                v = b - 'A' + 10;
+            } else {
+                // the chunk extensions are ignored
+                break;
+            }
+            if (size > (Integer.MAX_VALUE >> 4)) {
+                throw OVER_LIMIT;
+            }
+            size = (size << 4) | v;
+        }
+        if (i == ps) {
+            throw ILLEGAL_CHUNK;
+        }
+        return size;
+    }
+
+    private static void write_chunk_size(ByteBuf buf, int size) {
+        int shift = (31 - Integer.numberOfLeadingZeros(size | 1)) & ~3;
+        for (; shift >= 0; shift -= 4) {
+            buf.writeByte(HEX[(size >>> shift) & 0xf]);
+        }
+        buf.writeByte(R);
+        buf.writeByte(N);
+    }
+
+    static void write_chunk(Channel ch, ByteBuf buf) {
+        int size = buf.readableBytes();
+        if (size == 0) {
+            buf.release();
+            return;
+        }
+        ByteBuf head = ch.alloc().allocate(10);
+        ByteBuf tail = ch.alloc().allocate(2);
+        write_chunk_size(head, size);
+        tail.writeByte(R);
+        tail.writeByte(N);
+        ch.write(new CompositeByteBuf(head, buf, tail));
+    }
+
+    static void write_chunk(Channel ch, byte[] data, int off, int len) {
+        if (len == 0) {
+            return;
+        }
+        ByteBuf buf = ch.alloc().allocate(len + 12);
+        write_chunk_size(buf, len);
+        buf.writeBytes(data, off, len);
+        buf.writeByte(R);
+        buf.writeByte(N);
+        ch.write(buf);
+    }
+
+    static void write_last_chunk(Channel ch) {
+        ByteBuf buf = ch.alloc().allocate(LAST_CHUNK.length);
+        buf.writeBytes(LAST_CHUNK);
+        ch.write(buf);
+    }
+
     private static boolean start_with(ByteBuf src, int ps, int pe, byte[] match) {
         if (pe - ps < match.length) {
             return false;
@@ -248,40 +360,34 @@ public class HttpCodec extends ProtocolCodec {
             } else {
                 h_len += (l_end - abs_pos);
                 decode_state = decode_state_header;
-                int url_start = abs_pos;
-                int num       = src.getInt(abs_pos);
-                if (num == NUM_GET) {
-                    f.setMethod(HttpMethod.GET);
-                    url_start += 4;
-                } else if (num == NUM_POST) {
-                    f.setMethod(HttpMethod.POST);
-                    url_start += 5;
-                } else {
+                if (l_end - abs_pos < 8) {
+                    throw ILLEGAL_METHOD;
+                }
+                HttpMethod method = match_method(src.getLong(abs_pos - src.offset()));
+                if (method == null) {
                     throw ILLEGAL_METHOD;
                 }
+                f.setMethod(method);
+                int url_start = abs_pos + method.getBytes().length + 1;
                 int url_end = l_end - 10;
                 int url_len = url_end - url_start;
                 int qmark   = src.indexOf((byte) '?', url_start, url_len);
-                if (qmark == -1) {
-                    String url;
-                    if (cached_urls != null) {
-                        url = cached_urls.getString(src, url_start, url_len);
-                        if (url == null) {
-                            url = parse_url(src, url_start, url_end);
-                        }
-                    } else {
-                        url = parse_url(src, url_start, url_end);
+                if (qmark != -1) {
+                    // the params are parsed when they are got
+                    f.setRequestQuery(src, qmark + 1, url_end);
+                    url_end = qmark;
+                    url_len = url_end - url_start;
+                }
+                String url;
+                if (cached_urls != null) {
+                    url = cached_urls.getString(src, url_start, url_len);
+                    if (url == null) {
+                        url = to_string(src, url_start, url_end);
                     }
-                    f.setRequestURL(url);
                 } else {
-                    StringBuilder line = FastThreadLocal.get().getStringBuilder();
-                    for (int i = url_start; i < url_end; i++) {
-                        line.append((char) (src.getByteAbs(i) & 0xff));
-                    }
-                    int re_qmark = qmark - url_start;
-                    parse_kv(f.getRequestParams(), line, re_qmark + 1, line.length(), '=', '&');
-                    f.setRequestURL((String) line.subSequence(0, re_qmark));
+                    url = to_string(src, url_start, url_end);
                 }
+                f.setRequestURL(url);
                 abs_pos = l_end + 1;
             }
         }
@@ -298,12 +404,9 @@ public class HttpCodec extends ProtocolCodec {
                 int size = pe - ps;
                 h_len += size;
                 if (size == 0) {
-                    if (f.getContentLength() < 1) {
+                    if (f.getContentLength() < 1 && !f.isChunked()) {
                         decode_state = decode_state_complete;
                     } else {
-                        if (f.getContentLength() > blimit) {
-                            throw OVER_LIMIT;
-                        }
                         decode_state = decode_state_body;
                     }
                     src.absReadIndex(abs_pos);
@@ -321,6 +424,9 @@ public class HttpCodec extends ProtocolCodec {
                                 ct_len = (src.getByteAbs(i) - '0') + ct_len * 10;
                             }
                             f.setContentLength(ct_len);
+                        } else if (start_with(src, ps, pe, TRANSFER_ENCODING_MATCH) && end_with(src, ps, pe, CHUNKED_MATCH)) {
+                            f.setChunked(true);
+                            f.setContentLength(0);
                         }
                     }
                 }
@@ -346,29 +452,33 @@ public class HttpCodec extends ProtocolCodec {
             }
         }
         if (decode_state == decode_state_header) {
+            // the lines are found by swar indexOf, the names are matched in the buf, only the values of the known headers are copied to the frame
             for (; ; ) {
-                line.setLength(0);
-                int pn = read_line(line, src, abs_pos, h_len, hlimit);
+                int ps = abs_pos;
+                int pn = read_line_range(src, ps, h_len, hlimit);
                 if (pn == -1) {
                     src.absReadIndex(abs_pos);
                     f.setHeaderLength(h_len);
                     break;
                 }
-                abs_pos = pn;
-                h_len += line.length();
-                if (line.length() == 0) {
+                abs_pos = pn + 1;
+                int pe = pn > ps && src.getByteAbs(pn - 1) == R ? pn - 1 : pn;
+                h_len += pe - ps;
+                if (pe == ps) {
                     src.absReadIndex(abs_pos);
                     decode_state = header_complete(f);
                     break;
                 } else {
-                    int p = Util.indexOf(line, ':');
+                    int p = src.indexOf((byte) ':', ps, pe - ps);
                     if (p == -1) {
                         continue;
                     }
-                    int    rp    = Util.skip(line, ' ', p + 1);
-                    String name  = line.substring(0, p);
-                    String value = line.substring(rp);
-                    f.setReadHeader(name, value);
+                    HttpHeader header = HttpHeader.get(src, ps, p - ps);
+                    if (header == null) {
+                        continue;
+                    }
+                    int vs = ByteUtil.skip(src, p + 1, pe, SPACE);
+                    f.setReadHeader(header, src, vs == -1 ? pe : vs, pe);
                 }
             }
         }
@@ -382,16 +492,38 @@ public class HttpCodec extends ProtocolCodec {
         HttpFrame      f      = att.getUncompleteFrame();
         if (f == null) {
             f = alloc_frame(ch.getEventLoop());
+        } else if (f.getDecodeState() == decode_state_body_stream) {
+            // the frame is already accepted, go on with the next one after its body
+            if (decode_body_stream(ch, src, f, att) != decode_state_complete) {
+                return null;
+            }
+            att.setUncompleteFrame(null);
+            if (!src.hasReadableBytes()) {
+                return null;
+            }
+            f = alloc_frame(ch.getEventLoop());
         } else {
             remove = true;
         }
-        int decode_state;
+        // the headers are completed in an earlier pass if the frame is waiting for its body
+        boolean headers_done = f.getDecodeState() == decode_state_body;
+        int     decode_state;
         if (lite) {
             decode_state = decode_lite(src, f);
         } else {
             decode_state = decode_full(src, f);
         }
         if (decode_state == decode_state_body) {
+            if (!headers_done && body_listener != null && body_listener.onHeaders(ch, f)) {
+                f.setBodyStream(true);
+                f.setDecodeState(decode_state_body_stream);
+                att.setBodyRemain(f.isChunked() ? 0 : f.getContentLength());
+                att.setUncompleteFrame(f);
+                return f;
+            }
+            if (f.getContentLength() > blimit) {
+                throw OVER_LIMIT;
+            }
             decode_state = decode_remain_body(ch, src, f);
         }
         if (decode_state == decode_state_complete) {
@@ -406,7 +538,136 @@ public class HttpCodec extends ProtocolCodec {
         }
     }
 
-    int decode_remain_body(Channel ch, ByteBuf src, HttpFrame f) {
+    private int decode_body_stream(Channel ch, ByteBuf src, HttpFrame f, HttpAttachment att) throws Exception {
+        if (f.isChunked()) {
+            return decode_chunked(ch, src, f, att);
+        }
+        int remain = att.getBodyRemain();
+        int len    = Math.min(remain, src.readableBytes());
+        if (len > 0) {
+            push_body(ch, src, f, len);
+            remain -= len;
+            att.setBodyRemain(remain);
+        }
+        if (remain == 0) {
+            body_listener.onBodyComplete(ch, f);
+            return decode_state_complete;
+        }
+        return decode_state_body_stream;
+    }
+
+    private void push_body(Channel ch, ByteBuf src, HttpFrame f, int len) throws Exception {
+        // limit the src to the bytes of this body, no copy
+        int w_index = src.absWriteIndex();
+        int end     = src.absReadIndex() + len;
+        src.absWriteIndex(end);
+        try {
+            body_listener.onBody(ch, f, src);
+        } finally {
+            src.absWriteIndex(w_index);
+            src.absReadIndex(end);
+        }
+    }
+
+    // the chunks are decoded as they arrive, the partial size line or trailer line is left in the src
+    private int decode_chunked(Channel ch, ByteBuf src, HttpFrame f, HttpAttachment att) throws Exception {
+        int state = att.getChunkState();
+        for (; ; ) {
+            if (state == chunk_state_size) {
+                int pn = src.indexOf(N);
+                if (pn == -1) {
+                    if (src.readableBytes() > CHUNK_LINE_LIMIT) {
+                        throw OVER_LIMIT;
+                    }
+                    break;
+                }
+                int size = parse_chunk_size(src, src.absReadIndex(), pn);
+                src.absReadIndex(pn + 1);
+                if (size == 0) {
+                    state = chunk_state_trailer;
+                } else {
+                    att.setBodyRemain(size);
+                    state = chunk_state_data;
+                }
+            } else if (state == chunk_state_data) {
+                int remain = att.getBodyRemain();
+                int len    = Math.min(remain, src.readableBytes());
+                if (len > 0) {
+                    if (f.isBodyStream()) {
+                        push_body(ch, src, f, len);
+                    } else {
+                        append_chunk(src, att, len);
+                    }
+                    remain -= len;
+                    att.setBodyRemain(remain);
+                }
+                if (remain > 0) {
+                    break;
+                }
+                state = chunk_state_data_end;
+            } else if (state == chunk_state_data_end) {
+                if (src.readableBytes() < 2) {
+                    break;
+                }
+                if (src.readByte() != R || src.readByte() != N) {
+                    throw ILLEGAL_CHUNK;
+                }
+                state = chunk_state_size;
+            } else {
+                // the trailers are skipped until the empty line
+                int pn = src.indexOf(N);
+                if (pn == -1) {
+                    if (src.readableBytes() > CHUNK_LINE_LIMIT) {
+                        throw OVER_LIMIT;
+                    }
+                    break;
+                }
+                int size = pn - src.absReadIndex();
+                src.absReadIndex(pn + 1);
+                if (size < 2) {
+                    att.setChunkState(chunk_state_size);
+                    return complete_chunked(ch, f, att);
+                }
+            }
+        }
+        att.setChunkState(state);
+        return f.isBodyStream() ? decode_state_body_stream : decode_state_body;
+    }
+
+    private void append_chunk(ByteBuf src, HttpAttachment att, int len) throws IOException {
+        byte[] body     = att.getChunkBody();
+        int    body_len = att.getChunkBodyLength();
+        if (body_len + len > blimit) {
+            throw OVER_LIMIT;
+        }
+        if (body == null) {
+            body = new byte[Math.max(len, 1024)];
+            att.setChunkBody(body);
+        } else if (body_len + len > body.length) {
+            body = Arrays.copyOf(body, Math.min(Math.max(body_len + len, body.length << 1), blimit));
+            att.setChunkBody(body);
+        }
+        src.readBytes(body, body_len, len);
+        att.setChunkBodyLength(body_len + len);
+    }
+
+    private int complete_chunked(Channel ch, HttpFrame f, HttpAttachment att) throws Exception {
+        if (f.isBodyStream()) {
+            body_listener.onBodyComplete(ch, f);
+        } else {
+            byte[] body     = att.getChunkBody();
+            int    body_len = att.getChunkBodyLength();
+            att.setChunkBody(null);
+            att.setChunkBodyLength(0);
+            set_body(ch, f, body == null ? new byte[0] : Arrays.copyOf(body, body_len));
+        }
+        return decode_state_complete;
+    }
+
+    int decode_remain_body(Channel ch, ByteBuf src, HttpFrame f) throws Exception {
+        if (f.isChunked()) {
+            return decode_chunked(ch, src, f, (HttpAttachment) ch.getAttachment());
+        }
         int contentLength = f.getContentLength();
         int remain        = src.readableBytes();
         if (remain < contentLength) {
@@ -414,16 +675,21 @@ public class HttpCodec extends ProtocolCodec {
         } else {
             byte[] content = new byte[contentLength];
             src.readBytes(content);
-            if (f.isForm()) {
-                String param = new String(content, ch.getCharset());
-                parse_kv(f.getRequestParams(), param, 0, param.length(), '=', '&');
-            } else {
-                f.setContent(content);
-            }
+            set_body(ch, f, content);
             return decode_state_complete;
         }
     }
 
+    private static void set_body(Channel ch, HttpFrame f, byte[] content) {
+        f.setContentLength(content.length);
+        if (f.isForm()) {
+            String param = new String(content, ch.getCharset());
+            parse_kv(f.getRequestParams(), param, 0, param.length(), '=', '&');
+        } else {
+            f.setContent(content);
+        }
+    }
+
     private byte[] get_c_len_buf(FastThreadLocal l) {
         byte[] bb = (byte[]) l.getIndexedVariable(content_len_index);
         if (bb == null) {
@@ -446,11 +712,15 @@ public class HttpCodec extends ProtocolCodec {
         Object          content       = f.getContent();
         ByteBuf         content_buf   = null;
         byte[]          content_array = null;
+        FileRegion      region        = null;
         byte[]          head_bytes    = f.getStatus().getLine();
         byte[]          conn_bytes    = f.getConnection().getLine();
         byte[]          type_bytes    = f.getContentType().getLine();
         byte[]          date_bytes    = f.getDate();
         boolean         is_array      = false;
+        boolean         chunked       = f.isResponseChunked();
+        // the response of HEAD has the Content-Length of the content but no body
+        boolean         no_body       = !chunked && f.getMethodId() == HttpMethod.HEAD.getId();
         int             write_size    = 0;
         if (content instanceof ByteBuf) {
             content_buf = ((ByteBuf) content);
@@ -459,10 +729,17 @@ public class HttpCodec extends ProtocolCodec {
             is_array = true;
             content_array = (byte[]) content;
             write_size = content_array.length;
+        } else if (content instanceof FileRegion) {
+            region = (FileRegion) content;
+            write_size = (int) region.remaining();
         }
         byte[] cl_len_bytes;
         int    cl_len;
-        if (write_size < 1024) {
+        if (chunked) {
+            // the content is written as the first chunk
+            cl_len_bytes = chunked_bytes;
+            cl_len = cl_len_bytes.length;
+        } else if (write_size < 1024) {
             cl_len_bytes = cl_bytes[write_size];
             cl_len = cl_len_bytes.length;
         } else {
@@ -493,7 +770,7 @@ public class HttpCodec extends ProtocolCodec {
             }
         }
         len += 2;
-        if (is_array) {
+        if (is_array && !chunked && !no_body) {
             len += write_size;
         }
         ByteBuf buf;
@@ -531,6 +808,48 @@ public class HttpCodec extends ProtocolCodec {
         }
         buf.writeByte(R);
         buf.writeByte(N);
+        if (chunked) {
+            if (inline) {
+                att.setLastWriteBuf(ByteBuf.empty());
+            }
+            if (offer) {
+                ch.write(buf);
+            }
+            if (is_array) {
+                write_chunk(ch, content_array, 0, write_size);
+            } else if (content_buf != null) {
+                write_chunk(ch, content_buf);
+            } else if (region != null) {
+                ByteBuf head = ch.alloc().allocate(10);
+                ByteBuf tail = ch.alloc().allocate(2);
+                write_chunk_size(head, write_size);
+                tail.writeByte(R);
+                tail.writeByte(N);
+                ch.write(head);
+                ch.write(region);
+                ch.write(tail);
+            }
+            return null;
+        }
+        if (no_body) {
+            if (content_buf != null) {
+                content_buf.release();
+            } else if (region != null) {
+                region.release();
+            }
+            return offer ? buf : null;
+        }
+        if (region != null) {
+            if (inline) {
+                att.setLastWriteBuf(ByteBuf.empty());
+            }
+            if (offer) {
+                ch.write(buf);
+            }
+            // the file is written after the header by sendfile
+            ch.write(region);
+            return null;
+        }
         if (write_size > 0) {
             if (is_array) {
                 buf.writeBytes(content_array);
@@ -538,7 +857,10 @@ public class HttpCodec extends ProtocolCodec {
                 if (inline) {
                     att.setLastWriteBuf(ByteBuf.empty());
                 }
-                ch.write(buf);
+                if (offer) {
+                    return new CompositeByteBuf(buf, content_buf);
+                }
+                // the inline buf is already in the write queue
                 ch.write(content_buf);
                 return null;
             }
@@ -562,6 +884,10 @@ public class HttpCodec extends ProtocolCodec {
         return blimit;
     }
 
+    public HttpBodyListener getBodyListener() {
+        return body_listener;
+    }
+
     public int getHeaderLimit() {
         return hlimit;
     }
@@ -584,7 +910,13 @@ public class HttpCodec extends ProtocolCodec {
         int    contentLength = 0;
         String c_length      = f.getRequestHeader(HttpHeader.Content_Length);
         String c_type        = f.getRequestHeader(HttpHeader.Content_Type);
+        String t_encoding    = f.getRequestHeader(HttpHeader.Transfer_Encoding);
         f.setForm(c_type != null && c_type.startsWith("multipart/form-data;"));
+        if (t_encoding != null && t_encoding.endsWith("chunked")) {
+            // the content length is ignored with the chunked body
+            f.setChunked(true);
+            return decode_state_body;
+        }
         if (!Util.isNullOrBlank(c_length)) {
             contentLength = Integer.parseInt(c_length);
             f.setContentLength(contentLength);
@@ -592,23 +924,34 @@ public class HttpCodec extends ProtocolCodec {
         if (contentLength < 1) {
             return decode_state_complete;
         } else {
-            if (contentLength > blimit) {
-                throw OVER_LIMIT;
-            }
             return decode_state_body;
         }
     }
 
+    // the word is the first 8 bytes of the line one in big endian
+    static HttpMethod match_method(long word) {
+        for (int i = 0; i < METHODS.length; i++) {
+            if ((word & METHOD_MASKS[i]) == METHOD_NUMS[i]) {
+                return METHODS[i];
+            }
+        }
+        return null;
+    }
+
     protected void parse_line_one(HttpFrame f, CharSequence line) throws IOException {
-        if (line.charAt(0) == 'G' && line.charAt(1) == 'E' && line.charAt(2) == 'T') {
-            f.setMethod(HttpMethod.GET);
-            parse_url(f, 4, line);
-        } else if (line.charAt(0) == 'P' && line.charAt(1) == 'O' && line.charAt(2) == 'S' && line.charAt(3) == 'T') {
-            f.setMethod(HttpMethod.POST);
-            parse_url(f, 5, line);
-        } else {
+        if (line.length() < 8) {
+            throw ILLEGAL_METHOD;
+        }
+        long word = 0;
+        for (int i = 0; i < 8; i++) {
+            word = (word << 8) | (line.charAt(i) & 0xff);
+        }
+        HttpMethod method = match_method(word);
+        if (method == null) {
             throw ILLEGAL_METHOD;
         }
+        f.setMethod(method);
+        parse_url(f, method.getBytes().length + 1, line);
     }
 
     @Override
@@ -20,6 +20,8 @@ import static com.firenio.codec.http11.HttpHeader.Sec_WebSocket_Accept;
 import static com.firenio.codec.http11.HttpHeader.Sec_WebSocket_Key;
 import static com.firenio.codec.http11.HttpHeader.Upgrade;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -38,17 +40,29 @@ public class HttpFrame extends Frame {
 
     static final KMPUtil KMP_BOUNDARY = new KMPUtil("boundary=");
 
+    // the values of the read headers and the query are kept in the arena, the strings are created when they are got
+    private byte[]              arena;
+    private int                 arena_size;
+    private boolean             bodyStream;
+    private boolean             chunked;
     private int                 connection      = HttpConnection.KEEP_ALIVE.getId();
     private int                 contentLength;
     private int                 contentType     = HttpContentType.text_plain_utf8.getId();
     private byte[]              date;
     private int                 decodeState;
+    // id, offset and length of each read header in the arena
+    private int[]               header_index    = new int[8 * 3];
+    private int                 header_size;
+    private String[]            header_values   = new String[8];
     private int                 headerLength;
     private boolean             isForm;
     private int                 method;
     private Map<String, String> params          = new HashMap<>();
-    private IntMap<String>      request_headers = new IntMap<>(16);
+    private int                 query_length;
+    private int                 query_offset    = -1;
+    private IntMap<String>      request_headers;
     private String              requestURL;
+    private boolean             responseChunked;
     private IntMap<byte[]>      response_headers;
     private int                 status          = HttpStatus.C200.getStatus();
 
@@ -121,22 +135,52 @@ public class HttpFrame extends Frame {
     }
 
     public String getRequestHeader(HttpHeader name) {
-        return request_headers.get(name.getId());
+        return getRequestHeader(name.getId());
     }
 
     public String getRequestHeader(int name) {
+        // the later one wins as it is put later
+        for (int i = header_size - 1; i >= 0; i--) {
+            if (header_index[i * 3] == name) {
+                String value = header_values[i];
+                if (value == null) {
+                    value = to_string(header_index[i * 3 + 1], header_index[i * 3 + 2]);
+                    header_values[i] = value;
+                }
+                return value;
+            }
+        }
+        if (request_headers == null) {
+            return null;
+        }
         return request_headers.get(name);
     }
 
+    /**
+     * all the read headers are created as strings and moved to the map, use
+     * getRequestHeader if only some of them are used
+     */
     public IntMap<String> getRequestHeaders() {
+        if (request_headers == null) {
+            request_headers = new IntMap<>(16);
+        }
+        for (int i = 0; i < header_size; i++) {
+            request_headers.put(header_index[i * 3], getRequestHeader(header_index[i * 3]));
+        }
+        header_size = 0;
         return request_headers;
     }
 
     public String getRequestParam(String key) {
-        return params.get(key);
+        return getRequestParams().get(key);
     }
 
     public Map<String, String> getRequestParams() {
+        if (query_offset != -1) {
+            String query = to_string(query_offset, query_length);
+            query_offset = -1;
+            HttpCodec.parse_kv(params, query, 0, query.length(), '=', '&');
+        }
         return params;
     }
 
@@ -180,6 +224,21 @@ public class HttpFrame extends Frame {
         return getContent() != null;
     }
 
+    /**
+     * @return true if the body of this frame is pushed to the HttpBodyListener
+     * of the codec instead of being set as the content
+     */
+    public boolean isBodyStream() {
+        return bodyStream;
+    }
+
+    /**
+     * @return true if the body of this frame is chunked encoded
+     */
+    public boolean isChunked() {
+        return chunked;
+    }
+
     public boolean isForm() {
         return isForm;
     }
@@ -188,18 +247,30 @@ public class HttpFrame extends Frame {
         return method == HttpMethod.GET.getId();
     }
 
+    public boolean isResponseChunked() {
+        return responseChunked;
+    }
+
     public HttpFrame reset() {
         this.requestURL = null;
         this.method = 0;
         this.contentLength = 0;
         this.headerLength = 0;
         this.isForm = false;
+        this.bodyStream = false;
+        this.chunked = false;
+        this.responseChunked = false;
         this.contentType = HttpContentType.text_plain_utf8.getId();
         this.connection = HttpConnection.KEEP_ALIVE.getId();
         this.status = HttpStatus.C200.getStatus();
         this.decodeState = HttpCodec.decode_state_line_one;
+        this.arena_size = 0;
+        this.header_size = 0;
+        this.query_offset = -1;
         this.params.clear();
-        this.request_headers.clear();
+        if (request_headers != null) {
+            request_headers.clear();
+        }
         if (response_headers != null) {
             response_headers.clear();
         }
@@ -207,6 +278,14 @@ public class HttpFrame extends Frame {
         return this;
     }
 
+    protected void setBodyStream(boolean bodyStream) {
+        this.bodyStream = bodyStream;
+    }
+
+    protected void setChunked(boolean chunked) {
+        this.chunked = chunked;
+    }
+
     public void setConnection(HttpConnection connection) {
         this.connection = connection.getId();
     }
@@ -239,25 +318,50 @@ public class HttpFrame extends Frame {
         this.method = method.getId();
     }
 
-    void setReadHeader(String name, String value) {
-        HttpHeader header = getHeader(name);
-        if (header != null) {
-            request_headers.put(header.getId(), value);
+    void setReadHeader(HttpHeader header, ByteBuf src, int start, int end) {
+        int i = header_size++;
+        if (header_values.length == i) {
+            header_index = Arrays.copyOf(header_index, i * 2 * 3);
+            header_values = Arrays.copyOf(header_values, i * 2);
         }
+        header_index[i * 3] = header.getId();
+        header_index[i * 3 + 1] = arena_size;
+        header_index[i * 3 + 2] = end - start;
+        header_values[i] = null;
+        write_arena(src, start, end);
     }
 
     public void setRequestHeader(HttpHeader header, String value) {
-        this.request_headers.put(header.getId(), value);
+        getRequestHeaders().put(header.getId(), value);
     }
 
     public void setRequestHeaders(IntMap<String> requestHeaders) {
+        this.header_size = 0;
         this.request_headers = requestHeaders;
     }
 
     public void setRequestParams(Map<String, String> params) {
+        this.query_offset = -1;
         this.params = params;
     }
 
+    void setRequestQuery(ByteBuf src, int start, int end) {
+        query_offset = arena_size;
+        query_length = end - start;
+        write_arena(src, start, end);
+    }
+
+    void setRequestQuery(CharSequence line, int start, int end) {
+        int len = end - start;
+        ensure_arena(len);
+        for (int i = 0; i < len; i++) {
+            arena[arena_size + i] = (byte) line.charAt(start + i);
+        }
+        query_offset = arena_size;
+        query_length = len;
+        arena_size += len;
+    }
+
     public void setRequestURL(String url) {
         this.requestURL = url;
     }
@@ -289,17 +393,73 @@ public class HttpFrame extends Frame {
         if (params == null) {
             params = new HashMap<>();
         }
-        this.params.put(key, value);
+        getRequestParams().put(key, value);
+    }
+
+    /**
+     * send the response with Transfer-Encoding: chunked instead of
+     * Content-Length, the content of this frame is written as the first chunk
+     * when this frame is written, the other chunks are written by writeChunk
+     * and the response is ended by writeLastChunk.
+     */
+    public void setResponseChunked(boolean responseChunked) {
+        this.responseChunked = responseChunked;
     }
 
     public void setStatus(HttpStatus status) {
         this.status = status.getStatus();
     }
 
+    // the header values are kept as the bytes of the wire, one char per byte
+    private String to_string(int offset, int length) {
+        return new String(arena, offset, length, StandardCharsets.ISO_8859_1);
+    }
+
     public String toString() {
         return getRequestURL();
     }
 
+    /**
+     * write and flush a chunk of the chunked response, the buf is released
+     * after it is written, the empty buf is ignored
+     */
+    public void writeChunk(Channel ch, ByteBuf buf) {
+        HttpCodec.write_chunk(ch, buf);
+        ch.flush();
+    }
+
+    public void writeChunk(Channel ch, byte[] data) {
+        writeChunk(ch, data, 0, data.length);
+    }
+
+    public void writeChunk(Channel ch, byte[] data, int off, int len) {
+        HttpCodec.write_chunk(ch, data, off, len);
+        ch.flush();
+    }
+
+    /**
+     * end the chunked response
+     */
+    public void writeLastChunk(Channel ch) {
+        HttpCodec.write_last_chunk(ch);
+        ch.flush();
+    }
+
+    private void ensure_arena(int len) {
+        if (arena == null) {
+            arena = new byte[Math.max(len, 256)];
+        } else if (arena.length - arena_size < len) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arena_size + len));
+        }
+    }
+
+    private void write_arena(ByteBuf src, int start, int end) {
+        int len = end - start;
+        ensure_arena(len);
+        src.getBytes(start - src.offset(), arena, arena_size, len);
+        arena_size += len;
+    }
+
     public boolean updateWebSocketProtocol(final Channel ch) throws Exception {
         String Sec_WebSocket_Key_Value = getRequestHeader(Sec_WebSocket_Key);
         if (!Util.isNullOrBlank(Sec_WebSocket_Key_Value)) {
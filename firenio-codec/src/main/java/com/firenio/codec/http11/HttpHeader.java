@@ -18,6 +18,9 @@ package com.firenio.codec.http11;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.firenio.buffer.ByteBuf;
+import com.firenio.collection.ByteTree;
+
 public enum HttpHeader {
 
     Accept("Accept"), //
@@ -66,7 +69,9 @@ public enum HttpHeader {
     Warning("Warning"), // 
     WWW_Authenticate("WWW-Authenticate");
 
-    public static final  Map<String, HttpHeader> ALL = new HashMap<>();
+    public static final  Map<String, HttpHeader> ALL  = new HashMap<>();
+    // the lower case names, matched from the buf without creating strings
+    private static final ByteTree                TREE = new ByteTree();
     private static final HttpHeader[]            enums;
 
     static {
@@ -76,6 +81,7 @@ public enum HttpHeader {
                 enums[value.id] = value;
                 ALL.put(value.getKey(), value);
                 ALL.put(value.getLowercase(), value);
+                TREE.add(value.getLowercase().getBytes(), value);
             }
         } catch (Exception e) {
             throw new RuntimeException(e);
@@ -101,6 +107,13 @@ public enum HttpHeader {
         return enums[index];
     }
 
+    /**
+     * @return the header of the name in the buf ignore case, null if unknown
+     */
+    public static HttpHeader get(ByteBuf buf, int absPos, int length) {
+        return (HttpHeader) TREE.getIgnoreCase(buf, absPos, length);
+    }
+
     public byte[] getBytes() {
         return bytes;
     }
@@ -20,7 +20,16 @@ package com.firenio.codec.http11;
  */
 public enum HttpMethod {
 
-    CONNECT(3, "CONNECT"), GET(1, "GET"), OTHER(0, "OTHER"), POST(2, "POST");
+    CONNECT(3, "CONNECT"), //
+    DELETE(4, "DELETE"), //
+    GET(1, "GET"), //
+    HEAD(5, "HEAD"), //
+    OPTIONS(6, "OPTIONS"), //
+    OTHER(0, "OTHER"), //
+    PATCH(7, "PATCH"), //
+    POST(2, "POST"), //
+    PUT(8, "PUT"), //
+    TRACE(9, "TRACE");
 
     private static final HttpMethod[] enums;
 
@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.util.List;
 
 import com.firenio.buffer.ByteBuf;
+import com.firenio.buffer.CompositeByteBuf;
 import com.firenio.component.Channel;
 import com.firenio.component.Frame;
 import com.firenio.component.NioEventLoop;
@@ -197,8 +198,23 @@ public final class WebSocketCodec extends ProtocolCodec {
         if (buf == null) {
             throw new IOException("null buf content");
         }
-        int  size      = buf.writeIndex() - MAX_HEADER_LENGTH;
         byte mark_code = f.getMarkCode();
+        if (f.isPayload()) {
+            int     size   = buf.readableBytes();
+            ByteBuf header = ch.alloc().allocate(MAX_HEADER_LENGTH);
+            header.writeByte(mark_code);
+            if (size < 126) {
+                header.writeByte((byte) size);
+            } else if (size <= MAX_UNSIGNED_SHORT) {
+                header.writeByte((byte) 126);
+                header.writeShort(size);
+            } else {
+                header.writeByte((byte) 127);
+                header.writeLong(size);
+            }
+            return new CompositeByteBuf(header, buf);
+        }
+        int size = buf.writeIndex() - MAX_HEADER_LENGTH;
         if (size < 126) {
             buf.readIndex(8);
             buf.setByte(8, mark_code);
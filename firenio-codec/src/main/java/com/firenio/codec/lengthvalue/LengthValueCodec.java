@@ -18,6 +18,7 @@ package com.firenio.codec.lengthvalue;
 import java.io.IOException;
 
 import com.firenio.buffer.ByteBuf;
+import com.firenio.buffer.CompositeByteBuf;
 import com.firenio.component.Frame;
 import com.firenio.component.Channel;
 import com.firenio.component.ProtocolCodec;
@@ -109,6 +110,11 @@ public final class LengthValueCodec extends ProtocolCodec {
     @Override
     public ByteBuf encode(Channel ch, Frame frame) {
         ByteBuf buf = frame.getBufContent();
+        if (frame.isPayload()) {
+            ByteBuf header = ch.alloc().allocate(PROTOCOL_HEADER);
+            header.writeInt(buf.readableBytes());
+            return new CompositeByteBuf(header, buf);
+        }
         buf.setInt(0, buf.writeIndex() - PROTOCOL_HEADER);
         return buf;
     }
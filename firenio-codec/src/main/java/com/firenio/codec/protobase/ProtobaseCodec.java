@@ -18,6 +18,7 @@ package com.firenio.codec.protobase;
 import java.io.IOException;
 
 import com.firenio.buffer.ByteBuf;
+import com.firenio.buffer.CompositeByteBuf;
 import com.firenio.component.Channel;
 import com.firenio.component.Frame;
 import com.firenio.component.ProtocolCodec;
@@ -117,6 +118,13 @@ public final class ProtobaseCodec extends ProtocolCodec {
     public ByteBuf encode(Channel ch, Frame frame) {
         ProtobaseFrame f   = (ProtobaseFrame) frame;
         ByteBuf        buf = f.getBufContent();
+        if (f.isPayload()) {
+            ByteBuf header = ch.alloc().allocate(PROTOCOL_HEADER);
+            header.writeInt((buf.readableBytes() + PROTOCOL_HEADER - 4) | (f.getFlags() << 24));
+            header.writeInt(f.getFrameId());
+            header.writeInt(f.getChannelId());
+            return new CompositeByteBuf(header, buf);
+        }
         buf.setInt(0, (buf.writeIndex() - 4) | (f.getFlags() << 24));
         buf.setInt(4, f.getFrameId());
         buf.setInt(8, f.getChannelId());
@@ -24,12 +24,14 @@ import com.firenio.component.Native;
 public class Options {
 
     static final String BUF_AUTO_EXPANSION     = "com.firenio.bufAutoExpansion";
+    static final String BUF_LEAK_DETECT        = "com.firenio.bufLeakDetect";
     static final String BUF_THREAD_YIELD       = "com.firenio.bufThreadYield";
     static final String BUF_RECYCLE            = "com.firenio.bufRecycle";
     static final String CHANNEL_READ_FIRST     = "com.firenio.channelReadFirst";
     static final String DEBUG_ERROR            = "com.firenio.debugError";
     static final String ENABLE_UNSAFE          = "com.firenio.enableUnsafe";
     static final String ENABLE_EPOLL           = "com.firenio.ssl.enableEpoll";
+    static final String ENABLE_IO_URING        = "com.firenio.enableIoUring";
     static final String ENABLE_OPENSSL         = "com.firenio.ssl.enableOpenSsl";
     static final String ENABLE_UNSAFE_BUF      = "com.firenio.ssl.enableUnsafeBuf";
     static final String OPENSSL_PATH           = "org.wildfly.openssl.path";
@@ -56,6 +58,13 @@ public class Options {
         return isTrue(BUF_AUTO_EXPANSION, true);
     }
 
+    /**
+     * @return sample interval of the buf leak detector, track 1 of N pooled bufs, 0 to disable
+     */
+    public static int getBufLeakDetect(int defaultValue) {
+        return getInt(BUF_LEAK_DETECT, defaultValue);
+    }
+
     public static boolean isBufThreadYield() {
         return isTrue(BUF_THREAD_YIELD, false);
     }
@@ -76,6 +85,13 @@ public class Options {
         return isTrue(ENABLE_EPOLL, true);
     }
 
+    /**
+     * @return true if the io_uring event loop is preferred to the epoll event loop, false by default
+     */
+    public static boolean isEnableIoUring() {
+        return isTrue(ENABLE_IO_URING, false);
+    }
+
     public static boolean isEnableOpenssl() {
         return isTrue(ENABLE_OPENSSL);
     }
@@ -88,6 +104,10 @@ public class Options {
         System.setProperty(BUF_AUTO_EXPANSION, String.valueOf(auto));
     }
 
+    public static void setBufLeakDetect(int interval) {
+        setInt(BUF_LEAK_DETECT, interval);
+    }
+
     public static void setBufThreadYield(boolean yield) {
         setBool(BUF_THREAD_YIELD, yield);
     }
@@ -112,6 +132,10 @@ public class Options {
         setBool(ENABLE_EPOLL, enable);
     }
 
+    public static void setEnableIoUring(boolean enable) {
+        setBool(ENABLE_IO_URING, enable);
+    }
+
     public static void setEnableOpenssl(boolean enable) {
         setBool(ENABLE_OPENSSL, enable);
     }
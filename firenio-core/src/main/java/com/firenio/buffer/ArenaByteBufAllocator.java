@@ -0,0 +1,630 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.firenio.buffer;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.firenio.Options;
+import com.firenio.collection.LinkedBQStack;
+import com.firenio.collection.MpscArrayQueue;
+import com.firenio.collection.Stack;
+import com.firenio.common.Unsafe;
+import com.firenio.common.Util;
+
+/**
+ * Run based allocator, the memory is split into chunks of the same capacity,
+ * see {@link PoolChunk} for how runs are allocated in a chunk. The first chunk
+ * is allocated at start, more chunks are added on demand up to maxChunks, a
+ * chunk (except the first one) which has been empty for chunkIdleTime is
+ * returned to the os.
+ * <p>
+ * When bound to a thread (the event loop which owns this allocator), small runs
+ * released by the owner are cached in per size class magazines and handed out
+ * again without lock, runs released by other threads are sent back to the owner
+ * through a lock free queue and drained in batches.
+ * <p>
+ * The unitOffset of a buf is the handle of its run: chunk index << CHUNK_SHIFT | start.
+ *
+ * @author wangkai
+ */
+public final class ArenaByteBufAllocator extends ByteBufAllocator {
+
+    public static final ByteBufException EXPANSION_FAILED = EXPANSION_FAILED();
+    static final        int              BYTEBUF_BUFFER   = 1024 * 8;
+    static final        boolean          BYTEBUF_RECYCLE  = Options.isBufRecycle();
+    static final        int              CHUNK_SHIFT      = 24;
+    static final        int              MAGAZINE_SIZE    = 16;
+    static final        int              MAX_CHUNKS       = 127;
+    static final        int              MAX_CAPACITY     = 1 << CHUNK_SHIFT;
+    static final        int              REMOTE_FREES     = 1024 * 4;
+    static final        int              SMALL_CLASSES    = PoolChunk.SMALL_CLASSES;
+    static final        int              UNIT_MASK        = MAX_CAPACITY - 1;
+
+    static final AtomicIntegerFieldUpdater<ArenaByteBufAllocator> USED_BUF = AtomicIntegerFieldUpdater.newUpdater(ArenaByteBufAllocator.class, "usedBuf");
+
+    private final    Stack<ByteBuf>          bufBuffer;
+    private final    int                     capacity;
+    private final    long                    chunkIdleTime;
+    private final    PoolChunk[]             chunks;
+    private final    boolean                 isDirect;
+    private final    ReentrantLock           lock = new ReentrantLock();
+    // magazines are accessed by the owner thread only
+    private final    int                     magazine_limit;
+    private final    int[]                   magazine_sizes;
+    private final    int[][]                 magazines;
+    private final    MpscArrayQueue<ByteBuf> remote_frees;
+    private final    int                     unit;
+    private final    ByteBufAllocator        unpooled;
+    // counters, ownerAllocations is updated by the owner thread, others are updated under lock
+    private          long                    allocations;
+    private          long                    expansionCopies;
+    private volatile ByteBufAllocatorMetric  lastMetric;
+    private          int                     magazine_units;
+    private          long                    next_trim_time;
+    private volatile Thread                  owner;
+    private          long                    ownerAllocations;
+    private          long                    unpooledFallbacks;
+    private volatile int                     usedBuf;
+
+    public ArenaByteBufAllocator(ByteBufAllocatorGroup group) {
+        this.unit = group.getUnit();
+        this.isDirect = group.isDirect();
+        this.capacity = group.getCapacity();
+        this.chunkIdleTime = group.getChunkIdleTime();
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity > " + MAX_CAPACITY);
+        }
+        this.chunks = new PoolChunk[Math.min(Math.max(group.getMaxChunks(), 1), MAX_CHUNKS)];
+        this.unpooled = UnpooledByteBufAllocator.get();
+        this.magazines = new int[SMALL_CLASSES][MAGAZINE_SIZE];
+        this.magazine_sizes = new int[SMALL_CLASSES];
+        this.magazine_limit = capacity >>> 3;
+        this.remote_frees = new MpscArrayQueue<>(REMOTE_FREES);
+        if (BYTEBUF_RECYCLE) {
+            bufBuffer = new LinkedBQStack<>(BYTEBUF_BUFFER);
+        } else {
+            bufBuffer = null;
+        }
+    }
+
+    static ByteBufException EXPANSION_FAILED() {
+        return Util.unknownStackTrace(new ByteBufException(), ArenaByteBufAllocator.class, "expansion");
+    }
+
+    @Override
+    public ByteBuf allocate() {
+        return allocate(unit);
+    }
+
+    @Override
+    public ByteBuf allocate(int limit) {
+        if (limit < 1) {
+            return ByteBuf.empty();
+        }
+        int     size    = (limit + unit - 1) / unit;
+        boolean inOwner = owner == Thread.currentThread();
+        int     handle;
+        if (inOwner) {
+            if (!remote_frees.isEmpty()) {
+                drain_remote_frees();
+            }
+            if (size <= SMALL_CLASSES) {
+                int i = size - 1;
+                int n = magazine_sizes[i];
+                if (n > 0) {
+                    handle = magazines[i][--n];
+                    magazine_sizes[i] = n;
+                    magazine_units -= size;
+                    ownerAllocations++;
+                    USED_BUF.incrementAndGet(this);
+                    return produce(handle, size);
+                }
+            }
+        }
+        ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            allocations++;
+            if (!isRunning()) {
+                unpooledFallbacks++;
+                return unpooled.allocate(limit);
+            }
+            trim(inOwner, false);
+            handle = allocate_handle(size);
+            if (handle == -1 && inOwner && magazine_units > 0) {
+                flush_magazines();
+                handle = allocate_handle(size);
+            }
+            if (handle == -1) {
+                unpooledFallbacks++;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (handle == -1) {
+            return unpooled.allocate(limit);
+        }
+        USED_BUF.incrementAndGet(this);
+        return produce(handle, size);
+    }
+
+    // under lock, try the chunks from the lowest one, so the higher chunks can go idle
+    private int allocate_handle(int size) {
+        PoolChunk[] chunks = this.chunks;
+        int         empty  = -1;
+        for (int i = 0; i < chunks.length; i++) {
+            PoolChunk chunk = chunks[i];
+            if (chunk == null) {
+                if (empty == -1) {
+                    empty = i;
+                }
+                continue;
+            }
+            int start = chunk.allocate(size);
+            if (start != -1) {
+                return chunk.base | start;
+            }
+        }
+        if (empty == -1 || size > capacity) {
+            return -1;
+        }
+        PoolChunk chunk = new_chunk(empty);
+        return chunk.base | chunk.allocate(size);
+    }
+
+    /**
+     * bind the owner thread, runs released by the owner are cached without lock,
+     * runs released by other threads are returned to the owner in batches.
+     */
+    public void bindThread(Thread thread) {
+        // under lock, so the late drain of an unbound owner is done before
+        ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            this.owner = thread;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // owner thread only, returns false if the magazine is full
+    private boolean cache(int handle, int size) {
+        if (size > SMALL_CLASSES || magazine_units + size > magazine_limit) {
+            return false;
+        }
+        int i = size - 1;
+        int n = magazine_sizes[i];
+        if (n == MAGAZINE_SIZE) {
+            return false;
+        }
+        magazines[i][n] = handle;
+        magazine_sizes[i] = n + 1;
+        magazine_units += size;
+        return true;
+    }
+
+    private PoolChunk chunk(int handle) {
+        return chunks[handle >>> CHUNK_SHIFT];
+    }
+
+    private void copy(long src_address, byte[] src_array, int src_offset, ByteBuf dst, int len) {
+        if (Unsafe.UNSAFE_BUF_AVAILABLE || isDirect) {
+            Unsafe.copyMemory(src_address + src_offset, dst.address() + dst.offset(), len);
+        } else {
+            System.arraycopy(src_array, src_offset, dst.array(), dst.offset(), len);
+        }
+    }
+
+    @Override
+    protected void doStart() {
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = null;
+        }
+        this.usedBuf = 0;
+        this.next_trim_time = Util.now() + chunkIdleTime;
+        new_chunk(0);
+    }
+
+    @Override
+    protected void doStop() {
+        for (; ; ) {
+            ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                // check all memory(buf) are backed
+                if (usedBuf == 0) {
+                    freeMemory();
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            Util.sleep(8);
+        }
+    }
+
+    // owner thread only
+    private void drain_remote_frees() {
+        MpscArrayQueue<ByteBuf> frees = this.remote_frees;
+        ReentrantLock           lock  = null;
+        try {
+            for (; ; ) {
+                ByteBuf buf = frees.poll();
+                if (buf == null) {
+                    break;
+                }
+                int handle = buf.unitOffset();
+                if (!cache(handle, buf.capacity() / unit)) {
+                    if (lock == null) {
+                        lock = this.lock;
+                        lock.lock();
+                    }
+                    free(handle);
+                }
+                recycle(buf);
+            }
+        } finally {
+            if (lock != null) {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    protected void expansion(ByteBuf buf, int cap) {
+        if (cap > buf.capacity()) {
+            ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                int       size   = (cap + unit - 1) / unit;
+                int       handle = buf.unitOffset();
+                int       start  = handle & UNIT_MASK;
+                PoolChunk chunk  = chunk(handle);
+                int       len    = chunk.size(start);
+                if (chunk.expand(start, size)) {
+                    buf.capacity(size * unit);
+                    return;
+                }
+                int    old_read_index  = buf.readIndex();
+                int    old_write_index = buf.writeIndex();
+                int    old_offset      = buf.offset();
+                long   old_address     = buf.address();
+                byte[] old_array       = buf.array();
+                int    merged          = chunk.free(start);
+                int    pos             = chunk.allocate(size);
+                if (pos == -1) {
+                    // keep the old run until copied, the new run is in another chunk
+                    chunk.take_run(merged, start, len);
+                    int h = allocate_handle(size);
+                    if (h == -1) {
+                        throw EXPANSION_FAILED;
+                    }
+                    produce(buf, h, size);
+                    copy(old_address, old_array, old_offset, buf, old_write_index);
+                    free(handle);
+                } else {
+                    // the new run may overlap the old one, both copies are overlap safe
+                    produce(buf, chunk.base | pos, size);
+                    copy(old_address, old_array, old_offset, buf, old_write_index);
+                }
+                expansionCopies++;
+                buf.readIndex(old_read_index).writeIndex(old_write_index);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // owner thread only, under lock
+    private void flush_magazines() {
+        for (int i = 0; i < SMALL_CLASSES; i++) {
+            int[] magazine = magazines[i];
+            int   n        = magazine_sizes[i];
+            for (int j = 0; j < n; j++) {
+                free(magazine[j]);
+            }
+            magazine_sizes[i] = 0;
+        }
+        magazine_units = 0;
+    }
+
+    // under lock
+    private void free(int handle) {
+        PoolChunk chunk = chunk(handle);
+        chunk.free(handle & UNIT_MASK);
+        if (chunk.usedMem == 0) {
+            chunk.idleSince = Util.now();
+        }
+    }
+
+    @Override
+    public void freeMemory() {
+        PoolChunk[] chunks = this.chunks;
+        for (int i = 0; i < chunks.length; i++) {
+            PoolChunk chunk = chunks[i];
+            if (chunk != null) {
+                chunk.freeMemory(isDirect);
+                chunks[i] = null;
+            }
+        }
+    }
+
+    @Override
+    public final int getCapacity() {
+        return capacity;
+    }
+
+    public long getChunkIdleTime() {
+        return chunkIdleTime;
+    }
+
+    public int getMaxChunks() {
+        return chunks.length;
+    }
+
+    @Override
+    public ByteBufAllocatorMetric getMetric() {
+        ByteBufAllocatorMetric m    = new ByteBufAllocatorMetric();
+        ReentrantLock          lock = this.lock;
+        lock.lock();
+        try {
+            long used = 0;
+            for (PoolChunk chunk : chunks) {
+                if (chunk != null) {
+                    m.chunks++;
+                    m.capacity += (long) chunk.capacity * unit;
+                    m.largestFreeRun = Math.max(m.largestFreeRun, (long) chunk.maxFree() * unit);
+                    used += chunk.usedMem;
+                }
+            }
+            m.time = Util.now();
+            m.cachedBytes = (long) magazine_units * unit;
+            m.usedBytes = used * unit - m.cachedBytes;
+            m.allocations = allocations + ownerAllocations;
+            m.unpooledFallbacks = unpooledFallbacks;
+            m.expansionCopies = expansionCopies;
+            m.outstandingBufs = usedBuf;
+        } finally {
+            lock.unlock();
+        }
+        m.rate(lastMetric);
+        this.lastMetric = m;
+        return m;
+    }
+
+    public PoolState getState() {
+        ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            PoolState state = new PoolState();
+            for (PoolChunk chunk : chunks) {
+                if (chunk != null) {
+                    state.chunk++;
+                    state.memory += chunk.capacity;
+                    state.free += chunk.capacity - chunk.usedMem;
+                    state.mfree = Math.max(state.mfree, chunk.maxFree());
+                }
+            }
+            state.buf = usedBuf;
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public final int getUnit() {
+        return unit;
+    }
+
+    @Override
+    public boolean isDirect() {
+        return isDirect;
+    }
+
+    // under lock
+    private PoolChunk new_chunk(int index) {
+        PoolChunk chunk = new PoolChunk(index, index << CHUNK_SHIFT, capacity, unit);
+        chunk.allocateMemory(isDirect);
+        chunks[index] = chunk;
+        return chunk;
+    }
+
+    private ByteBuf newByteBuf(PoolChunk chunk) {
+        if (BYTEBUF_RECYCLE) {
+            ByteBuf buf = bufBuffer.pop();
+            if (buf == null) {
+                return newByteBuf0(chunk);
+            }
+            return buf;
+        } else {
+            return newByteBuf0(chunk);
+        }
+    }
+
+    private ByteBuf newByteBuf0(PoolChunk chunk) {
+        if (Unsafe.UNSAFE_BUF_AVAILABLE) {
+            return new PooledUnsafeByteBuf(this, chunk.address);
+        } else {
+            return isDirect() ? new PooledDirectByteBuf(this, chunk.directMemory.duplicate()) : new PooledHeapByteBuf(this, chunk.heapMemory);
+        }
+    }
+
+    private ByteBuf produce(int handle, int size) {
+        PoolChunk chunk = chunk(handle);
+        int       start = handle & UNIT_MASK;
+        return ByteBufLeakDetector.track(newByteBuf(chunk).produce(chunk, start, start + size));
+    }
+
+    private void produce(ByteBuf buf, int handle, int size) {
+        PoolChunk chunk = chunk(handle);
+        int       start = handle & UNIT_MASK;
+        buf.produce(chunk, start, start + size);
+    }
+
+    private void recycle(ByteBuf buf) {
+        if (BYTEBUF_RECYCLE) {
+            bufBuffer.push(buf);
+        }
+    }
+
+    @Override
+    protected void release(ByteBuf buf) {
+        USED_BUF.decrementAndGet(this);
+        Thread owner = this.owner;
+        if (owner == Thread.currentThread()) {
+            if (cache(buf.unitOffset(), buf.capacity() / unit)) {
+                recycle(buf);
+                return;
+            }
+        } else if (owner != null && remote_frees.offer(buf)) {
+            if (this.owner == null) {
+                // the owner is unbound after the offer, its last drain may miss the buf
+                drain_unbound();
+            }
+            return;
+        }
+        ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            free(buf.unitOffset());
+        } finally {
+            lock.unlock();
+        }
+        recycle(buf);
+    }
+
+    @Override
+    public String toString() {
+        PoolState     s = getState();
+        StringBuilder b = new StringBuilder();
+        b.append(getClass().getSimpleName());
+        b.append("[memory=");
+        b.append(s.memory);
+        b.append(",free=");
+        b.append(s.free);
+        b.append(",mfree=");
+        b.append(s.mfree);
+        b.append(",buf=");
+        b.append(s.buf);
+        b.append(",chunk=");
+        b.append(s.chunk);
+        b.append(",unit=");
+        b.append(unit);
+        b.append(",isDirect=");
+        b.append(isDirect());
+        b.append("]");
+        return b.toString();
+    }
+
+    /**
+     * return the chunks which have been empty for chunkIdleTime to the os, it
+     * is also checked when allocating, the owner thread should call this
+     * periodically in case of the runs are mostly served by the magazines.
+     */
+    public void trim() {
+        if (chunks.length == 1) {
+            return;
+        }
+        ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            trim(owner == Thread.currentThread(), true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // under lock
+    private void trim(boolean inOwner, boolean force) {
+        if (chunks.length == 1) {
+            return;
+        }
+        long now = Util.now();
+        if (!force && now < next_trim_time) {
+            return;
+        }
+        this.next_trim_time = now + chunkIdleTime;
+        if (inOwner && magazine_units > 0) {
+            // cached runs keep the chunks alive
+            flush_magazines();
+        }
+        PoolChunk[] chunks = this.chunks;
+        for (int i = 1; i < chunks.length; i++) {
+            PoolChunk chunk = chunks[i];
+            if (chunk != null && chunk.usedMem == 0 && now - chunk.idleSince >= chunkIdleTime) {
+                chunk.freeMemory(isDirect);
+                chunks[i] = null;
+            }
+        }
+    }
+
+    /**
+     * unbind the owner thread, must be called in the owner thread, all cached
+     * runs are returned to the pool.
+     */
+    public void unbindThread() {
+        if (owner != Thread.currentThread()) {
+            return;
+        }
+        this.owner = null;
+        ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            free_remote_frees();
+            flush_magazines();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drain_unbound() {
+        ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            if (owner == null) {
+                free_remote_frees();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // under lock, no owner is draining the remote frees
+    private void free_remote_frees() {
+        for (; ; ) {
+            ByteBuf buf = remote_frees.poll();
+            if (buf == null) {
+                break;
+            }
+            free(buf.unitOffset());
+            recycle(buf);
+        }
+    }
+
+    /**
+     * for debug
+     */
+    public class PoolState {
+        public int buf;
+        public int chunk;
+        public int free;
+        public int memory;
+        public int mfree;
+    }
+
+}
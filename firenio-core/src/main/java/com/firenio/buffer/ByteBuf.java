@@ -20,6 +20,7 @@ import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import com.firenio.Options;
 import com.firenio.Releasable;
+import com.firenio.buffer.ByteBufLeakDetector.LeakTracker;
 import com.firenio.common.Unsafe;
 
 public abstract class ByteBuf implements Releasable {
@@ -41,6 +42,7 @@ public abstract class ByteBuf implements Releasable {
     protected int abs_read_index;
     protected int marked_abs_write_index;
     protected int marked_abs_read_index;
+    LeakTracker   leak;
 
     public static ByteBuf direct(int cap) {
         return wrap(Unsafe.allocateDirectByteBuffer(cap));
@@ -134,6 +136,10 @@ public abstract class ByteBuf implements Releasable {
     }
 
     public boolean retain() {
+        LeakTracker leak = this.leak;
+        if (leak != null) {
+            leak.touch("retain");
+        }
         int referenceCount = this.referenceCount;
         if (referenceCount == 0) {
             return false;
@@ -441,6 +447,10 @@ public abstract class ByteBuf implements Releasable {
         return this;
     }
 
+    ByteBuf produce(PoolChunk chunk, int unitOffset, int unitEnd) {
+        return this;
+    }
+
     public void writeByte(byte b) {
         ensureWritable(1);
         writeByte0(b);
@@ -534,16 +544,24 @@ public abstract class ByteBuf implements Releasable {
     public int writeBytes(ByteBuf src, int length) {
         if (AUTO_EXPANSION) {
             ensureWritable(length);
-            return writeBytes0(src, length);
+            return writeBytes1(src, length);
         } else {
             int len = Math.min(writableBytes(), length);
             if (len == 0) {
                 return 0;
             }
-            return writeBytes0(src, len);
+            return writeBytes1(src, len);
         }
     }
 
+    private int writeBytes1(ByteBuf src, int len) {
+        if (src instanceof CompositeByteBuf) {
+            // copy from the components one by one
+            return src.readBytes0(this, len);
+        }
+        return writeBytes0(src, len);
+    }
+
     public int writeBytes(ByteBuffer src) {
         return writeBytes(src, src.remaining());
     }
@@ -653,13 +671,17 @@ public abstract class ByteBuf implements Releasable {
 
     @Override
     public final void release() {
+        LeakTracker leak = this.leak;
+        if (leak != null) {
+            leak.touch("release");
+        }
         int referenceCount = this.referenceCount;
         if (referenceCount < 1) {
             return;
         }
         if (refCntUpdater.compareAndSet(this, referenceCount, referenceCount - 1)) {
             if (referenceCount == 1) {
-                release0();
+                release1();
             }
             return;
         }
@@ -670,7 +692,7 @@ public abstract class ByteBuf implements Releasable {
             }
             if (refCntUpdater.compareAndSet(this, referenceCount, referenceCount - 1)) {
                 if (referenceCount == 1) {
-                    release0();
+                    release1();
                 }
                 return;
             } else {
@@ -681,6 +703,15 @@ public abstract class ByteBuf implements Releasable {
         }
     }
 
+    private void release1() {
+        LeakTracker leak = this.leak;
+        if (leak != null) {
+            this.leak = null;
+            leak.close();
+        }
+        release0();
+    }
+
     public abstract ByteBuf reverseRead();
 
     public abstract ByteBuf reverseWrite();
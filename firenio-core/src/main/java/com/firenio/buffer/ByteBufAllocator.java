@@ -30,6 +30,8 @@ public abstract class ByteBufAllocator extends LifeCycle {
 
     public abstract int getCapacity();
 
+    public abstract ByteBufAllocatorMetric getMetric();
+
     public abstract int getUnit();
 
     public abstract boolean isDirect();
@@ -23,11 +23,14 @@ import com.firenio.common.Util;
  */
 public final class ByteBufAllocatorGroup extends LifeCycle {
 
-    private final PooledByteBufAllocator[] allocators;
-    private final int                      capacity;
-    private final boolean                  direct;
-    private final int                      groupSize;
-    private final int                      unit;
+    private final ByteBufAllocator[] allocators;
+    private final boolean            arena;
+    private final int                capacity;
+    private final long               chunkIdleTime;
+    private final boolean            direct;
+    private final int                groupSize;
+    private final int                maxChunks;
+    private final int                unit;
 
     public ByteBufAllocatorGroup() {
         this(1024 * 64);
@@ -42,26 +45,45 @@ public final class ByteBufAllocatorGroup extends LifeCycle {
     }
 
     public ByteBufAllocatorGroup(int groupSize, int cap, int unit, boolean direct) {
+        this(groupSize, cap, unit, direct, false);
+    }
+
+    public ByteBufAllocatorGroup(int groupSize, int cap, int unit, boolean direct, boolean arena) {
+        this(groupSize, cap, unit, direct, arena, 1, 0);
+    }
+
+    /**
+     * @param maxChunks     the max chunks (each has cap units) of an arena allocator
+     * @param chunkIdleTime an empty chunk is returned to the os after idle for chunkIdleTime
+     */
+    public ByteBufAllocatorGroup(int groupSize, int cap, int unit, boolean direct, boolean arena, int maxChunks, long chunkIdleTime) {
         this.groupSize = groupSize;
         this.capacity = cap;
         this.unit = unit;
         this.direct = direct;
-        this.allocators = new PooledByteBufAllocator[groupSize];
+        this.arena = arena;
+        this.maxChunks = maxChunks;
+        this.chunkIdleTime = chunkIdleTime;
+        this.allocators = new ByteBufAllocator[groupSize];
         for (int i = 0; i < allocators.length; i++) {
-            allocators[i] = new PooledByteBufAllocator(this);
+            if (arena) {
+                allocators[i] = new ArenaByteBufAllocator(this);
+            } else {
+                allocators[i] = new PooledByteBufAllocator(this);
+            }
         }
     }
 
     @Override
     protected void doStart() throws Exception {
-        for (PooledByteBufAllocator allocator : allocators) {
+        for (ByteBufAllocator allocator : allocators) {
             Util.start(allocator);
         }
     }
 
     @Override
     protected void doStop() {
-        for (PooledByteBufAllocator allocator : allocators) {
+        for (ByteBufAllocator allocator : allocators) {
             Util.stop(allocator);
         }
     }
@@ -70,7 +92,7 @@ public final class ByteBufAllocatorGroup extends LifeCycle {
         return capacity * groupSize;
     }
 
-    public PooledByteBufAllocator getAllocator(int index) {
+    public ByteBufAllocator getAllocator(int index) {
         return allocators[index];
     }
 
@@ -78,14 +100,41 @@ public final class ByteBufAllocatorGroup extends LifeCycle {
         return capacity;
     }
 
+    public long getChunkIdleTime() {
+        return chunkIdleTime;
+    }
+
     public int getGroupSize() {
         return groupSize;
     }
 
+    /**
+     * @return the sum of the metrics of all the allocators
+     */
+    public ByteBufAllocatorMetric getMetric() {
+        return ByteBufAllocatorMetric.sum(getMetrics());
+    }
+
+    public ByteBufAllocatorMetric[] getMetrics() {
+        ByteBufAllocatorMetric[] ms = new ByteBufAllocatorMetric[groupSize];
+        for (int i = 0; i < ms.length; i++) {
+            ms[i] = allocators[i].getMetric();
+        }
+        return ms;
+    }
+
+    public int getMaxChunks() {
+        return maxChunks;
+    }
+
     public int getUnit() {
         return unit;
     }
 
+    public boolean isArena() {
+        return arena;
+    }
+
     public boolean isDirect() {
         return direct;
     }
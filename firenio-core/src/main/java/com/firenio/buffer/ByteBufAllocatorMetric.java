@@ -0,0 +1,163 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.firenio.buffer;
+
+/**
+ * A snapshot of the counters of an allocator (or the sum of a group), the
+ * counters are maintained when allocating and releasing, so it is cheap to
+ * poll. allocationsPerSecond is computed since the last poll of the same
+ * allocator.
+ *
+ * @author wangkai
+ */
+public final class ByteBufAllocatorMetric {
+
+    long   allocations;
+    double allocationsPerSecond;
+    long   cachedBytes;
+    long   capacity;
+    int    chunks;
+    long   expansionCopies;
+    long   largestFreeRun;
+    int    outstandingBufs;
+    long   time;
+    long   unpooledFallbacks;
+    long   usedBytes;
+
+    static ByteBufAllocatorMetric sum(ByteBufAllocatorMetric[] ms) {
+        ByteBufAllocatorMetric s = new ByteBufAllocatorMetric();
+        for (ByteBufAllocatorMetric m : ms) {
+            s.allocations += m.allocations;
+            s.allocationsPerSecond += m.allocationsPerSecond;
+            s.cachedBytes += m.cachedBytes;
+            s.capacity += m.capacity;
+            s.chunks += m.chunks;
+            s.expansionCopies += m.expansionCopies;
+            s.largestFreeRun = Math.max(s.largestFreeRun, m.largestFreeRun);
+            s.outstandingBufs += m.outstandingBufs;
+            s.time = Math.max(s.time, m.time);
+            s.unpooledFallbacks += m.unpooledFallbacks;
+            s.usedBytes += m.usedBytes;
+        }
+        return s;
+    }
+
+    /**
+     * @return total allocate calls, include unpooled fallbacks
+     */
+    public long getAllocations() {
+        return allocations;
+    }
+
+    public double getAllocationsPerSecond() {
+        return allocationsPerSecond;
+    }
+
+    /**
+     * @return bytes of the runs cached by the owner thread
+     */
+    public long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    /**
+     * @return bytes of the pooled memory
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    /**
+     * @return times of expansion which copied to a new run
+     */
+    public long getExpansionCopies() {
+        return expansionCopies;
+    }
+
+    public long getFreeBytes() {
+        return capacity - usedBytes - cachedBytes;
+    }
+
+    /**
+     * @return bytes of the largest free run, the largest buf can be allocated without fallback
+     */
+    public long getLargestFreeRun() {
+        return largestFreeRun;
+    }
+
+    /**
+     * @return pooled bufs which are not released
+     */
+    public int getOutstandingBufs() {
+        return outstandingBufs;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return allocate calls which returned unpooled memory as the pool has no run
+     */
+    public long getUnpooledFallbacks() {
+        return unpooledFallbacks;
+    }
+
+    /**
+     * @return bytes used by the outstanding bufs
+     */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    void rate(ByteBufAllocatorMetric last) {
+        if (last != null && time > last.time) {
+            allocationsPerSecond = (allocations - last.allocations) * 1000d / (time - last.time);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder();
+        b.append("[capacity=");
+        b.append(capacity);
+        b.append(",used=");
+        b.append(usedBytes);
+        b.append(",cached=");
+        b.append(cachedBytes);
+        b.append(",largestFreeRun=");
+        b.append(largestFreeRun);
+        b.append(",chunks=");
+        b.append(chunks);
+        b.append(",outstandingBufs=");
+        b.append(outstandingBufs);
+        b.append(",allocations=");
+        b.append(allocations);
+        b.append(",allocationsPerSecond=");
+        b.append((long) allocationsPerSecond);
+        b.append(",unpooledFallbacks=");
+        b.append(unpooledFallbacks);
+        b.append(",expansionCopies=");
+        b.append(expansionCopies);
+        b.append("]");
+        return b.toString();
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.firenio.buffer;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.firenio.Develop;
+import com.firenio.Options;
+import com.firenio.common.DateUtil;
+import com.firenio.common.Util;
+import com.firenio.log.Logger;
+import com.firenio.log.LoggerFactory;
+
+/**
+ * Sampling leak detector of the pooled bufs, 1 of N allocations is tracked by
+ * a phantom reference which records the allocation site and the last few
+ * retain/release, a tracked buf which is collected before released is
+ * reported as a leak. The bufs which are not sampled only pay a null check.
+ * <pre>
+ * -Dcom.firenio.bufLeakDetect=N (0 to disable, 1 to track all)
+ * </pre>
+ *
+ * @author wangkai
+ */
+public final class ByteBufLeakDetector {
+
+    static final            int                     MAX_REPORTS = 16;
+    static final            int                     TOUCHES     = 4;
+    private static final    AtomicLong              leaks       = new AtomicLong();
+    private static final    Logger                  logger      = LoggerFactory.getLogger(ByteBufLeakDetector.class);
+    private static final    ReferenceQueue<ByteBuf> queue       = new ReferenceQueue<>();
+    private static final    LinkedList<String>      reports     = new LinkedList<>();
+    private static final    Set<LeakTracker>        trackers    = Collections.newSetFromMap(new ConcurrentHashMap<LeakTracker, Boolean>());
+    private static volatile int                     interval    = Options.getBufLeakDetect(Develop.BUF_DEBUG ? 1 : 0);
+
+    private ByteBufLeakDetector() {}
+
+    /**
+     * poll the collected bufs and report the leaks, it is also done when a
+     * buf is sampled
+     *
+     * @return the leaks found by this call
+     */
+    public static int detect() {
+        int         n = 0;
+        LeakTracker t;
+        for (; (t = (LeakTracker) queue.poll()) != null; ) {
+            if (trackers.remove(t)) {
+                report(t);
+                n++;
+            }
+        }
+        return n;
+    }
+
+    public static int getInterval() {
+        return interval;
+    }
+
+    public static long getLeaks() {
+        return leaks.get();
+    }
+
+    /**
+     * @return the last reports, the latest first
+     */
+    public static List<String> getReports() {
+        synchronized (reports) {
+            return new ArrayList<>(reports);
+        }
+    }
+
+    public static int getTracked() {
+        return trackers.size();
+    }
+
+    public static boolean isEnabled() {
+        return interval > 0;
+    }
+
+    private static void report(LeakTracker t) {
+        String r = t.toString();
+        leaks.incrementAndGet();
+        synchronized (reports) {
+            reports.addFirst(r);
+            if (reports.size() > MAX_REPORTS) {
+                reports.removeLast();
+            }
+        }
+        logger.error(r);
+    }
+
+    /**
+     * @param interval track 1 of interval pooled bufs, 0 to disable, the bufs
+     *                 already tracked are still tracked
+     */
+    public static void setInterval(int interval) {
+        ByteBufLeakDetector.interval = Math.max(0, interval);
+    }
+
+    static ByteBuf track(ByteBuf buf) {
+        int interval = ByteBufLeakDetector.interval;
+        if (interval > 0 && (interval == 1 || ThreadLocalRandom.current().nextInt(interval) == 0)) {
+            detect();
+            LeakTracker t = new LeakTracker(buf);
+            trackers.add(t);
+            buf.leak = t;
+        }
+        return buf;
+    }
+
+    static final class LeakTracker extends PhantomReference<ByteBuf> {
+
+        final Throwable   allocated;
+        final int         capacity;
+        final Throwable[] touches = new Throwable[TOUCHES];
+        int               touched;
+
+        LeakTracker(ByteBuf buf) {
+            super(buf, queue);
+            this.capacity = buf.capacity();
+            this.allocated = new Throwable("allocated at " + DateUtil.get().formatYyyy_MM_dd_HH_mm_ss_SSS());
+        }
+
+        void close() {
+            trackers.remove(this);
+            clear();
+        }
+
+        synchronized void touch(String hint) {
+            touches[touched++ % TOUCHES] = new Throwable(hint + " at " + DateUtil.get().formatYyyy_MM_dd_HH_mm_ss_SSS());
+        }
+
+        @Override
+        public synchronized String toString() {
+            StringBuilder b = new StringBuilder(1024 * 4);
+            b.append("ByteBuf leak detected, capacity: ");
+            b.append(capacity);
+            b.append(", touched: ");
+            b.append(touched);
+            int i = Math.max(0, touched - TOUCHES);
+            for (; i < touched; i++) {
+                Util.stackTraceToString(touches[i % TOUCHES], true, b);
+            }
+            Util.stackTraceToString(allocated, true, b);
+            return b.toString();
+        }
+
+    }
+
+}
@@ -0,0 +1,599 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.firenio.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A read only buf which chains the readable bytes of its components without
+ * copy, the components are owned by this buf and released with it. When
+ * written to a channel, the components are handed over to the channel and
+ * written by writev (gathering write) one by one.
+ * <pre>
+ * ByteBuf header = ch.alloc().allocate(16);
+ * ...
+ * ch.writeAndFlush(new CompositeByteBuf(header, payload));
+ * </pre>
+ *
+ * @author wangkai
+ */
+public final class CompositeByteBuf extends ByteBuf {
+
+    private ByteBuf[] components;
+    private int       count;
+    private int[]     ends;
+    private int[]     indexes;
+    private int       last;
+    private int[]     starts;
+
+    public CompositeByteBuf() {
+        this(4);
+    }
+
+    public CompositeByteBuf(ByteBuf... components) {
+        this(Math.max(4, components.length));
+        for (ByteBuf c : components) {
+            addComponent(c);
+        }
+    }
+
+    private CompositeByteBuf(int cap) {
+        this.components = new ByteBuf[cap];
+        this.ends = new int[cap];
+        this.indexes = new int[cap];
+        this.starts = new int[cap];
+        this.referenceCount = 1;
+    }
+
+    /**
+     * append the readable bytes of buf, this buf takes over the buf, a
+     * composite buf is flattened
+     */
+    public CompositeByteBuf addComponent(ByteBuf buf) {
+        if (buf instanceof CompositeByteBuf) {
+            CompositeByteBuf c = (CompositeByteBuf) buf;
+            for (ByteBuf b = c.pollComponent(); b != null; b = c.pollComponent()) {
+                addComponent(b);
+            }
+            c.release();
+            return this;
+        }
+        int count = this.count;
+        if (count == components.length) {
+            int cap = count << 1;
+            components = Arrays.copyOf(components, cap);
+            ends = Arrays.copyOf(ends, cap);
+            indexes = Arrays.copyOf(indexes, cap);
+            starts = Arrays.copyOf(starts, cap);
+        }
+        int start = abs_write_index;
+        components[count] = buf;
+        indexes[count] = buf.readIndex();
+        starts[count] = start;
+        ends[count] = start + buf.readableBytes();
+        abs_write_index = ends[count];
+        this.count = count + 1;
+        return this;
+    }
+
+    @Override
+    public long address() {
+        throw unsupportedOperationException();
+    }
+
+    @Override
+    public byte[] array() {
+        return null;
+    }
+
+    @Override
+    public int capacity() {
+        return abs_write_index;
+    }
+
+    /**
+     * release all the components, this buf can be reused
+     */
+    @Override
+    public ByteBuf clear() {
+        release_components();
+        abs_read_index = 0;
+        abs_write_index = 0;
+        return this;
+    }
+
+    /**
+     * release the components which are read completely
+     */
+    @Override
+    public void collation() {
+        int n = 0;
+        for (; n < count && ends[n] <= abs_read_index; n++) {
+            components[n].release();
+        }
+        remove_first(n);
+    }
+
+    // find the component of the abs pos
+    private int component(int pos) {
+        int i = last;
+        if (i < count && starts[i] <= pos && pos < ends[i]) {
+            return i;
+        }
+        int lo = 0;
+        int hi = count - 1;
+        for (; lo < hi; ) {
+            int mid = (lo + hi) >>> 1;
+            if (ends[mid] <= pos) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        last = lo;
+        return lo;
+    }
+
+    @Override
+    public ByteBuf duplicate() {
+        throw unsupportedOperationException();
+    }
+
+    @Override
+    public void expansion(int cap) {
+        throw unsupportedOperationException();
+    }
+
+    // big endian value of len bytes from the abs pos, which may span components
+    private long get(int pos, int len) {
+        long v = 0;
+        for (int i = 0; i < len; i++) {
+            v = (v << 8) | (getByteAbs(pos + i) & 0xff);
+        }
+        return v;
+    }
+
+    @Override
+    public byte getByte(int index) {
+        return getByteAbs(ix(index));
+    }
+
+    @Override
+    public byte getByteAbs(int pos) {
+        int i = component(pos);
+        return components[i].getByte(rel(i, pos));
+    }
+
+    @Override
+    public void getBytes(int index, byte[] dst, int offset, int length) {
+        int pos = ix(index);
+        for (; length > 0; ) {
+            int i = component(pos);
+            int n = Math.min(length, ends[i] - pos);
+            components[i].getBytes(rel(i, pos), dst, offset, n);
+            pos += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    @Override
+    protected int getBytes0(int index, ByteBuf dst, int len) {
+        int pos    = ix(index);
+        int remain = len;
+        for (; remain > 0; ) {
+            int i = component(pos);
+            int n = Math.min(remain, ends[i] - pos);
+            components[i].getBytes0(rel(i, pos), dst, n);
+            pos += n;
+            remain -= n;
+        }
+        return len;
+    }
+
+    @Override
+    protected int getBytes0(int index, ByteBuffer dst, int len) {
+        int pos    = ix(index);
+        int remain = len;
+        for (; remain > 0; ) {
+            int i = component(pos);
+            int n = Math.min(remain, ends[i] - pos);
+            components[i].getBytes0(rel(i, pos), dst, n);
+            pos += n;
+            remain -= n;
+        }
+        return len;
+    }
+
+    public ByteBuf getComponent(int i) {
+        return components[i];
+    }
+
+    public int getComponentCount() {
+        return count;
+    }
+
+    @Override
+    public int getInt(int index) {
+        int pos = ix(index);
+        int i   = component(pos);
+        if (pos + 4 <= ends[i]) {
+            return components[i].getInt(rel(i, pos));
+        }
+        return (int) get(pos, 4);
+    }
+
+    @Override
+    public int getIntLE(int index) {
+        return Integer.reverseBytes(getInt(index));
+    }
+
+    @Override
+    public long getLong(int index) {
+        int pos = ix(index);
+        int i   = component(pos);
+        if (pos + 8 <= ends[i]) {
+            return components[i].getLong(rel(i, pos));
+        }
+        return get(pos, 8);
+    }
+
+    @Override
+    public long getLongLE(int index) {
+        return Long.reverseBytes(getLong(index));
+    }
+
+    @Override
+    protected ByteBuffer getNioBuffer() {
+        throw unsupportedOperationException();
+    }
+
+    @Override
+    public short getShort(int index) {
+        int pos = ix(index);
+        int i   = component(pos);
+        if (pos + 2 <= ends[i]) {
+            return components[i].getShort(rel(i, pos));
+        }
+        return (short) get(pos, 2);
+    }
+
+    @Override
+    public short getShortLE(int index) {
+        return Short.reverseBytes(getShort(index));
+    }
+
+    @Override
+    public short getUnsignedByte(int index) {
+        return (short) (getByte(index) & 0xff);
+    }
+
+    @Override
+    public long getUnsignedInt(int index) {
+        return getInt(index) & 0xffffffffL;
+    }
+
+    @Override
+    public long getUnsignedIntLE(int index) {
+        return getIntLE(index) & 0xffffffffL;
+    }
+
+    @Override
+    public int getUnsignedShort(int index) {
+        return getShort(index) & 0xffff;
+    }
+
+    @Override
+    public int getUnsignedShortLE(int index) {
+        return getShortLE(index) & 0xffff;
+    }
+
+    @Override
+    public boolean hasArray() {
+        return false;
+    }
+
+    @Override
+    public int indexOf(byte b, int absPos, int size) {
+        int end = absPos + size;
+        for (int pos = absPos; pos < end; ) {
+            int     i   = component(pos);
+            int     n   = Math.min(end, ends[i]) - pos;
+            ByteBuf c   = components[i];
+            int     abs = c.ix(rel(i, pos));
+            int     res = c.indexOf(b, abs, n);
+            if (res != -1) {
+                return pos + res - abs;
+            }
+            pos += n;
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean isPooled() {
+        return false;
+    }
+
+    @Override
+    public int lastIndexOf(byte b, int absPos, int size) {
+        int l = absPos - size;
+        for (int pos = absPos; pos > l; pos--) {
+            if (getByteAbs(pos) == b) {
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * remove the first component which has readable bytes, the read index of
+     * the component is synced with this buf, the caller takes over the
+     * component.
+     *
+     * @return the component, or null if no readable bytes
+     */
+    public ByteBuf pollComponent() {
+        for (; count > 0; ) {
+            ByteBuf c     = components[0];
+            int     end   = ends[0];
+            int     index = indexes[0];
+            int     pos   = abs_read_index - starts[0];
+            remove_first(1);
+            if (abs_read_index >= end) {
+                c.release();
+                continue;
+            }
+            if (pos > 0) {
+                c.readIndex(index + pos);
+            }
+            abs_read_index = end;
+            return c;
+        }
+        return null;
+    }
+
+    @Override
+    public byte readByte() {
+        return getByteAbs(abs_read_index++);
+    }
+
+    @Override
+    public void readBytes(byte[] dst, int offset, int length) {
+        getBytes(readIndex(), dst, offset, length);
+        skipRead(length);
+    }
+
+    @Override
+    protected int readBytes0(ByteBuf dst, int len) {
+        getBytes0(readIndex(), dst, len);
+        skipRead(len);
+        return len;
+    }
+
+    @Override
+    protected int readBytes0(ByteBuffer dst, int len) {
+        getBytes0(readIndex(), dst, len);
+        skipRead(len);
+        return len;
+    }
+
+    @Override
+    public int readInt() {
+        int v = getInt(readIndex());
+        skipRead(4);
+        return v;
+    }
+
+    @Override
+    public int readIntLE() {
+        return Integer.reverseBytes(readInt());
+    }
+
+    @Override
+    public long readLong() {
+        long v = getLong(readIndex());
+        skipRead(8);
+        return v;
+    }
+
+    @Override
+    public long readLongLE() {
+        return Long.reverseBytes(readLong());
+    }
+
+    @Override
+    public short readShort() {
+        short v = getShort(readIndex());
+        skipRead(2);
+        return v;
+    }
+
+    @Override
+    public short readShortLE() {
+        return Short.reverseBytes(readShort());
+    }
+
+    @Override
+    public short readUnsignedByte() {
+        return (short) (readByte() & 0xff);
+    }
+
+    @Override
+    public long readUnsignedInt() {
+        return readInt() & 0xffffffffL;
+    }
+
+    @Override
+    public long readUnsignedIntLE() {
+        return readIntLE() & 0xffffffffL;
+    }
+
+    @Override
+    public int readUnsignedShort() {
+        return readShort() & 0xffff;
+    }
+
+    @Override
+    public int readUnsignedShortLE() {
+        return readShortLE() & 0xffff;
+    }
+
+    // the index of the component for the abs pos
+    private int rel(int i, int pos) {
+        return indexes[i] + pos - starts[i];
+    }
+
+    @Override
+    protected void release0() {
+        release_components();
+    }
+
+    private void release_components() {
+        for (int i = 0; i < count; i++) {
+            components[i].release();
+            components[i] = null;
+        }
+        count = 0;
+        last = 0;
+    }
+
+    private void remove_first(int n) {
+        if (n == 0) {
+            return;
+        }
+        int remain = count - n;
+        System.arraycopy(components, n, components, 0, remain);
+        System.arraycopy(ends, n, ends, 0, remain);
+        System.arraycopy(indexes, n, indexes, 0, remain);
+        System.arraycopy(starts, n, starts, 0, remain);
+        Arrays.fill(components, remain, count, null);
+        count = remain;
+        last = 0;
+    }
+
+    @Override
+    public ByteBuf reverseRead() {
+        return this;
+    }
+
+    @Override
+    public ByteBuf reverseWrite() {
+        return this;
+    }
+
+    @Override
+    public void setByte(int index, byte b) {
+        throw unsupportedOperationException();
+    }
+
+    @Override
+    protected int setBytes0(int index, byte[] src, int offset, int length) {
+        throw unsupportedOperationException();
+    }
+
+    @Override
+    protected int setBytes0(int index, ByteBuf src, int len) {
+        throw unsupportedOperationException();
+    }
+
+    @Override
+    protected int setBytes0(int index, ByteBuffer src, int len) {
+        throw unsupportedOperationException();
+    }
+
+    @Override
+    public void setInt(int index, int value) {
+        throw unsupportedOperationException();
+    }
+
+    @Override
+    public void setIntLE(int index, int value) {
+        throw unsupportedOperationException();
+    }
+
+    @Override
+    public void setLong(int index, long value) {
+        throw unsupportedOperationException();
+    }
+
+    @Override
+    public void setLongLE(int index, long value) {
+        throw unsupportedOperationException();
+    }
+
+    @Override
+    public void setShort(int index, int value) {
+        throw unsupportedOperationException();
+    }
+
+    @Override
+    public void setShortLE(int index, int value) {
+        throw unsupportedOperationException();
+    }
+
+    @Override
+    protected void writeByte0(byte b) {
+        throw unsupportedOperationException();
+    }
+
+    @Override
+    protected int writeBytes0(byte[] src, int offset, int length) {
+        throw unsupportedOperationException();
+    }
+
+    @Override
+    protected int writeBytes0(ByteBuf src, int len) {
+        throw unsupportedOperationException();
+    }
+
+    @Override
+    protected int writeBytes0(ByteBuffer src, int len) {
+        throw unsupportedOperationException();
+    }
+
+    @Override
+    protected void writeInt0(int value) {
+        throw unsupportedOperationException();
+    }
+
+    @Override
+    protected void writeIntLE0(int value) {
+        throw unsupportedOperationException();
+    }
+
+    @Override
+    protected void writeLong0(long value) {
+        throw unsupportedOperationException();
+    }
+
+    @Override
+    protected void writeLongLE0(long value) {
+        throw unsupportedOperationException();
+    }
+
+    @Override
+    protected void writeShort0(int value) {
+        throw unsupportedOperationException();
+    }
+
+    @Override
+    protected void writeShortLE0(int value) {
+        throw unsupportedOperationException();
+    }
+
+}
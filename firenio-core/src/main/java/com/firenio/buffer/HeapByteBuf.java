@@ -290,6 +290,19 @@ abstract class HeapByteBuf extends ByteBuf {
         int    p = abs_pos;
         int    l = p + size;
         byte[] m = memory;
+        if (size >= 8 && Unsafe.UNSAFE_AVAILABLE) {
+            long pattern = ByteUtil.swarPattern(b);
+            for (; p + 8 <= l; p += 8) {
+                long w = Unsafe.getLong(m, Unsafe.ARRAY_BASE_OFFSET + p);
+                if (Unsafe.isBigOrder()) {
+                    w = Long.reverseBytes(w);
+                }
+                int i = ByteUtil.swarIndexOf(w, pattern);
+                if (i != 8) {
+                    return p + i;
+                }
+            }
+        }
         for (; p < l; p++) {
             if (m[p] == b) {
                 return p;
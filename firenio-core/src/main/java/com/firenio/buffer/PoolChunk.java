@@ -0,0 +1,255 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.firenio.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.firenio.common.Unsafe;
+
+/**
+ * A chunk of pool memory and the runs of units in it, free runs are kept in
+ * segregated free lists:
+ * <pre>
+ * small  : runs of 1 ~ 32 units, one list per unit count (exact fit)
+ * normal : runs of more than 32 units, one list per power of two range
+ * </pre>
+ * a bitmap of the non-empty lists is kept, so allocate and free are O(1).
+ * The length of a run is tagged at both its first and last unit, adjacent free
+ * runs are merged when freed. NOT THREAD SAFE.
+ *
+ * @author wangkai
+ */
+final class PoolChunk {
+
+    static final int FREE               = 1 << 31;
+    static final int RUN_MASK           = ~FREE;
+    static final int SIZE_CLASSES       = 64;
+    static final int SMALL_CLASSES      = 32;
+    static final int SMALL_CLASSES_LOG2 = 5;
+
+    final int        base;
+    final int        capacity;
+    final int        index;
+    final int        unit;
+    final int[]      heads = new int[SIZE_CLASSES];
+    final int[]      next;
+    final int[]      prev;
+    final int[]      runs;
+    long             address = -1;
+    long             classes;
+    ByteBuffer       directMemory;
+    byte[]           heapMemory;
+    long             idleSince;
+    int              usedMem;
+
+    PoolChunk(int index, int base, int capacity, int unit) {
+        this.index = index;
+        this.base = base;
+        this.capacity = capacity;
+        this.unit = unit;
+        this.runs = new int[capacity];
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        reset();
+    }
+
+    static int size_class(int size) {
+        if (size <= SMALL_CLASSES) {
+            return size - 1;
+        }
+        return SMALL_CLASSES + (31 - Integer.numberOfLeadingZeros(size)) - SMALL_CLASSES_LOG2;
+    }
+
+    private void add_free(int start, int size) {
+        int[] runs = this.runs;
+        int   c    = size_class(size);
+        int   head = heads[c];
+        runs[start] = size | FREE;
+        runs[start + size - 1] = size | FREE;
+        next[start] = head;
+        prev[start] = -1;
+        if (head != -1) {
+            prev[head] = start;
+        }
+        heads[c] = start;
+        classes |= (1L << c);
+    }
+
+    int allocate(int size) {
+        int c     = size_class(size);
+        int from  = c;
+        int start = -1;
+        if (size > SMALL_CLASSES && (size & (size - 1)) != 0) {
+            // runs in the class of size may be shorter than size
+            from = c + 1;
+        }
+        long cs = classes & (-1L << from);
+        if (cs != 0) {
+            start = heads[Long.numberOfTrailingZeros(cs)];
+        } else if (from != c) {
+            for (int i = heads[c]; i != -1; i = next[i]) {
+                if ((runs[i] & RUN_MASK) >= size) {
+                    start = i;
+                    break;
+                }
+            }
+        }
+        if (start == -1) {
+            return -1;
+        }
+        int len = runs[start] & RUN_MASK;
+        remove_free(start, len);
+        if (len > size) {
+            add_free(start + size, len - size);
+        }
+        mark_used(start, size);
+        usedMem += size;
+        return start;
+    }
+
+    void allocateMemory(boolean isDirect) {
+        int cap = capacity * unit;
+        if (Unsafe.UNSAFE_BUF_AVAILABLE) {
+            this.address = Unsafe.allocate(cap);
+        } else {
+            if (isDirect) {
+                this.directMemory = Unsafe.allocateDirectByteBuffer(cap);
+                this.address = Unsafe.address(directMemory);
+            } else {
+                this.heapMemory = new byte[cap];
+            }
+        }
+    }
+
+    // grow the used run at start to size units if the following run is free
+    boolean expand(int start, int size) {
+        int len = runs[start];
+        int end = start + len;
+        if (end < capacity) {
+            int r = runs[end];
+            if ((r & FREE) != 0 && len + (r & RUN_MASK) >= size) {
+                take_run(end, end, size - len);
+                mark_used(start, size);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // returns the start of the merged free run
+    int free(int start) {
+        int[] runs = this.runs;
+        int   size = runs[start];
+        int   end  = start + size;
+        usedMem -= size;
+        if (start > 0) {
+            int l = runs[start - 1];
+            if ((l & FREE) != 0) {
+                l &= RUN_MASK;
+                start -= l;
+                size += l;
+                remove_free(start, l);
+            }
+        }
+        if (end < capacity) {
+            int r = runs[end];
+            if ((r & FREE) != 0) {
+                r &= RUN_MASK;
+                remove_free(end, r);
+                size += r;
+            }
+        }
+        add_free(start, size);
+        return start;
+    }
+
+    void freeMemory(boolean isDirect) {
+        if (Unsafe.UNSAFE_BUF_AVAILABLE) {
+            Unsafe.free(address);
+        } else {
+            if (isDirect) {
+                Unsafe.freeByteBuffer(directMemory);
+            }
+        }
+        this.heapMemory = null;
+        this.directMemory = null;
+        this.address = -1;
+    }
+
+    private void mark_used(int start, int size) {
+        runs[start] = size;
+        runs[start + size - 1] = size;
+    }
+
+    int maxFree() {
+        long cs = classes;
+        if (cs == 0) {
+            return 0;
+        }
+        int c   = 63 - Long.numberOfLeadingZeros(cs);
+        int max = 0;
+        for (int i = heads[c]; i != -1; i = next[i]) {
+            max = Math.max(max, runs[i] & RUN_MASK);
+        }
+        return max;
+    }
+
+    private void remove_free(int start, int size) {
+        int c = size_class(size);
+        int p = prev[start];
+        int n = next[start];
+        if (p == -1) {
+            heads[c] = n;
+            if (n == -1) {
+                classes &= ~(1L << c);
+            }
+        } else {
+            next[p] = n;
+        }
+        if (n != -1) {
+            prev[n] = p;
+        }
+    }
+
+    void reset() {
+        Arrays.fill(heads, -1);
+        this.classes = 0;
+        this.usedMem = 0;
+        add_free(0, capacity);
+    }
+
+    int size(int start) {
+        return runs[start];
+    }
+
+    // take [start, start + size) out of the free run which begins at run
+    void take_run(int run, int start, int size) {
+        int len  = runs[run] & RUN_MASK;
+        int end  = start + size;
+        int rend = run + len;
+        remove_free(run, len);
+        if (start > run) {
+            add_free(run, start - run);
+        }
+        if (rend > end) {
+            add_free(end, rend - end);
+        }
+        mark_used(start, size);
+        usedMem += size;
+    }
+
+}
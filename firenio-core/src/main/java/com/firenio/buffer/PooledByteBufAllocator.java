@@ -18,15 +18,11 @@ package com.firenio.buffer;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.BitSet;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
 
-import com.firenio.Develop;
 import com.firenio.Options;
 import com.firenio.collection.LinkedBQStack;
 import com.firenio.collection.Stack;
-import com.firenio.common.DateUtil;
 import com.firenio.common.Unsafe;
 import com.firenio.common.Util;
 
@@ -35,31 +31,28 @@ import com.firenio.common.Util;
  */
 public final class PooledByteBufAllocator extends ByteBufAllocator {
 
-    public static final Map<ByteBuf, BufDebug> BUF_DEBUGS;
-    public static final ByteBufException       EXPANSION_FAILED = EXPANSION_FAILED();
-    static final        int                    BYTEBUF_BUFFER   = 1024 * 8;
-    static final        boolean                BYTEBUF_RECYCLE  = Options.isBufRecycle();
-
-    static {
-        if (Develop.BUF_DEBUG) {
-            BUF_DEBUGS = new ConcurrentHashMap<>();
-        } else {
-            BUF_DEBUGS = null;
-        }
-    }
-
-    private final int[]            blockEnds;
-    private final Stack<ByteBuf>   bufBuffer;
-    private final int              capacity;
-    private final BitSet           frees;
-    private final boolean          isDirect;
-    private final ReentrantLock    lock    = new ReentrantLock();
-    private final int              unit;
-    private final ByteBufAllocator unpooled;
-    private       long             address = -1;
-    private       ByteBuffer       directMemory;
-    private       byte[]           heapMemory;
-    private       int              mark;
+    public static final ByteBufException EXPANSION_FAILED = EXPANSION_FAILED();
+    static final        int              BYTEBUF_BUFFER   = 1024 * 8;
+    static final        boolean          BYTEBUF_RECYCLE  = Options.isBufRecycle();
+
+    private final int[]                  blockEnds;
+    private final Stack<ByteBuf>         bufBuffer;
+    private final int                    capacity;
+    private final BitSet                 frees;
+    private final boolean                isDirect;
+    private final ReentrantLock          lock    = new ReentrantLock();
+    private final int                    unit;
+    private final ByteBufAllocator       unpooled;
+    private       long                   address = -1;
+    private       long                   allocations;
+    private       ByteBuffer             directMemory;
+    private       long                   expansionCopies;
+    private       byte[]                 heapMemory;
+    private       ByteBufAllocatorMetric lastMetric;
+    private       int                    mark;
+    private       long                   unpooledFallbacks;
+    private       int                    usedBuf;
+    private       int                    usedMem;
 
     public PooledByteBufAllocator(ByteBufAllocatorGroup group) {
         this.unit = group.getUnit();
@@ -94,7 +87,9 @@ public final class PooledByteBufAllocator extends ByteBufAllocator {
         ReentrantLock lock = this.lock;
         lock.lock();
         try {
+            allocations++;
             if (!isRunning()) {
+                unpooledFallbacks++;
                 return unpooled.allocate(limit);
             }
             int mark = this.mark;
@@ -102,22 +97,20 @@ public final class PooledByteBufAllocator extends ByteBufAllocator {
             if (blockStart == -1) {
                 blockStart = allocate(0, mark, size);
             }
+            if (blockStart == -1) {
+                unpooledFallbacks++;
+            } else {
+                usedBuf++;
+                usedMem += size;
+            }
         } finally {
             lock.unlock();
         }
-        ByteBuf buf;
         if (blockStart == -1) {
             // FIXME 是否申请java内存
             return unpooled.allocate(limit);
         } else {
-            buf = newByteBuf().produce(blockStart, blockEnds[blockStart]);
-            if (Develop.BUF_DEBUG) {
-                BufDebug d = new BufDebug();
-                d.buf = buf;
-                d.e = new Exception(DateUtil.get().formatYyyy_MM_dd_HH_mm_ss_SSS());
-                BUF_DEBUGS.put(buf, d);
-            }
-            return buf;
+            return ByteBufLeakDetector.track(newByteBuf().produce(blockStart, blockEnds[blockStart]));
         }
     }
 
@@ -148,6 +141,8 @@ public final class PooledByteBufAllocator extends ByteBufAllocator {
 
     @Override
     protected void doStart() {
+        this.usedBuf = 0;
+        this.usedMem = 0;
         Arrays.fill(blockEnds, 0);
         this.frees.set(0, getCapacity(), true);
         int cap = capacity * unit;
@@ -175,7 +170,7 @@ public final class PooledByteBufAllocator extends ByteBufAllocator {
             lock.lock();
             try {
                 // check all memory(buf) are backed
-                if (usedBuf() == 0) {
+                if (usedBuf == 0) {
                     freeMemory();
                     return;
                 }
@@ -210,6 +205,7 @@ public final class PooledByteBufAllocator extends ByteBufAllocator {
                         this.mark = end;
                     }
                     blockEnds[blockStart] = end;
+                    usedMem += end - blockEnd;
                     buf.capacity((end - buf.unitOffset()) * unit);
                 } else {
                     frees.set(blockStart);
@@ -217,9 +213,13 @@ public final class PooledByteBufAllocator extends ByteBufAllocator {
                     if (pos == -1) {
                         pos = allocate(0, mark, size);
                         if (pos == -1) {
+                            // the buf still holds the old block
+                            frees.set(blockStart, false);
                             throw EXPANSION_FAILED;
                         }
                     }
+                    usedMem += size - (blockEnd - blockStart);
+                    expansionCopies++;
                     int old_read_index  = buf.readIndex();
                     int old_write_index = buf.writeIndex();
                     int old_offset      = buf.offset();
@@ -272,10 +272,33 @@ public final class PooledByteBufAllocator extends ByteBufAllocator {
         return heapMemory;
     }
 
+    @Override
+    public ByteBufAllocatorMetric getMetric() {
+        ByteBufAllocatorMetric m    = new ByteBufAllocatorMetric();
+        ReentrantLock          lock = this.lock;
+        lock.lock();
+        try {
+            m.time = Util.now();
+            m.chunks = 1;
+            m.capacity = (long) capacity * unit;
+            m.usedBytes = (long) usedMem * unit;
+            m.largestFreeRun = (long) maxFree() * unit;
+            m.allocations = allocations;
+            m.unpooledFallbacks = unpooledFallbacks;
+            m.expansionCopies = expansionCopies;
+            m.outstandingBufs = usedBuf;
+            m.rate(lastMetric);
+            this.lastMetric = m;
+        } finally {
+            lock.unlock();
+        }
+        return m;
+    }
+
     public PoolState getState() {
         PoolState state = new PoolState();
-        state.buf = usedBuf();
-        state.free = getCapacity() - usedMem();
+        state.buf = usedBuf;
+        state.free = getCapacity() - usedMem;
         state.memory = getCapacity();
         state.mfree = maxFree();
         return state;
@@ -343,21 +366,16 @@ public final class PooledByteBufAllocator extends ByteBufAllocator {
         ReentrantLock lock = this.lock;
         lock.lock();
         try {
-            frees.set(buf.unitOffset());
+            int blockStart = buf.unitOffset();
+            usedBuf--;
+            usedMem -= blockEnds[blockStart] - blockStart;
+            frees.set(blockStart);
         } finally {
             lock.unlock();
         }
         if (BYTEBUF_RECYCLE) {
             bufBuffer.push(buf);
         }
-        if (Develop.BUF_DEBUG && buf.isPooled()) {
-            BufDebug d = BUF_DEBUGS.remove(buf);
-            if (d == null) {
-                throw new RuntimeException("null bufDebug");
-            }
-            d.buf = null;
-            d.e = null;
-        }
     }
 
     @Override
@@ -387,35 +405,6 @@ public final class PooledByteBufAllocator extends ByteBufAllocator {
         }
     }
 
-    private int usedBuf() {
-        int used = 0;
-        for (int i = 0; i < getCapacity(); i++) {
-            if (!frees.get(i)) {
-                used++;
-            }
-        }
-        return used;
-    }
-
-    private int usedMem() {
-        int used = 0;
-        for (int i = 0; i < getCapacity(); i++) {
-            if (!frees.get(i)) {
-                int next = blockEnds[i];
-                used += (next - i);
-                i = next - 1;
-            }
-        }
-        return used;
-    }
-
-    public class BufDebug {
-
-        public volatile ByteBuf   buf;
-        public volatile Exception e;
-
-    }
-
     /**
      * for debug
      */
@@ -19,20 +19,15 @@ import java.nio.ByteBuffer;
 
 final class PooledDirectByteBuf extends DirectByteBuf {
 
-    private PooledByteBufAllocator allocator;
-    private int                    capacity;
-    private int                    unitOffset;
+    private ByteBufAllocator allocator;
+    private int              capacity;
+    private int              unitOffset;
 
-    PooledDirectByteBuf(PooledByteBufAllocator allocator, ByteBuffer memory) {
+    PooledDirectByteBuf(ByteBufAllocator allocator, ByteBuffer memory) {
         super(memory);
         this.allocator = allocator;
     }
 
-    @Override
-    public long address() {
-        return allocator.getAddress();
-    }
-
     @Override
     public int capacity() {
         return capacity;
@@ -65,6 +60,16 @@ final class PooledDirectByteBuf extends DirectByteBuf {
         return this;
     }
 
+    @Override
+    ByteBuf produce(PoolChunk chunk, int unitOffset, int unitEnd) {
+        if (address() != chunk.address) {
+            setMemory(chunk.directMemory.duplicate());
+        }
+        this.produce(unitOffset, unitEnd);
+        this.unitOffset = chunk.base | unitOffset;
+        return this;
+    }
+
     @Override
     protected final void release0() {
         allocator.release(this);
@@ -17,20 +17,15 @@ package com.firenio.buffer;
 
 final class PooledHeapByteBuf extends HeapByteBuf {
 
-    private PooledByteBufAllocator allocator;
-    private int                    capacity;
-    private int                    unitOffset;
+    private ByteBufAllocator allocator;
+    private int              capacity;
+    private int              unitOffset;
 
-    PooledHeapByteBuf(PooledByteBufAllocator allocator, byte[] memory) {
+    PooledHeapByteBuf(ByteBufAllocator allocator, byte[] memory) {
         super(memory);
         this.allocator = allocator;
     }
 
-    @Override
-    public long address() {
-        return allocator.getAddress();
-    }
-
     @Override
     public int capacity() {
         return capacity;
@@ -63,6 +58,17 @@ final class PooledHeapByteBuf extends HeapByteBuf {
         return this;
     }
 
+    @Override
+    ByteBuf produce(PoolChunk chunk, int unitOffset, int unitEnd) {
+        if (memory != chunk.heapMemory) {
+            this.memory = chunk.heapMemory;
+            this.nioBuffer = null;
+        }
+        this.produce(unitOffset, unitEnd);
+        this.unitOffset = chunk.base | unitOffset;
+        return this;
+    }
+
     @Override
     protected final void release0() {
         allocator.release(this);
@@ -17,20 +17,15 @@ package com.firenio.buffer;
 
 final class PooledUnsafeByteBuf extends UnsafeByteBuf {
 
-    private PooledByteBufAllocator allocator;
-    private int                    capacity;
-    private int                    unitOffset;
+    private ByteBufAllocator allocator;
+    private int              capacity;
+    private int              unitOffset;
 
-    PooledUnsafeByteBuf(PooledByteBufAllocator allocator, long memory) {
+    PooledUnsafeByteBuf(ByteBufAllocator allocator, long memory) {
         super(memory);
         this.allocator = allocator;
     }
 
-    @Override
-    public long address() {
-        return allocator.getAddress();
-    }
-
     @Override
     public int capacity() {
         return capacity;
@@ -63,6 +58,14 @@ final class PooledUnsafeByteBuf extends UnsafeByteBuf {
         return this;
     }
 
+    @Override
+    ByteBuf produce(PoolChunk chunk, int unitOffset, int unitEnd) {
+        this.memory = chunk.address;
+        this.produce(unitOffset, unitEnd);
+        this.unitOffset = chunk.base | unitOffset;
+        return this;
+    }
+
     @Override
     protected final void release0() {
         allocator.release(this);
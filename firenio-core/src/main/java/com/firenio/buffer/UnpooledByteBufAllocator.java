@@ -16,6 +16,7 @@
 package com.firenio.buffer;
 
 import com.firenio.common.Unsafe;
+import com.firenio.common.Util;
 
 public final class UnpooledByteBufAllocator extends ByteBufAllocator {
 
@@ -54,6 +55,13 @@ public final class UnpooledByteBufAllocator extends ByteBufAllocator {
         return -1;
     }
 
+    @Override
+    public ByteBufAllocatorMetric getMetric() {
+        ByteBufAllocatorMetric m = new ByteBufAllocatorMetric();
+        m.time = Util.now();
+        return m;
+    }
+
     @Override
     public int getUnit() {
         return -1;
@@ -283,6 +283,15 @@ abstract class UnsafeByteBuf extends ByteBuf {
         long addr = address();
         long p    = addr + abs_pos;
         long l    = p + size;
+        if (size >= 8) {
+            long pattern = ByteUtil.swarPattern(b);
+            for (; p + 8 <= l; p += 8) {
+                int i = ByteUtil.swarIndexOf(ByteUtil.getLongLE(p), pattern);
+                if (i != 8) {
+                    return (int) (p - addr) + i;
+                }
+            }
+        }
         for (; p < l; p++) {
             if (Unsafe.getByte(p) == b) {
                 return (int) (p - addr);
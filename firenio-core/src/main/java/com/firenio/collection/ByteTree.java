@@ -29,7 +29,7 @@ public class ByteTree {
         add(s.getBytes(), s);
     }
 
-    private void add(byte[] bytes, Object value) {
+    public void add(byte[] bytes, Object value) {
         byte curr_b = bytes[0];
         Node next_n = root = root.append(curr_b);
         Node temp_n = next_n.next(curr_b);
@@ -90,6 +90,35 @@ public class ByteTree {
         return node.value;
     }
 
+    /**
+     * match the upper case letters as the lower case ones, the keys should be
+     * added in lower case
+     */
+    public Object getIgnoreCase(ByteBuf buf, int absPos, int length) {
+        Node node = root;
+        if (buf.hasArray()) {
+            byte[] bytes = buf.array();
+            for (int i = absPos, count = absPos + length; i < count; i++) {
+                node = node.next(lower(bytes[i]));
+                if (node == null) {
+                    return null;
+                }
+            }
+        } else {
+            for (long i = buf.address() + absPos, count = i + length; i < count; i++) {
+                node = node.next(lower(Unsafe.getByte(i)));
+                if (node == null) {
+                    return null;
+                }
+            }
+        }
+        return node.value;
+    }
+
+    private static byte lower(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + 32) : b;
+    }
+
     static abstract class Node {
 
         Object value;
@@ -187,14 +187,24 @@ public class DelayedQueue {
         static final long DONE_MASK   = 1L << 62;
         static final long DELAY_MASK  = ~(CANCEL_MASK | DONE_MASK);
 
-        private long flags;
+        private long        flags;
+        // the links of the timing wheel
+        DelayTask           next;
+        DelayTask           prev;
+        int                 slot;
+        TimingWheel         wheel;
 
         public DelayTask(long delay) {
             this.flags = delay + Util.now();
         }
 
+        // it can be called by any thread, the task is only unlinked from the wheel in its thread
         public void cancel() {
             this.flags |= CANCEL_MASK;
+            TimingWheel wheel = this.wheel;
+            if (wheel != null && wheel.inThread()) {
+                wheel.remove(this);
+            }
         }
 
         @Override
@@ -206,6 +216,14 @@ public class DelayedQueue {
             return (this.flags & DELAY_MASK);
         }
 
+        /**
+         * reset the deadline to delay from now, and clear the flags, the task
+         * should not be in a queue or a wheel
+         */
+        public void resetDelay(long delay) {
+            this.flags = delay + Util.now();
+        }
+
         public boolean isCanceled() {
             return (this.flags & CANCEL_MASK) != 0;
         }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.firenio.collection;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock free queue, multi producer single consumer, offer can be
+ * called from any thread, poll must be called from the consumer thread only.
+ *
+ * @author wangkai
+ */
+public final class MpscArrayQueue<V> {
+
+    private final AtomicReferenceArray<V> buffer;
+    private final int                     capacity;
+    private final int                     mask;
+    private final AtomicLong              tail = new AtomicLong();
+    private volatile long                 head;
+
+    public MpscArrayQueue(int capacity) {
+        int cap = 1;
+        for (; cap < capacity; ) {
+            cap <<= 1;
+        }
+        this.capacity = cap;
+        this.mask = cap - 1;
+        this.buffer = new AtomicReferenceArray<>(cap);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public boolean isEmpty() {
+        return head == tail.get();
+    }
+
+    /**
+     * @return false if the queue is full
+     */
+    public boolean offer(V v) {
+        final AtomicLong tail = this.tail;
+        for (; ; ) {
+            long t = tail.get();
+            if (t - head >= capacity) {
+                return false;
+            }
+            if (tail.compareAndSet(t, t + 1)) {
+                buffer.lazySet((int) t & mask, v);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * consumer thread only, returns null if the queue is empty or the
+     * next element is claimed but not yet published by the producer
+     */
+    public V poll() {
+        long h = head;
+        int  i = (int) h & mask;
+        V    v = buffer.get(i);
+        if (v == null) {
+            return null;
+        }
+        buffer.lazySet(i, null);
+        head = h + 1;
+        return v;
+    }
+
+    public int size() {
+        return (int) (tail.get() - head);
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.firenio.collection;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Unbounded lock free queue, multi producer single consumer, the elements are
+ * stored in linked chunks of array, so only one array is allocated for each
+ * chunk size offers. Offer can be called from any thread, poll and drain must
+ * be called from the consumer thread only.
+ *
+ * @author wangkai
+ */
+public final class MpscUnboundedQueue<V> {
+
+    private final    int        chunk_size;
+    private final    AtomicLong tail = new AtomicLong();
+    private          Chunk<V>   consumer_chunk;
+    private volatile long       head;
+    private volatile Chunk<V>   producer_chunk;
+
+    public MpscUnboundedQueue() {
+        this(1024);
+    }
+
+    public MpscUnboundedQueue(int chunkSize) {
+        this.chunk_size = chunkSize;
+        this.consumer_chunk = new Chunk<>(0, chunkSize);
+        this.producer_chunk = consumer_chunk;
+    }
+
+    /**
+     * consumer thread only, poll at most dst.length elements to dst, the head
+     * is published once for the batch
+     *
+     * @return the count of the elements polled
+     */
+    public int drain(V[] dst) {
+        long     h    = head;
+        Chunk<V> c    = consumer_chunk;
+        int      size = 0;
+        for (; size < dst.length; ) {
+            int off = (int) (h - c.base);
+            if (off == chunk_size) {
+                Chunk<V> next = c.next;
+                if (next == null) {
+                    break;
+                }
+                c = next;
+                off = 0;
+            }
+            V v = c.items.get(off);
+            if (v == null) {
+                break;
+            }
+            c.items.lazySet(off, null);
+            dst[size++] = v;
+            h++;
+        }
+        if (size > 0) {
+            this.consumer_chunk = c;
+            this.head = h;
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return head == tail.get();
+    }
+
+    public void offer(V v) {
+        // the chunk is read before the sequence is claimed, so its base is not greater than the sequence
+        Chunk<V> c = producer_chunk;
+        long     t = tail.getAndIncrement();
+        Chunk<V> s = c;
+        for (; t - c.base >= chunk_size; ) {
+            Chunk<V> next = c.next;
+            if (next == null) {
+                next = new Chunk<>(c.base + chunk_size, chunk_size);
+                if (!Chunk.NEXT.compareAndSet(c, null, next)) {
+                    next = c.next;
+                }
+            }
+            c = next;
+        }
+        if (c != s) {
+            // it may move backward by a slower producer, that is still safe for the above reason
+            producer_chunk = c;
+        }
+        c.items.lazySet((int) (t - c.base), v);
+    }
+
+    /**
+     * consumer thread only, returns null if the queue is empty or the
+     * next element is claimed but not yet published by the producer
+     */
+    public V poll() {
+        long     h   = head;
+        Chunk<V> c   = consumer_chunk;
+        int      off = (int) (h - c.base);
+        if (off == chunk_size) {
+            Chunk<V> next = c.next;
+            if (next == null) {
+                return null;
+            }
+            c = next;
+            off = 0;
+        }
+        V v = c.items.get(off);
+        if (v == null) {
+            return null;
+        }
+        c.items.lazySet(off, null);
+        this.consumer_chunk = c;
+        this.head = h + 1;
+        return v;
+    }
+
+    public int size() {
+        return (int) (tail.get() - head);
+    }
+
+    static final class Chunk<V> {
+
+        @SuppressWarnings("rawtypes")
+        static final AtomicReferenceFieldUpdater<Chunk, Chunk> NEXT = AtomicReferenceFieldUpdater.newUpdater(Chunk.class, Chunk.class, "next");
+
+        final long                    base;
+        final AtomicReferenceArray<V> items;
+        volatile Chunk<V>             next;
+
+        Chunk(long base, int size) {
+            this.base = base;
+            this.items = new AtomicReferenceArray<>(size);
+        }
+
+    }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.firenio.collection;
+
+import com.firenio.collection.DelayedQueue.DelayTask;
+import com.firenio.common.Util;
+
+/**
+ * Hierarchical hashed timing wheel, the tick is 1ms, there are 4 levels and
+ * 256 slots for each level, the level n covers 2^(8*(n+1)) ticks, the tasks
+ * are linked into the slots, so offer and cancel are O(1). When the tick of
+ * level 0 wraps, the current slot of the upper level is cascaded down.
+ * <p>
+ * NOT THREAD SAFE, all methods can only be invoked in its event loop, a task
+ * canceled out of the bound thread is only flagged, and it is skipped when it
+ * is polled.
+ *
+ * @author wangkai
+ */
+public final class TimingWheel {
+
+    static final int BITS    = 8;
+    static final int LEVELS  = 4;
+    static final int SLOTS   = 1 << BITS;
+    // the slot of the tasks which are expired but not yet polled
+    static final int EXPIRED = LEVELS * SLOTS;
+    static final int MASK    = SLOTS - 1;
+
+    private final DelayTask[] slots = new DelayTask[EXPIRED + 1];
+    private       int         size;
+    // the thread of the event loop, null if the wheel is used in one thread only
+    private       Thread      thread;
+    // all the ticks before it are expired
+    private       long        tick;
+
+    public TimingWheel() {
+        this(Util.now());
+    }
+
+    public TimingWheel(long now) {
+        this.tick = now;
+    }
+
+    public void bindThread(Thread thread) {
+        this.thread = thread;
+    }
+
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int       idx  = (int) (tick >>> (BITS * level)) & MASK;
+            int       slot = level * SLOTS + idx;
+            DelayTask t    = slots[slot];
+            slots[slot] = null;
+            for (; t != null; ) {
+                DelayTask next = t.next;
+                link(t, slot_of(t.getDelay()));
+                t = next;
+            }
+            if (idx != 0) {
+                break;
+            }
+        }
+    }
+
+    boolean inThread() {
+        return thread == null || thread == Thread.currentThread();
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void link(DelayTask t, int slot) {
+        DelayTask head = slots[slot];
+        t.slot = slot;
+        t.prev = null;
+        t.next = head;
+        if (head != null) {
+            head.prev = t;
+        }
+        slots[slot] = t;
+    }
+
+    /**
+     * @return the time of the next tick which has tasks to expire or to cascade,
+     * -1 if the wheel is empty
+     */
+    public long nextTick() {
+        if (size == 0) {
+            return -1;
+        }
+        if (slots[EXPIRED] != null) {
+            return tick - 1;
+        }
+        for (long t = tick; ; t++) {
+            int idx = (int) t & MASK;
+            if (idx == 0 || slots[idx] != null) {
+                return t;
+            }
+        }
+    }
+
+    public boolean offer(DelayTask t) {
+        if (t.isCanceled() || t.wheel != null) {
+            return false;
+        }
+        if (size == 0) {
+            // the empty wheel is not advanced, but not beyond the task, it is polled at its time
+            tick = Math.max(tick, Math.min(t.getDelay(), Util.now()));
+        }
+        link(t, slot_of(t.getDelay()));
+        t.wheel = this;
+        size++;
+        return true;
+    }
+
+    /**
+     * remove a task in no order, for the tasks left when the event loop is stopped
+     */
+    public DelayTask poll() {
+        if (size == 0) {
+            return null;
+        }
+        for (int i = 0; i < slots.length; i++) {
+            DelayTask t = slots[i];
+            if (t != null) {
+                remove(t);
+                return t;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * advance the wheel to now and remove an expired task
+     *
+     * @return the expired task, null if no task expired before now
+     */
+    public DelayTask poll(long now) {
+        for (; ; ) {
+            DelayTask t = slots[EXPIRED];
+            if (t != null) {
+                remove(t);
+                return t;
+            }
+            if (tick > now) {
+                return null;
+            }
+            if (size == 0) {
+                tick = now + 1;
+                return null;
+            }
+            int idx = (int) tick & MASK;
+            if (idx == 0) {
+                cascade();
+            }
+            t = slots[idx];
+            if (t != null) {
+                slots[idx] = null;
+                slots[EXPIRED] = t;
+                for (; t != null; t = t.next) {
+                    t.slot = EXPIRED;
+                }
+            }
+            tick++;
+        }
+    }
+
+    public boolean remove(DelayTask t) {
+        if (t.wheel != this) {
+            return false;
+        }
+        DelayTask prev = t.prev;
+        DelayTask next = t.next;
+        if (prev == null) {
+            slots[t.slot] = next;
+        } else {
+            prev.next = next;
+        }
+        if (next != null) {
+            next.prev = prev;
+        }
+        t.prev = null;
+        t.next = null;
+        t.wheel = null;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int slot_of(long deadline) {
+        long delta = deadline - tick;
+        if (delta < SLOTS) {
+            // the task expired is run at the next tick
+            return (int) Math.max(deadline, tick) & MASK;
+        }
+        for (int level = 1; level < LEVELS - 1; level++) {
+            if (delta < 1L << (BITS * (level + 1))) {
+                return level * SLOTS + ((int) (deadline >>> (BITS * level)) & MASK);
+            }
+        }
+        // the task out of the wheel is cascaded again at the last level
+        long d = Math.min(deadline, tick + (1L << (BITS * LEVELS)) - 1);
+        return (LEVELS - 1) * SLOTS + ((int) (d >>> (BITS * (LEVELS - 1))) & MASK);
+    }
+
+}
@@ -23,6 +23,8 @@ public class ByteUtil {
 
     private static final String[] HEXES     = new String[256];
     private static final String[] NUMS      = new String[256];
+    private static final long     SWAR_ONES = 0x0101010101010101L;
+    private static final long     SWAR_LOW7 = 0x7f7f7f7f7f7f7f7fL;
 
     static {
         for (int i = 0; i < 16; i++) {
@@ -392,6 +394,27 @@ public class ByteUtil {
         return value <= 0 ? 1 : value >= 0x40000000 ? 0x40000000 : findNextPositivePowerOfTwo(value);
     }
 
+    /**
+     * @return the word of which all the 8 bytes are b, for swarIndexOf
+     */
+    public static long swarPattern(byte b) {
+        return (b & 0xffL) * SWAR_ONES;
+    }
+
+    /**
+     * find a byte in 8 bytes at a time (SWAR), the word should be read in
+     * little endian, so the first byte in the memory is the lowest byte
+     *
+     * @return the index of the first byte in the word which is equal to the byte
+     * of the pattern, 8 if not found
+     */
+    public static int swarIndexOf(long word, long pattern) {
+        long x = word ^ pattern;
+        // the high bit of each byte is set only if the byte of x is zero, no carry between the bytes
+        long t = ~(((x & SWAR_LOW7) + SWAR_LOW7) | x | SWAR_LOW7);
+        return Long.numberOfTrailingZeros(t) >>> 3;
+    }
+
     public static int skip(ByteBuf src, int p, int e, byte v) {
         int i = p;
         for (; i < e; i++) {
@@ -264,6 +264,10 @@ public class Unsafe {
         return UNSAFE.getInt(target, offset);
     }
 
+    public static int getIntVolatile(long address) {
+        return UNSAFE.getIntVolatile(address);
+    }
+
     public static long getLong(long address) {
         return UNSAFE.getLong(address);
     }
@@ -328,6 +332,10 @@ public class Unsafe {
         UNSAFE.putInt(target, offset, value);
     }
 
+    public static void putIntOrdered(long address, int value) {
+        UNSAFE.putIntOrdered(address, value);
+    }
+
     public static void putLong(long address, long value) {
         UNSAFE.putLong(address, value);
     }
@@ -444,6 +452,8 @@ public class Unsafe {
 
         int getInt(Object target, long offset);
 
+        int getIntVolatile(long address);
+
         long getLong(long address);
 
         long getLong(Object target, long offset);
@@ -470,6 +480,8 @@ public class Unsafe {
 
         void putInt(Object target, long offset, int value);
 
+        void putIntOrdered(long address, int value);
+
         void putLong(long address, long value);
 
         void putLong(Object target, long offset, long value);
@@ -760,6 +772,11 @@ public class Unsafe {
             return UNSAFE.getInt(target, offset);
         }
 
+        @Override
+        public int getIntVolatile(long address) {
+            return UNSAFE.getIntVolatile(null, address);
+        }
+
         @Override
         public long getLong(long address) {
             return UNSAFE.getLong(address);
@@ -825,6 +842,11 @@ public class Unsafe {
             UNSAFE.putInt(target, offset, value);
         }
 
+        @Override
+        public void putIntOrdered(long address, int value) {
+            UNSAFE.putOrderedInt(null, address, value);
+        }
+
         @Override
         public void putLong(long address, long value) {
             UNSAFE.putLong(address, value);
@@ -960,6 +982,10 @@ public class Unsafe {
             throw new UnsupportedOperationException("unsafe not available");
         }
 
+        public int getIntVolatile(long address) {
+            throw new UnsupportedOperationException("unsafe not available");
+        }
+
         public long getLong(long address) {
             throw new UnsupportedOperationException("unsafe not available");
         }
@@ -1012,6 +1038,10 @@ public class Unsafe {
             throw new UnsupportedOperationException("unsafe not available");
         }
 
+        public void putIntOrdered(long address, int value) {
+            throw new UnsupportedOperationException("unsafe not available");
+        }
+
         public void putLong(long address, long value) {
             throw new UnsupportedOperationException("unsafe not available");
         }
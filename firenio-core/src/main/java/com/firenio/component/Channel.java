@@ -27,7 +27,10 @@ import java.nio.channels.SocketChannel;
 import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLEngineResult;
@@ -39,9 +42,13 @@ import com.firenio.Develop;
 import com.firenio.Releasable;
 import com.firenio.buffer.ByteBuf;
 import com.firenio.buffer.ByteBufAllocator;
+import com.firenio.buffer.CompositeByteBuf;
+import com.firenio.collection.DelayedQueue.DelayTask;
 import com.firenio.common.Unsafe;
 import com.firenio.common.Util;
+import com.firenio.component.ChannelContext.ReadStrategy;
 import com.firenio.component.NioEventLoop.EpollEventLoop;
+import com.firenio.component.NioEventLoop.IoUringEventLoop;
 import com.firenio.component.NioEventLoop.JavaEventLoop;
 import com.firenio.concurrent.EventLoop;
 import com.firenio.log.Logger;
@@ -64,30 +71,58 @@ public abstract class Channel implements Runnable, Closeable {
     public static final SSLException      SSL_UNWRAP_OVER_LIMIT = SSL_UNWRAP_OVER_LIMIT();
     public static final SSLException      SSL_UNWRAP_EXCEPTION  = SSL_UNWRAP_EXCEPTION();
     public static final IOException       TASK_REJECT           = TASK_REJECT();
-
-    protected final    ChannelContext context;
-    protected final    long           creation_time = Util.now();
-    protected final    ByteBuf[]      current_wbs;
-    protected final    String         desc;
-    protected final    boolean        enable_ssl;
-    protected final    NioEventLoop   eventLoop;
-    protected final    EventLoop      exec_el;
-    protected final    SSLEngine      ssl_engine;
-    protected final    Queue<ByteBuf> write_bufs;
-    protected final    Integer        channelId;
-    protected final    int            localPort;
-    protected final    String         remoteAddr;
-    protected final    int            remotePort;
-    protected          Object         attachment;
-    protected          ProtocolCodec  codec;
-    protected          int            current_wbs_len;
-    protected          boolean        in_event;
-    protected          long           last_access;
-    protected volatile boolean        open          = true;
-    protected          ByteBuf        plain_remain_buf;
-    protected          boolean        ssl_handshake_finished;
-    protected          ByteBuf        ssl_remain_buf;
-    protected          byte           ssl_wrap_ext;
+    static final        int               FILE_REGION_BUFFER    = 1024 * 64;
+    // the partial frame not less than it is kept in the channel when the cumulative read is enabled
+    static final        int               CUMULATIVE_MIN        = 1024 * 4;
+    static final        int               READ_SIZE_INIT        = 1024 * 2;
+    static final        int               READ_SIZE_MIN         = 512;
+
+    static final AtomicIntegerFieldUpdater<Channel> EXEC_SIZE     = AtomicIntegerFieldUpdater.newUpdater(Channel.class, "exec_size");
+    static final AtomicIntegerFieldUpdater<Channel> FLUSH_PENDING = AtomicIntegerFieldUpdater.newUpdater(Channel.class, "flush_pending");
+    static final AtomicLongFieldUpdater<Channel>    PENDING_BYTES = AtomicLongFieldUpdater.newUpdater(Channel.class, "pending_bytes");
+    static final AtomicIntegerFieldUpdater<Channel> UNWRITABLE    = AtomicIntegerFieldUpdater.newUpdater(Channel.class, "unwritable");
+
+    protected final    ChannelContext    context;
+    protected final    long              creation_time = Util.now();
+    protected final    ByteBuf[]         current_wbs;
+    protected final    boolean           adaptive_read;
+    protected final    boolean           cumulative_read;
+    protected final    boolean           enable_ssl;
+    protected final    NioEventLoop      eventLoop;
+    protected final    EventLoop         exec_el;
+    // the frames to accept in the executor, they are accepted one by one in order by the exec_job
+    protected final    Queue<Frame>      exec_frames;
+    protected final    Runnable          exec_job;
+    protected final    int               high_water_mark;
+    protected final    int               low_water_mark;
+    protected final    SSLEngine         ssl_engine;
+    protected final    Queue<Releasable> write_bufs;
+    protected final    Integer           channelId;
+    protected final    int               localPort;
+    protected final    int               remotePort;
+    protected          Object            attachment;
+    protected          ProtocolCodec     codec;
+    protected          int               current_wbs_len;
+    protected          String            desc;
+    protected volatile int               exec_size;
+    protected volatile int               flush_pending;
+    protected          DelayTask         idle_task;
+    protected          boolean           in_event;
+    // the bytes of the bufs offered but not yet written
+    protected volatile long              pending_bytes;
+    protected          long              last_access;
+    protected volatile boolean           open          = true;
+    protected          ByteBuf           plain_remain_buf;
+    // the bytes to read at most each time by the adaptive read
+    protected          int               read_size     = READ_SIZE_INIT;
+    protected          boolean           read_shrink;
+    protected          String            remoteAddr;
+    protected          Channel           splice_target;
+    protected          boolean           ssl_handshake_finished;
+    protected          ByteBuf           ssl_remain_buf;
+    protected          byte              ssl_wrap_ext;
+    protected volatile int               unwritable;
+    protected          FileRegion        write_region;
 
     Channel(NioEventLoop el, ChannelContext ctx, String ra, int lp, int rp, Integer id) {
         this.remoteAddr = ra;
@@ -97,12 +132,17 @@ public abstract class Channel implements Runnable, Closeable {
         this.context = ctx;
         this.eventLoop = el;
         this.enable_ssl = ctx.isEnableSsl();
+        this.cumulative_read = ctx.isEnableCumulativeRead() && !enable_ssl;
+        this.adaptive_read = ctx.getReadStrategy() == ReadStrategy.ADAPTIVE;
         this.codec = ctx.getDefaultCodec();
         this.exec_el = ctx.getNextExecutorEventLoop();
+        this.exec_frames = exec_el == null ? null : new ConcurrentLinkedQueue<Frame>();
+        this.exec_job = exec_el == null ? null : new ExecJob();
+        this.high_water_mark = ctx.getWriteBufferHighWaterMark();
+        this.low_water_mark = Math.min(ctx.getWriteBufferLowWaterMark(), high_water_mark);
         this.last_access = creation_time + el.getGroup().getIdleTime();
         this.write_bufs = new LinkedBlockingQueue<>();
         this.current_wbs = new ByteBuf[el.getGroup().getWriteBuffers()];
-        this.desc = new_desc(Integer.toHexString(channelId));
         if (this.enable_ssl) {
             this.ssl_engine = ctx.getSslContext().newEngine(getRemoteAddr(), getRemotePort());
         } else {
@@ -155,17 +195,30 @@ public abstract class Channel implements Runnable, Closeable {
     protected void slice_remain_plain(ByteBuf src) {
         //ensure the channel is open, otherwise the buf will never be released if the channel closed
         if (isOpen()) {
-            plain_remain_buf = slice_remain(src);
+            int remain = src.readableBytes();
+            if (cumulative_read && remain >= CUMULATIVE_MIN) {
+                // leave the room for the next bytes of the frame
+                plain_remain_buf = slice_remain(src, remain << 1);
+            } else {
+                plain_remain_buf = slice_remain(src, remain);
+            }
         }
     }
 
     private void slice_remain_ssl(ByteBuf src) {
         if (isOpen()) {
-            ssl_remain_buf = slice_remain(src);
+            ssl_remain_buf = slice_remain(src, src.readableBytes());
+        }
+    }
+
+    void accept(ByteBuf src) throws Exception {
+        if (accept_frames(src)) {
+            getCodec().storePlainReadRemain(this, src);
         }
     }
 
-    private void accept(ByteBuf src) throws Exception {
+    // returns true if the bytes of a partial frame are left in the src
+    boolean accept_frames(ByteBuf src) throws Exception {
         final Channel       ch         = this;
         final ProtocolCodec codec      = getCodec();
         final IoEventHandle handle     = getIoEventHandle();
@@ -174,8 +227,7 @@ public abstract class Channel implements Runnable, Closeable {
         for (; ; ) {
             Frame f = codec.decode(ch, src);
             if (f == null) {
-                codec.storePlainReadRemain(ch, src);
-                break;
+                return true;
             }
             if (enable_wel) {
                 accept_async(eel, f);
@@ -183,26 +235,24 @@ public abstract class Channel implements Runnable, Closeable {
                 accept_line(handle, f);
             }
             if (!src.hasReadableBytes()) {
-                break;
+                return false;
             }
         }
     }
 
+    // the pipelined frames are not accepted at the same time by the threads of the executor, so the responses are in order
     private void accept_async(final EventLoop eel, final Frame f) {
-        final Runnable job = new Runnable() {
-
-            @Override
-            public void run() {
-                final Channel ch = Channel.this;
-                try {
-                    ch.getIoEventHandle().accept(ch, f);
-                } catch (Exception e) {
-                    ch.getIoEventHandle().exceptionCaught(ch, f, e);
+        exec_frames.offer(f);
+        if (EXEC_SIZE.getAndIncrement(this) == 0) {
+            if (!eel.submit(exec_job)) {
+                // the frames are only offered in this event loop, none is offered during this loop
+                for (; ; ) {
+                    exception_caught(exec_frames.poll(), TASK_REJECT);
+                    if (EXEC_SIZE.decrementAndGet(this) == 0) {
+                        break;
+                    }
                 }
             }
-        };
-        if (!eel.submit(job)) {
-            exception_caught(f, TASK_REJECT);
         }
     }
 
@@ -265,6 +315,7 @@ public abstract class Channel implements Runnable, Closeable {
             if (!ssl_engine.isOutboundDone()) {
                 try {
                     ByteBuf out = wrap(ByteBuf.empty());
+                    PENDING_BYTES.addAndGet(this, out.readableBytes());
                     write_bufs.offer(out);
                     write();
                 } catch (Exception e) {
@@ -315,6 +366,40 @@ public abstract class Channel implements Runnable, Closeable {
         }
     }
 
+    // the state may be changed again before the listeners are called, they should check isWritable()
+    private void fire_writability_changed() {
+        if (inEventLoop()) {
+            fire_writability_changed0();
+        } else {
+            eventLoop.submit(new Runnable() {
+
+                @Override
+                public void run() {
+                    // the backlog drained before this task runs, the listeners need not know it
+                    if (pending_bytes <= low_water_mark && UNWRITABLE.compareAndSet(Channel.this, 1, 0)) {
+                        return;
+                    }
+                    fire_writability_changed0();
+                }
+            });
+        }
+    }
+
+    private void fire_writability_changed0() {
+        if (!isOpen()) {
+            return;
+        }
+        List<ChannelEventListener> ls = context.getChannelEventListeners();
+        for (int i = 0, count = ls.size(); i < count; i++) {
+            ChannelEventListener l = ls.get(i);
+            try {
+                l.channelWritabilityChanged(this);
+            } catch (Exception e) {
+                logger.error(e.getMessage(), e);
+            }
+        }
+    }
+
     protected void fire_opened() {
         setAttachment(codec.newAttachment());
         List<ChannelEventListener> ls = context.getChannelEventListeners();
@@ -337,9 +422,10 @@ public abstract class Channel implements Runnable, Closeable {
         if (inEventLoop()) {
             if (!in_event) {
                 in_event = true;
-                eventLoop.getJobs().offer(this);
+                eventLoop.flush(this);
             }
-        } else {
+        } else if (FLUSH_PENDING.compareAndSet(this, 0, 1)) {
+            // the flushes from other threads are coalesced until the event loop runs this channel
             eventLoop.submit(this);
         }
     }
@@ -392,6 +478,11 @@ public abstract class Channel implements Runnable, Closeable {
     }
 
     public String getDesc() {
+        String desc = this.desc;
+        if (desc == null) {
+            desc = new_desc(Integer.toHexString(channelId));
+            this.desc = desc;
+        }
         return desc;
     }
 
@@ -418,7 +509,17 @@ public abstract class Channel implements Runnable, Closeable {
     public abstract int getOption(int name) throws IOException;
 
     public String getRemoteAddr() {
-        return remoteAddr;
+        String ra = this.remoteAddr;
+        if (ra == null) {
+            ra = decode_remote_addr();
+            this.remoteAddr = ra;
+        }
+        return ra;
+    }
+
+    // the accepted epoll channels decode the remote address when it is used
+    String decode_remote_addr() {
+        return null;
     }
 
     public int getRemotePort() {
@@ -450,7 +551,7 @@ public abstract class Channel implements Runnable, Closeable {
 
     @Override
     public int hashCode() {
-        return desc.hashCode();
+        return getDesc().hashCode();
     }
 
     public boolean inEventLoop() {
@@ -531,6 +632,14 @@ public abstract class Channel implements Runnable, Closeable {
         return open;
     }
 
+    /**
+     * @return false if the pending write bytes went above the high water mark
+     * and have not yet dropped to the low water mark
+     */
+    public boolean isWritable() {
+        return unwritable == 0;
+    }
+
     protected boolean isSslHandshakeFinished() {
         return ssl_handshake_finished;
     }
@@ -551,36 +660,90 @@ public abstract class Channel implements Runnable, Closeable {
 
     protected void read() throws Exception {
         last_access = Util.now();
-        if (enable_ssl) {
+        if (splice_target != null) {
+            read_splice(splice_target);
+        } else if (enable_ssl) {
             read_ssl();
         } else {
             read_plain();
         }
     }
 
-    private void read_plain() throws Exception {
+    void read_plain() throws Exception {
         final Channel       ch    = this;
         final ProtocolCodec codec = this.codec;
         ByteBuf             dst   = codec.getPlainReadBuf(eventLoop, ch);
         for (; ; ) {
+            if (remain_cumulative() && !read_cumulative()) {
+                return;
+            }
             codec.readPlainRemain(ch, dst);
-            if (!read_data(dst)) {
+            int limit = read_limit(dst);
+            int len   = read_data(dst, limit);
+            if (len == 0) {
                 return;
             }
             accept(dst);
-            // for epoll et mode
-            if (dst.hasWritableBytes()) {
+            // for epoll et mode, no more bytes if less bytes than the limit are read
+            if (len < limit) {
                 break;
             }
         }
     }
 
+    boolean remain_cumulative() {
+        return cumulative_read && plain_remain_buf != null && plain_remain_buf.readableBytes() >= CUMULATIVE_MIN;
+    }
+
+    // read to the buf of the partial frame directly instead of copying it back to the read buf, returns true
+    // if there may be more bytes to read to the read buf, after the frame is completed or the partial frame
+    // left is small enough to be copied back
+    boolean read_cumulative() throws Exception {
+        for (; ; ) {
+            ByteBuf buf = plain_remain_buf;
+            if (!buf.hasWritableBytes()) {
+                ByteBuf b = alloc().allocate(buf.readableBytes() << 1);
+                b.writeBytes(buf);
+                buf.release();
+                buf = b;
+                plain_remain_buf = b;
+            }
+            int len = native_read(buf, buf.writableBytes());
+            if (len < 1) {
+                if (len == -1) {
+                    Util.close(this);
+                }
+                return false;
+            }
+            buf.skipWrite(len);
+            boolean full    = !buf.hasWritableBytes();
+            boolean partial = accept_frames(buf);
+            if (!isOpen()) {
+                // the buf is released by close
+                return false;
+            }
+            if (!partial) {
+                plain_remain_buf = null;
+                buf.release();
+                return full;
+            }
+            if (!full) {
+                return false;
+            }
+            if (buf.readableBytes() < CUMULATIVE_MIN) {
+                return true;
+            }
+        }
+    }
+
     private void read_ssl() throws Exception {
         ByteBuf src = eventLoop.getReadBuf();
         for (; ; ) {
             src.clear();
             read_ssl_remain(src);
-            if (!read_data(src)) {
+            int limit = read_limit(src);
+            int len   = read_data(src, limit);
+            if (len == 0) {
                 return;
             }
             for (; ; ) {
@@ -601,27 +764,55 @@ public abstract class Channel implements Runnable, Closeable {
                 }
             }
             // for epoll et mode
-            if (src.hasWritableBytes()) {
+            if (len < limit) {
                 break;
             }
         }
     }
 
-    private boolean read_data(ByteBuf dst) {
-        int len = native_read(dst);
+    // returns the count of the bytes read, 0 if no byte is read or the channel is closed
+    private int read_data(ByteBuf dst, int limit) {
+        int len = native_read(dst, limit);
         if (len < 1) {
             if (len == -1) {
                 Util.close(this);
-                return false;
+                return 0;
             }
             store_remain(dst);
-            return false;
+            return 0;
         }
         dst.skipWrite(len);
-        return true;
+        if (adaptive_read) {
+            adapt_read(len, limit);
+        }
+        return len;
+    }
+
+    int read_limit(ByteBuf dst) {
+        int w = dst.writableBytes();
+        return adaptive_read ? Math.min(w, read_size) : w;
+    }
+
+    // grow fast when the read is full, shrink slowly when two reads in a row are less than the half
+    void adapt_read(int len, int limit) {
+        if (len == limit) {
+            if (limit == read_size) {
+                read_size = limit << 2;
+            }
+            read_shrink = false;
+        } else if (len <= read_size >> 1) {
+            if (read_shrink) {
+                read_size = Math.max(read_size >> 1, READ_SIZE_MIN);
+                read_shrink = false;
+            } else {
+                read_shrink = true;
+            }
+        } else {
+            read_shrink = false;
+        }
     }
 
-    private void store_remain(ByteBuf src) {
+    void store_remain(ByteBuf src) {
         if (src.hasReadableBytes()) {
             if (enable_ssl) {
                 slice_remain_ssl(src);
@@ -673,14 +864,16 @@ public abstract class Channel implements Runnable, Closeable {
     }
 
     private void release_wb_queue() {
-        Queue<ByteBuf> wfs = this.write_bufs;
+        Queue<Releasable> wfs = this.write_bufs;
         if (!wfs.isEmpty()) {
-            ByteBuf buf = wfs.poll();
+            Releasable buf = wfs.poll();
             for (; buf != null; ) {
                 release(buf);
                 buf = wfs.poll();
             }
         }
+        release(write_region);
+        write_region = null;
     }
 
     private void remove_channel() {
@@ -691,8 +884,9 @@ public abstract class Channel implements Runnable, Closeable {
 
     @Override
     public void run() {
+        in_event = false;
+        flush_pending = 0;
         if (isOpen()) {
-            in_event = false;
             if (isInterestWrite()) {
                 // check write over flow
                 check_write_overflow();
@@ -721,6 +915,7 @@ public abstract class Channel implements Runnable, Closeable {
             release_wb_array();
             release_wb_queue();
             remove_channel();
+            cancel_idle_task();
             release(ssl_remain_buf);
             release(plain_remain_buf);
             close_channel();
@@ -730,6 +925,13 @@ public abstract class Channel implements Runnable, Closeable {
         }
     }
 
+    private void cancel_idle_task() {
+        if (idle_task != null) {
+            idle_task.cancel();
+            idle_task = null;
+        }
+    }
+
     private void channel_establish() {
         context.channelEstablish(this, CLOSED_CHANNEL);
     }
@@ -738,10 +940,9 @@ public abstract class Channel implements Runnable, Closeable {
 
     public abstract void setOption(int name, int value) throws IOException;
 
-    private ByteBuf slice_remain(ByteBuf src) {
-        int remain = src.readableBytes();
-        if (remain > 0) {
-            ByteBuf remaining = alloc().allocate(remain);
+    private ByteBuf slice_remain(ByteBuf src, int cap) {
+        if (src.hasReadableBytes()) {
+            ByteBuf remaining = alloc().allocate(cap);
             remaining.writeBytes(src);
             return remaining;
         } else {
@@ -779,7 +980,7 @@ public abstract class Channel implements Runnable, Closeable {
 
     @Override
     public String toString() {
-        return desc;
+        return getDesc();
     }
 
     private ByteBuf unwrap(ByteBuf src) throws IOException {
@@ -922,6 +1123,15 @@ public abstract class Channel implements Runnable, Closeable {
 
     public void write(ByteBuf buf) {
         if (buf != null) {
+            if (buf instanceof CompositeByteBuf) {
+                if (enable_ssl) {
+                    // the ssl engine wraps a continuous buffer
+                    buf = merge((CompositeByteBuf) buf);
+                } else {
+                    write_components((CompositeByteBuf) buf);
+                    return;
+                }
+            }
             if (enable_ssl) {
                 ByteBuf old = buf;
                 try {
@@ -932,18 +1142,142 @@ public abstract class Channel implements Runnable, Closeable {
                     old.release();
                 }
             }
-            write_bufs.offer(buf);
-            if (!isOpen()) {
-                buf.release();
-                write_bufs.poll();
+            offer_wb(buf);
+        }
+    }
+
+    private ByteBuf merge(CompositeByteBuf buf) {
+        try {
+            ByteBuf out = alloc().allocate(buf.readableBytes());
+            out.writeBytes(buf);
+            return out;
+        } finally {
+            buf.release();
+        }
+    }
+
+    private void offer_wb(Releasable buf) {
+        if (buf instanceof ByteBuf) {
+            long pending = PENDING_BYTES.addAndGet(this, ((ByteBuf) buf).readableBytes());
+            if (pending > high_water_mark && UNWRITABLE.compareAndSet(this, 0, 1)) {
+                fire_writability_changed();
             }
         }
+        write_bufs.offer(buf);
+        if (!isOpen()) {
+            buf.release();
+            write_bufs.poll();
+        }
+    }
+
+    // hand over the components to the write queue, so they are written by writev without copy
+    private void write_components(CompositeByteBuf buf) {
+        for (ByteBuf c = buf.pollComponent(); c != null; c = buf.pollComponent()) {
+            if (c.hasReadableBytes()) {
+                offer_wb(c);
+            } else {
+                c.release();
+            }
+        }
+        buf.release();
+    }
+
+    /**
+     * forward the inbound bytes of this channel to the target by splice(2), the
+     * bytes are not read into the user space and the codec is not called any
+     * more, this channel is closed when the target is closed. only the epoll
+     * channels without ssl in the same event loop are supported, if false is
+     * returned, the bytes should be forwarded by the codec as before.
+     */
+    public boolean spliceTo(Channel target) {
+        if (!isSpliceSupported(target)) {
+            return false;
+        }
+        this.splice_target = target;
+        ByteBuf remain = this.plain_remain_buf;
+        if (remain != null) {
+            this.plain_remain_buf = null;
+            target.writeAndFlush(remain);
+        }
+        return true;
+    }
+
+    // called in the event loop when the bytes are written
+    void drain_pending(long len) {
+        long pending = PENDING_BYTES.addAndGet(this, -len);
+        if (pending <= low_water_mark && unwritable == 1 && UNWRITABLE.compareAndSet(this, 1, 0)) {
+            fire_writability_changed0();
+        }
+    }
+
+    /**
+     * @return the bytes written to this channel but not yet written to the
+     * socket, the file regions are not counted
+     */
+    public long getPendingWriteBytes() {
+        return pending_bytes;
+    }
+
+    boolean hasPendingWrite() {
+        return current_wbs_len > 0 || write_region != null || !write_bufs.isEmpty();
+    }
+
+    /**
+     * write a region of file without copy, if the channel is ssl or the
+     * native.o has no sendfile, the file is read into bufs chunk by chunk
+     * when it is written.
+     */
+    public void write(FileRegion region) {
+        if (region != null) {
+            offer_wb(region);
+        }
     }
 
     public void write(Frame frame) throws Exception {
         write(codec.encode(this, frame));
     }
 
+    // the region is read into bufs if the channel is ssl or the native.o has no sendfile
+    boolean isCopyRegion() {
+        return enable_ssl || !isSendfileSupported();
+    }
+
+    // called in the event loop when the current bufs are written, only one chunk of the region is
+    // read at a time, the region is kept in write_region until it is drained, -1 if failed
+    int copy_region(FileRegion region) {
+        ByteBuf buf = alloc().allocate((int) Math.min(region.remaining(), FILE_REGION_BUFFER));
+        try {
+            ByteBuffer dst = buf.nioWriteBuffer();
+            dst.limit(dst.position() + (int) Math.min(region.remaining(), FILE_REGION_BUFFER));
+            int len = region.read(dst);
+            if (len == -1) {
+                throw new IOException("file truncated: " + region);
+            }
+            buf.skipWrite(len);
+            if (enable_ssl) {
+                ByteBuf old = buf;
+                buf = null;
+                try {
+                    buf = wrap(old);
+                } finally {
+                    old.release();
+                }
+            }
+        } catch (IOException e) {
+            release(buf);
+            debugException(logger, e);
+            return -1;
+        }
+        if (!region.hasRemaining()) {
+            region.release();
+            this.write_region = null;
+        }
+        PENDING_BYTES.addAndGet(this, buf.readableBytes());
+        this.current_wbs[0] = buf;
+        this.current_wbs_len = 1;
+        return 1;
+    }
+
     //1 complete, 0 keep write, -1 close
     abstract int write();
 
@@ -952,6 +1286,11 @@ public abstract class Channel implements Runnable, Closeable {
         flush();
     }
 
+    public void writeAndFlush(FileRegion region) {
+        write(region);
+        flush();
+    }
+
     public void writeAndFlush(Frame frame) throws Exception {
         write(codec.encode(this, frame));
         flush();
@@ -959,18 +1298,48 @@ public abstract class Channel implements Runnable, Closeable {
 
     abstract boolean isInterestWrite();
 
-    abstract int native_read(ByteBuf dst);
+    boolean isSendfileSupported() {
+        return true;
+    }
+
+    boolean isSpliceSupported(Channel target) {
+        return false;
+    }
+
+    void read_splice(Channel target) throws Exception {}
+
+    abstract int native_read(ByteBuf dst, int len);
 
     static final class EpollChannel extends Channel {
 
+        static final int SPLICE_LEN = 1024 * 64;
+
         private final int     epfd;
         private final int     fd;
+        private final long    ra_high;
+        private final long    ra_low;
         private       boolean interestWrite;
 
         EpollChannel(NioEventLoop el, ChannelContext ctx, int epfd, int fd, String ra, int lp, int rp) {
             super(el, ctx, ra, lp, rp, fd);
             this.fd = fd;
             this.epfd = epfd;
+            this.ra_high = 0;
+            this.ra_low = 0;
+        }
+
+        // ra_high and ra_low are the big endian ipv6 address of the accepted channel
+        EpollChannel(NioEventLoop el, ChannelContext ctx, int epfd, int fd, long ra_high, long ra_low, int lp, int rp) {
+            super(el, ctx, null, lp, rp, fd);
+            this.fd = fd;
+            this.epfd = epfd;
+            this.ra_high = ra_high;
+            this.ra_low = ra_low;
+        }
+
+        @Override
+        String decode_remote_addr() {
+            return EpollEventLoop.decode_addr(ra_high, ra_low);
         }
 
         @Override
@@ -992,9 +1361,183 @@ public abstract class Channel implements Runnable, Closeable {
         }
 
         @Override
-        int native_read(ByteBuf dst) {
+        int native_read(ByteBuf dst, int len) {
             long address = dst.address() + dst.absWriteIndex();
-            return Native.read(fd, address, dst.writableBytes());
+            return Native.read(fd, address, len);
+        }
+
+        // one readv fills the read buf and the overflow buf of the event loop, the partial frame left in the
+        // read buf is copied to the head room of the overflow buf, then the overflow buf is decoded in place
+        // and the two bufs are swapped, so the bulk bytes are never copied back to the front of the read buf
+        @Override
+        void read_plain() throws Exception {
+            final EpollEventLoop el    = (EpollEventLoop) eventLoop;
+            final ProtocolCodec  codec = this.codec;
+            ByteBuf              dst   = codec.getPlainReadBuf(el, this);
+            ByteBuf              ov    = el.overflow_buf;
+            // the adaptive read uses the read buf only, until the reads grow larger than it
+            if (ov == null || dst != el.getReadBuf() || (adaptive_read && read_size < dst.capacity())) {
+                super.read_plain();
+                return;
+            }
+            final long iov    = el.read_iovec;
+            final int  room   = ov.capacity() / 2;
+            final int  ov_len = ov.capacity() - room;
+            if (remain_cumulative() && !read_cumulative()) {
+                return;
+            }
+            codec.readPlainRemain(this, dst);
+            for (; ; ) {
+                int w = dst.writableBytes();
+                Unsafe.putLong(iov, dst.address() + dst.absWriteIndex());
+                Unsafe.putLong(iov + 8, w);
+                Unsafe.putLong(iov + 16, ov.address() + room);
+                Unsafe.putLong(iov + 24, ov_len);
+                long len = Native.readv(fd, iov, 2);
+                if (adaptive_read && len > 0) {
+                    adapt_read((int) len, w + ov_len);
+                }
+                if (len < 1) {
+                    if (len == -1) {
+                        Util.close(this);
+                        return;
+                    }
+                    store_remain(dst);
+                    return;
+                }
+                if (len <= w) {
+                    dst.skipWrite((int) len);
+                    accept(dst);
+                    return;
+                }
+                dst.skipWrite(w);
+                int n = (int) (len - w);
+                // accept_frames also returns true if the codec consumed all the bytes, so the bytes left are
+                // checked by the buf, and the codec is not called with an empty buf
+                if (dst.hasReadableBytes()) {
+                    accept_frames(dst);
+                }
+                int r = dst.readableBytes();
+                ov.writeIndex(room + n);
+                if (r > room) {
+                    // the partial frame is larger than the head room, decode it in a pooled buf
+                    ov.readIndex(room);
+                    ByteBuf buf = alloc().allocate(r + n);
+                    try {
+                        buf.writeBytes(dst);
+                        buf.writeBytes(ov);
+                        accept(buf);
+                    } finally {
+                        buf.release();
+                    }
+                    if (n < ov_len || (remain_cumulative() && !read_cumulative())) {
+                        return;
+                    }
+                    codec.readPlainRemain(this, dst);
+                    continue;
+                }
+                Unsafe.copyMemory(dst.address() + dst.absReadIndex(), ov.address() + room - r, r);
+                ov.readIndex(room - r);
+                if (n < ov_len) {
+                    accept(ov);
+                    return;
+                }
+                accept_frames(ov);
+                if (!ov.hasReadableBytes()) {
+                    ov.clear();
+                }
+                ByteBuf t = dst;
+                dst = ov;
+                ov = t;
+            }
+        }
+
+        @Override
+        boolean isSendfileSupported() {
+            return Native.SENDFILE_AVAILABLE;
+        }
+
+        @Override
+        boolean isSpliceSupported(Channel target) {
+            return Native.SPLICE_AVAILABLE && target instanceof EpollChannel && !enable_ssl && !target.enable_ssl && target.eventLoop == eventLoop;
+        }
+
+        @Override
+        void read_splice(Channel target) {
+            if (!target.isOpen()) {
+                Util.close(this);
+                return;
+            }
+            final int  t_fd  = ((EpollChannel) target).fd;
+            final long pipe  = ((EpollEventLoop) eventLoop).getPipe();
+            final int  p_in  = (int) (pipe >>> 32);
+            final int  p_out = (int) pipe;
+            for (; ; ) {
+                if (pipe == -1 || target.hasPendingWrite()) {
+                    // keep the order with the bytes queued in the target, or no pipe
+                    if (!read_copy(target)) {
+                        return;
+                    }
+                    continue;
+                }
+                int len = Native.splice(fd, p_out, SPLICE_LEN);
+                if (len < 1) {
+                    if (len == -1) {
+                        Util.close(this);
+                    }
+                    return;
+                }
+                for (; len > 0; ) {
+                    int w = Native.splice(p_in, t_fd, len);
+                    if (w < 1) {
+                        if (w == -1) {
+                            Util.close(target);
+                            Util.close(this);
+                            return;
+                        }
+                        // the target is busy, queue the rest bytes, the pipe is shared by the event loop
+                        if (!drain_pipe(target, p_in, len)) {
+                            return;
+                        }
+                        break;
+                    }
+                    len -= w;
+                }
+            }
+        }
+
+        private boolean drain_pipe(Channel target, int p_in, int len) {
+            // the buf may be larger than len, read exactly the bytes left in the pipe
+            ByteBuf buf = target.alloc().allocate(len);
+            for (; len > 0; ) {
+                int r = Native.read(p_in, buf.address() + buf.absWriteIndex(), len);
+                if (r < 1) {
+                    buf.release();
+                    Util.close(target);
+                    Util.close(this);
+                    return false;
+                }
+                buf.skipWrite(r);
+                len -= r;
+            }
+            target.writeAndFlush(buf);
+            return true;
+        }
+
+        // false if no more bytes or closed
+        private boolean read_copy(Channel target) {
+            ByteBuf buf = target.alloc().allocate(SPLICE_LEN);
+            int     len = native_read(buf, buf.writableBytes());
+            if (len < 1) {
+                buf.release();
+                if (len == -1) {
+                    Util.close(this);
+                }
+                return false;
+            }
+            buf.skipWrite(len);
+            target.writeAndFlush(buf);
+            return true;
         }
 
         @Override
@@ -1004,24 +1547,53 @@ public abstract class Channel implements Runnable, Closeable {
 
         @Override
         int write() {
-            final EpollEventLoop el        = (EpollEventLoop) eventLoop;
-            final int            fd        = this.fd;
-            final ByteBuf[]      cwb_array = this.current_wbs;
-            final Queue<ByteBuf> wb_queue  = this.write_bufs;
-            final long           iovec     = el.getIovec();
-            final int            iov_len   = cwb_array.length;
+            final EpollEventLoop    el        = (EpollEventLoop) eventLoop;
+            final int               fd        = this.fd;
+            final ByteBuf[]         cwb_array = this.current_wbs;
+            final Queue<Releasable> wb_queue  = this.write_bufs;
+            final long              iovec     = el.getIovec();
+            final int               iov_len   = cwb_array.length;
             for (; ; ) {
                 int cw_len = this.current_wbs_len;
-                for (; cw_len < iov_len; ) {
-                    ByteBuf buf = wb_queue.poll();
+                for (; cw_len < iov_len && write_region == null; ) {
+                    Releasable buf = wb_queue.poll();
                     if (buf == null) {
                         break;
                     }
-                    cwb_array[cw_len++] = buf;
+                    if (buf instanceof FileRegion) {
+                        write_region = (FileRegion) buf;
+                        break;
+                    }
+                    if (!((ByteBuf) buf).hasReadableBytes()) {
+                        // an empty buf may have no memory, its address can not be passed to writev
+                        buf.release();
+                        continue;
+                    }
+                    cwb_array[cw_len++] = (ByteBuf) buf;
                 }
                 if (cw_len == 0) {
-                    interestWrite = false;
-                    return 1;
+                    FileRegion region = this.write_region;
+                    if (region == null) {
+                        interestWrite = false;
+                        return 1;
+                    }
+                    if (isCopyRegion()) {
+                        if (copy_region(region) == -1) {
+                            return -1;
+                        }
+                        continue;
+                    }
+                    int res = region.sendfile(fd);
+                    if (res == -1) {
+                        return -1;
+                    }
+                    if (res == 0) {
+                        this.interestWrite = true;
+                        return 0;
+                    }
+                    region.release();
+                    this.write_region = null;
+                    continue;
                 }
                 if (cw_len == 1) {
                     ByteBuf buf     = cwb_array[0];
@@ -1031,15 +1603,16 @@ public abstract class Channel implements Runnable, Closeable {
                         return -1;
                     }
                     buf.skipRead(len);
+                    drain_pending(len);
                     if (buf.hasReadableBytes()) {
                         this.current_wbs_len = 1;
                         this.interestWrite = true;
                         return 0;
                     } else {
                         buf.release();
+                        cwb_array[0] = null;
                         this.current_wbs_len = 0;
-                        if (wb_queue.isEmpty()) {
-                            cwb_array[0] = null;
+                        if (wb_queue.isEmpty() && write_region == null) {
                             this.interestWrite = false;
                             return 1;
                         }
@@ -1058,6 +1631,7 @@ public abstract class Channel implements Runnable, Closeable {
                     if (len == -1) {
                         return -1;
                     }
+                    drain_pending(len);
                     for (int i = 0; i < cw_len; i++) {
                         ByteBuf buf = cwb_array[i];
                         int     r   = buf.readableBytes();
@@ -1076,7 +1650,7 @@ public abstract class Channel implements Runnable, Closeable {
                     }
                     fill_null(cwb_array, 0, cw_len);
                     this.current_wbs_len = 0;
-                    if (wb_queue.isEmpty()) {
+                    if (wb_queue.isEmpty() && write_region == null) {
                         this.interestWrite = false;
                         return 1;
                     }
@@ -1085,6 +1659,235 @@ public abstract class Channel implements Runnable, Closeable {
         }
     }
 
+    static final class IoUringChannel extends Channel {
+
+        final         int       fd;
+        final         int       id;
+        // the bufs referenced by the write in flight, they are retained until the write completes
+        private final ByteBuf[] inflight;
+        private final long      ra_high;
+        private final long      ra_low;
+        private       int       inflight_len;
+        private       long      iovec;
+        // OP_WRITE or OP_WRITE_POLL if a write is in flight
+        private       int       write_op;
+
+        IoUringChannel(NioEventLoop el, ChannelContext ctx, int fd, int id, String ra, int lp, int rp) {
+            super(el, ctx, ra, lp, rp, fd);
+            this.fd = fd;
+            this.id = id;
+            this.ra_high = 0;
+            this.ra_low = 0;
+            this.inflight = new ByteBuf[current_wbs.length];
+        }
+
+        IoUringChannel(NioEventLoop el, ChannelContext ctx, int fd, int id, long ra_high, long ra_low, int lp, int rp) {
+            super(el, ctx, null, lp, rp, fd);
+            this.fd = fd;
+            this.id = id;
+            this.ra_high = ra_high;
+            this.ra_low = ra_low;
+            this.inflight = new ByteBuf[current_wbs.length];
+        }
+
+        @Override
+        String decode_remote_addr() {
+            return EpollEventLoop.decode_addr(ra_high, ra_low);
+        }
+
+        @Override
+        void close_channel() {
+            IoUringEventLoop el = (IoUringEventLoop) eventLoop;
+            el.cancel(IoUringEventLoop.OP_READ, id);
+            if (write_op != 0) {
+                // the bufs and the iovec are released when the canceled write completes
+                el.cancel(write_op, id);
+            } else {
+                el.ring_chs.remove(id);
+                free_iovec();
+            }
+            Native.close(fd);
+        }
+
+        private void free_iovec() {
+            if (iovec != 0) {
+                Unsafe.free(iovec);
+                iovec = 0;
+            }
+        }
+
+        @Override
+        public int getOption(int name) {
+            return Native.get_socket_opt(fd, (name >>> 16), name & 0xff);
+        }
+
+        @Override
+        boolean isInterestWrite() {
+            return write_op != 0;
+        }
+
+        @Override
+        boolean isSendfileSupported() {
+            return Native.SENDFILE_AVAILABLE;
+        }
+
+        @Override
+        int native_read(ByteBuf dst, int len) {
+            long address = dst.address() + dst.absWriteIndex();
+            return Native.read(fd, address, len);
+        }
+
+        private void poll_write() {
+            IoUringEventLoop el = (IoUringEventLoop) eventLoop;
+            this.write_op = IoUringEventLoop.OP_WRITE_POLL;
+            el.ring.poll_add(fd, Native.EPOLL_OUT, IoUringEventLoop.user_data(write_op, id));
+        }
+
+        void release_inflight() {
+            final ByteBuf[] inflight = this.inflight;
+            for (int i = 0; i < inflight_len; i++) {
+                inflight[i].release();
+                inflight[i] = null;
+            }
+            inflight_len = 0;
+            free_iovec();
+        }
+
+        @Override
+        public void setOption(int name, int value) {
+            Native.set_socket_opt(fd, (name >>> 16), name & 0xff, value);
+        }
+
+        @Override
+        int write() {
+            if (write_op != 0) {
+                // continue when the write in flight completes
+                return 0;
+            }
+            final ByteBuf[]         cwb_array = this.current_wbs;
+            final Queue<Releasable> wb_queue  = this.write_bufs;
+            final int               iov_len   = cwb_array.length;
+            for (; ; ) {
+                int cw_len = this.current_wbs_len;
+                for (; cw_len < iov_len && write_region == null; ) {
+                    Releasable buf = wb_queue.poll();
+                    if (buf == null) {
+                        break;
+                    }
+                    if (buf instanceof FileRegion) {
+                        write_region = (FileRegion) buf;
+                        break;
+                    }
+                    if (!((ByteBuf) buf).hasReadableBytes()) {
+                        // an empty buf may have no memory, its address can not be passed to writev
+                        buf.release();
+                        continue;
+                    }
+                    cwb_array[cw_len++] = (ByteBuf) buf;
+                }
+                if (cw_len == 0) {
+                    FileRegion region = this.write_region;
+                    if (region == null) {
+                        return 1;
+                    }
+                    if (isCopyRegion()) {
+                        if (copy_region(region) == -1) {
+                            return -1;
+                        }
+                        continue;
+                    }
+                    int res = region.sendfile(fd);
+                    if (res == -1) {
+                        return -1;
+                    }
+                    if (res == 0) {
+                        poll_write();
+                        return 0;
+                    }
+                    region.release();
+                    this.write_region = null;
+                    continue;
+                }
+                if (iovec == 0) {
+                    iovec = Unsafe.allocate(iov_len * 16);
+                }
+                long iov_pos = iovec;
+                for (int i = 0; i < cw_len; i++) {
+                    ByteBuf buf = cwb_array[i];
+                    Unsafe.putLong(iov_pos, buf.address() + buf.absReadIndex());
+                    iov_pos += 8;
+                    Unsafe.putLong(iov_pos, buf.readableBytes());
+                    iov_pos += 8;
+                    // the buf may be released by close before the write completes
+                    buf.retain();
+                    inflight[i] = buf;
+                }
+                IoUringEventLoop el = (IoUringEventLoop) eventLoop;
+                this.current_wbs_len = cw_len;
+                this.inflight_len = cw_len;
+                this.write_op = IoUringEventLoop.OP_WRITE;
+                el.ring.writev(fd, iovec, cw_len, IoUringEventLoop.user_data(write_op, id));
+                return 0;
+            }
+        }
+
+        void write_complete(int res) {
+            this.write_op = 0;
+            release_inflight();
+            if (!isOpen()) {
+                ((IoUringEventLoop) eventLoop).ring_chs.remove(id);
+                return;
+            }
+            if (res < 0) {
+                if (res == -IoUring.EAGAIN) {
+                    poll_write();
+                } else {
+                    close();
+                }
+                return;
+            }
+            drain_pending(res);
+            final ByteBuf[] cwb_array = this.current_wbs;
+            final int       cw_len    = this.current_wbs_len;
+            long            len       = res;
+            for (int i = 0; i < cw_len; i++) {
+                ByteBuf buf = cwb_array[i];
+                int     r   = buf.readableBytes();
+                if (len < r) {
+                    buf.skipRead((int) len);
+                    int remain = cw_len - i;
+                    System.arraycopy(cwb_array, i, cwb_array, 0, remain);
+                    fill_null(cwb_array, remain, cw_len);
+                    this.current_wbs_len = remain;
+                    // the socket buffer is full
+                    poll_write();
+                    return;
+                } else {
+                    len -= r;
+                    buf.release();
+                }
+            }
+            fill_null(cwb_array, 0, cw_len);
+            this.current_wbs_len = 0;
+            if (write() == -1) {
+                close();
+            }
+        }
+
+        void write_poll_complete(int res) {
+            this.write_op = 0;
+            if (!isOpen()) {
+                ((IoUringEventLoop) eventLoop).ring_chs.remove(id);
+                free_iovec();
+                return;
+            }
+            if (res < 0 || (res & Native.close_event()) != 0 || write() == -1) {
+                close();
+            }
+        }
+
+    }
+
     static final class JavaChannel extends Channel {
 
         static final int INTEREST_WRITE = INTEREST_WRITE();
@@ -1162,9 +1965,11 @@ public abstract class Channel implements Runnable, Closeable {
         }
 
         @Override
-        int native_read(ByteBuf dst) {
+        int native_read(ByteBuf dst, int len) {
+            ByteBuffer buf = dst.nioWriteBuffer();
+            buf.limit(buf.position() + len);
             try {
-                return channel.read(dst.nioWriteBuffer());
+                return channel.read(buf);
             } catch (IOException e) {
                 return -1;
             }
@@ -1184,23 +1989,47 @@ public abstract class Channel implements Runnable, Closeable {
 
         @Override
         int write() {
-            final ByteBuf[]      cwb_array   = this.current_wbs;
-            final Queue<ByteBuf> wb_queue    = this.write_bufs;
-            final JavaEventLoop  el          = (JavaEventLoop) eventLoop;
-            final ByteBuffer[]   wb_array    = el.getWriteBuffers();
-            final int            max_cwb_len = cwb_array.length;
+            final ByteBuf[]         cwb_array   = this.current_wbs;
+            final Queue<Releasable> wb_queue    = this.write_bufs;
+            final JavaEventLoop     el          = (JavaEventLoop) eventLoop;
+            final ByteBuffer[]      wb_array    = el.getWriteBuffers();
+            final int               max_cwb_len = cwb_array.length;
             for (; ; ) {
                 int cwb_len = this.current_wbs_len;
-                for (; cwb_len < max_cwb_len; ) {
-                    ByteBuf buf = wb_queue.poll();
+                for (; cwb_len < max_cwb_len && write_region == null; ) {
+                    Releasable buf = wb_queue.poll();
                     if (buf == null) {
                         break;
                     }
-                    cwb_array[cwb_len++] = buf;
+                    if (buf instanceof FileRegion) {
+                        write_region = (FileRegion) buf;
+                        break;
+                    }
+                    cwb_array[cwb_len++] = (ByteBuf) buf;
                 }
                 if (cwb_len == 0) {
-                    interestRead();
-                    return 1;
+                    FileRegion region = this.write_region;
+                    if (region == null) {
+                        interestRead();
+                        return 1;
+                    }
+                    if (isCopyRegion()) {
+                        if (copy_region(region) == -1) {
+                            return -1;
+                        }
+                        continue;
+                    }
+                    int res = region.transferTo(channel);
+                    if (res == -1) {
+                        return -1;
+                    }
+                    if (res == 0) {
+                        interestWrite();
+                        return 0;
+                    }
+                    region.release();
+                    this.write_region = null;
+                    continue;
                 }
                 if (cwb_len == 1) {
                     ByteBuf    buf    = cwb_array[0];
@@ -1209,6 +2038,7 @@ public abstract class Channel implements Runnable, Closeable {
                     if (len == -1) {
                         return -1;
                     }
+                    drain_pending(len);
                     if (nioBuf.hasRemaining()) {
                         this.current_wbs_len = 1;
                         buf.reverseRead();
@@ -1216,9 +2046,9 @@ public abstract class Channel implements Runnable, Closeable {
                         return 0;
                     } else {
                         buf.release();
+                        cwb_array[0] = null;
                         this.current_wbs_len = 0;
-                        if (wb_queue.isEmpty()) {
-                            cwb_array[0] = null;
+                        if (wb_queue.isEmpty() && write_region == null) {
                             interestRead();
                             return 1;
                         }
@@ -1231,6 +2061,7 @@ public abstract class Channel implements Runnable, Closeable {
                     if (len == -1) {
                         return -1;
                     }
+                    drain_pending(len);
                     for (int i = 0; i < cwb_len; i++) {
                         ByteBuf buf = cwb_array[i];
                         if (wb_array[i].hasRemaining()) {
@@ -1249,7 +2080,7 @@ public abstract class Channel implements Runnable, Closeable {
                     }
                     fill_null(cwb_array, 0, cwb_len);
                     this.current_wbs_len = 0;
-                    if (wb_queue.isEmpty()) {
+                    if (wb_queue.isEmpty() && write_region == null) {
                         interestRead();
                         return 1;
                     }
@@ -1259,6 +2090,29 @@ public abstract class Channel implements Runnable, Closeable {
 
     }
 
+    final class ExecJob implements Runnable {
+
+        @Override
+        public void run() {
+            final Channel ch = Channel.this;
+            for (; ; ) {
+                Frame f = exec_frames.poll();
+                try {
+                    ch.getIoEventHandle().accept(ch, f);
+                } catch (Exception e) {
+                    ch.exception_caught(f, e);
+                } catch (Throwable e) {
+                    // the next frames are still run, or the frames of the channel are never executed again
+                    logger.error(e.getMessage(), e);
+                }
+                if (EXEC_SIZE.decrementAndGet(ch) == 0) {
+                    break;
+                }
+            }
+        }
+
+    }
+
     static class OpenSslHelper {
 
         private static final Field OPENSSL_RECEIVED_SHUTDOWN = OPENSSL_RECEIVED_SHUTDOWN();
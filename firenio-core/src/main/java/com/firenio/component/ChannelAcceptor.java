@@ -22,10 +22,12 @@ import java.net.ServerSocket;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
+import java.util.Arrays;
 
 import com.firenio.buffer.ByteBuf;
 import com.firenio.common.Util;
 import com.firenio.component.NioEventLoop.EpollEventLoop;
+import com.firenio.component.NioEventLoop.IoUringEventLoop;
 import com.firenio.component.NioEventLoop.JavaEventLoop;
 import com.firenio.concurrent.Waiter;
 import com.firenio.log.Logger;
@@ -38,6 +40,7 @@ public final class ChannelAcceptor extends ChannelContext {
 
     private NioEventLoopGroup bindGroup;
     private Logger            logger = LoggerFactory.getLogger(getClass());
+    private boolean           reusePort;
     private AcceptorUnsafe    unsafe;
 
     public ChannelAcceptor(int port) {
@@ -54,7 +57,9 @@ public final class ChannelAcceptor extends ChannelContext {
 
     public ChannelAcceptor(NioEventLoopGroup group, String host, int port) {
         super(group, host, port);
-        if (Native.EPOLL_AVAILABLE) {
+        if (Native.IO_URING_AVAILABLE) {
+            unsafe = new IoUringAcceptorUnsafe();
+        } else if (Native.EPOLL_AVAILABLE) {
             unsafe = new EpollAcceptorUnsafe();
         } else {
             unsafe = new JavaAcceptorUnsafe();
@@ -73,17 +78,34 @@ public final class ChannelAcceptor extends ChannelContext {
         if (isActive()) {
             return;
         }
-        String name = "bind-" + getHost() + ":" + getPort();
-        this.bindGroup = new NioEventLoopGroup(name, true);
-        this.bindGroup.setEnableMemoryPool(false);
-        this.bindGroup.setEnableMemoryPoolDirect(false);
-        this.bindGroup.setChannelReadBuffer(0);
-        this.bindGroup.setWriteBuffers(0);
         this.getProcessorGroup().setContext(this);
-        Util.start(bindGroup);
-        Util.start(this);
-        final NioEventLoop   bindEventLoop = bindGroup.getNext();
-        final Waiter<Object> bindWaiter    = new Waiter<>(this);
+        if (isReusePortBind()) {
+            this.unsafe = new EpollReusePortAcceptorUnsafe(getProcessorGroup().getEventLoopSize());
+            Util.start(this);
+            for (int i = 0; i < getProcessorGroup().getEventLoopSize(); i++) {
+                bind(getProcessorGroup().getEventLoop(i), backlog);
+            }
+        } else {
+            if (unsafe instanceof EpollReusePortAcceptorUnsafe) {
+                this.unsafe = new EpollAcceptorUnsafe();
+            }
+            String name = "bind-" + getHost() + ":" + getPort();
+            this.bindGroup = new NioEventLoopGroup(name, true);
+            this.bindGroup.setEnableMemoryPool(false);
+            this.bindGroup.setEnableMemoryPoolDirect(false);
+            this.bindGroup.setChannelReadBuffer(0);
+            this.bindGroup.setWriteBuffers(0);
+            this.bindGroup.setAcceptBatch(getProcessorGroup().getAcceptBatch());
+            Util.start(bindGroup);
+            Util.start(this);
+            bind(bindGroup.getNext(), backlog);
+        }
+        logger.info("server listening @" + getServerAddress());
+    }
+
+    private void bind(final NioEventLoop bindEventLoop, final int backlog) throws IOException {
+        final AcceptorUnsafe unsafe     = this.unsafe;
+        final Waiter<Object> bindWaiter = new Waiter<>(this);
         boolean submitted = bindEventLoop.submit(new Runnable() {
 
             @Override
@@ -120,7 +142,6 @@ public final class ChannelAcceptor extends ChannelContext {
             }
             throw new IOException("bind failed", ex);
         }
-        logger.info("server listening @" + getServerAddress());
     }
 
     public void broadcast(ByteBuf buf) {
@@ -140,6 +161,26 @@ public final class ChannelAcceptor extends ChannelContext {
         return unsafe.isActive();
     }
 
+    public boolean isReusePort() {
+        return reusePort;
+    }
+
+    // the ephemeral port can not be shared as every socket gets its own port
+    private boolean isReusePortBind() {
+        return reusePort && getPort() != 0 && Native.REUSE_PORT_AVAILABLE && !Native.IO_URING_AVAILABLE;
+    }
+
+    /**
+     * every processor event loop binds its own SO_REUSEPORT listen socket and
+     * accepts the channels it owns, the kernel balances the accepts, there is
+     * no bind thread. it works for the epoll transport only, the others bind
+     * with a bind thread as before.
+     */
+    public void setReusePort(boolean reusePort) {
+        checkNotRunning();
+        this.reusePort = reusePort;
+    }
+
     public synchronized void unbind() {
         Util.close(unsafe);
         Util.stop(bindGroup);
@@ -148,7 +189,14 @@ public final class ChannelAcceptor extends ChannelContext {
 
     @Override
     public String toString() {
-        return (unsafe instanceof EpollAcceptorUnsafe ? "Epoll" : "Jdk") + "Acceptor(" + getServerAddress() + ")";
+        return transport() + "Acceptor(" + getServerAddress() + ")";
+    }
+
+    private String transport() {
+        if (unsafe instanceof JavaAcceptorUnsafe) {
+            return "Jdk";
+        }
+        return unsafe instanceof IoUringAcceptorUnsafe ? "IoUring" : "Epoll";
     }
 
     static abstract class AcceptorUnsafe implements Closeable {
@@ -170,6 +218,7 @@ public final class ChannelAcceptor extends ChannelContext {
             eventLoop.assertInEventLoop("registerSelector must in event loop");
             this.close();
             this.active = true;
+            this.eventLoop = eventLoop;
             this.listen_fd = Native.bind(acceptor.getHost(), acceptor.getPort(), backlog);
             Native.throwException(listen_fd);
             EpollEventLoop el = (EpollEventLoop) eventLoop;
@@ -200,6 +249,148 @@ public final class ChannelAcceptor extends ChannelContext {
 
     }
 
+    static final class EpollReusePortAcceptorUnsafe extends AcceptorUnsafe {
+
+        final NioEventLoop[] eventLoops;
+        final int[]          listen_fds;
+        volatile boolean     active;
+
+        EpollReusePortAcceptorUnsafe(int size) {
+            this.eventLoops = new NioEventLoop[size];
+            this.listen_fds = new int[size];
+            Arrays.fill(listen_fds, -1);
+        }
+
+        @Override
+        void bind(NioEventLoop eventLoop, ChannelAcceptor acceptor, int backlog) throws IOException {
+            eventLoop.assertInEventLoop("registerSelector must in event loop");
+            int listen_fd = Native.bind_reuse_port(acceptor.getHost(), acceptor.getPort(), backlog);
+            Native.throwException(listen_fd);
+            EpollEventLoop el = (EpollEventLoop) eventLoop;
+            try {
+                Native.throwException(Native.epoll_add(el.epfd, listen_fd, Native.EPOLL_IN));
+            } catch (IOException e) {
+                Native.close(listen_fd);
+                throw e;
+            }
+            el.ctxs.put(listen_fd, acceptor);
+            this.active = true;
+            this.eventLoops[el.getIndex()] = el;
+            this.listen_fds[el.getIndex()] = listen_fd;
+        }
+
+        // the fds are removed in their event loops, the ctxs of the event loop is not thread safe,
+        // the fds already bound are closed here too if the bind failed in a later event loop
+        @Override
+        public void close() {
+            this.active = false;
+            for (int i = 0; i < eventLoops.length; i++) {
+                final NioEventLoop eventLoop = eventLoops[i];
+                if (eventLoop == null) {
+                    continue;
+                }
+                final int index = i;
+                if (eventLoop.inEventLoop()) {
+                    close0(index);
+                    continue;
+                }
+                final Waiter<Object> waiter = new Waiter<>();
+                boolean submitted = eventLoop.submit(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        close0(index);
+                        waiter.call(null, null);
+                    }
+                });
+                if (submitted) {
+                    waiter.await(3000);
+                } else {
+                    // the event loop is stopped, nothing runs in it any more
+                    close0(index);
+                }
+            }
+        }
+
+        private synchronized void close0(int index) {
+            int listen_fd = listen_fds[index];
+            if (listen_fd != -1) {
+                EpollEventLoop el = (EpollEventLoop) eventLoops[index];
+                Native.epoll_del(el.epfd, listen_fd);
+                el.ctxs.remove(listen_fd);
+                Native.close(listen_fd);
+                listen_fds[index] = -1;
+            }
+        }
+
+        @Override
+        boolean isActive() {
+            return active;
+        }
+
+    }
+
+    static final class IoUringAcceptorUnsafe extends AcceptorUnsafe {
+
+        volatile boolean active;
+        NioEventLoop eventLoop;
+        int          listen_fd = -1;
+
+        @Override
+        void bind(NioEventLoop eventLoop, ChannelAcceptor acceptor, int backlog) throws IOException {
+            eventLoop.assertInEventLoop("registerSelector must in event loop");
+            this.close();
+            this.active = true;
+            this.eventLoop = eventLoop;
+            this.listen_fd = Native.bind(acceptor.getHost(), acceptor.getPort(), backlog);
+            Native.throwException(listen_fd);
+            ((IoUringEventLoop) eventLoop).listen(acceptor, listen_fd);
+        }
+
+        // the ring is used by its event loop only, the accepts must be canceled before the socket is closed
+        @Override
+        public void close() {
+            this.active = false;
+            final NioEventLoop eventLoop = this.eventLoop;
+            if (eventLoop == null || eventLoop.inEventLoop()) {
+                close0();
+                return;
+            }
+            final Waiter<Object> waiter = new Waiter<>();
+            boolean submitted = eventLoop.submit(new Runnable() {
+
+                @Override
+                public void run() {
+                    close0();
+                    waiter.call(null, null);
+                }
+            });
+            if (submitted) {
+                waiter.await(3000);
+            } else {
+                close0();
+            }
+        }
+
+        private void close0() {
+            int listen_fd = this.listen_fd;
+            if (listen_fd != -1) {
+                NioEventLoop eventLoop = this.eventLoop;
+                if (eventLoop != null && eventLoop.inEventLoop()) {
+                    ((IoUringEventLoop) eventLoop).unlisten();
+                }
+                Native.close(listen_fd);
+                this.listen_fd = -1;
+            }
+        }
+
+        @Override
+        boolean isActive() {
+            return active;
+        }
+
+    }
+
     static final class JavaAcceptorUnsafe extends AcceptorUnsafe {
 
         private ServerSocketChannel selectableChannel;
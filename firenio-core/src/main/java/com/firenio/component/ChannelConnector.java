@@ -27,6 +27,7 @@ import com.firenio.collection.DelayedQueue;
 import com.firenio.common.Assert;
 import com.firenio.common.Util;
 import com.firenio.component.NioEventLoop.EpollEventLoop;
+import com.firenio.component.NioEventLoop.IoUringEventLoop;
 import com.firenio.component.NioEventLoop.JavaEventLoop;
 import com.firenio.concurrent.Callback;
 import com.firenio.concurrent.Waiter;
@@ -64,7 +65,9 @@ public final class ChannelConnector extends ChannelContext implements Closeable
         if (!group.isSharable() && !group.isRunning()) {
             group.setEventLoopSize(1);
         }
-        if (Native.EPOLL_AVAILABLE) {
+        if (Native.IO_URING_AVAILABLE) {
+            unsafe = new IoUringConnectorUnsafe();
+        } else if (Native.EPOLL_AVAILABLE) {
             unsafe = new EpollConnectorUnsafe();
         } else {
             unsafe = new JavaConnectorUnsafe();
@@ -257,6 +260,42 @@ public final class ChannelConnector extends ChannelContext implements Closeable
 
     }
 
+    static final class IoUringConnectorUnsafe extends ConnectorUnsafe {
+
+        private int    fd = -1;
+        private int    id;
+        private String remoteAddr;
+
+        @Override
+        void connect(ChannelConnector ctx, NioEventLoop el) throws IOException {
+            InetAddress host = InetAddress.getByName(ctx.getHost());
+            this.remoteAddr = host.getHostAddress();
+            int fd = Native.connect(host.getHostAddress(), ctx.getPort());
+            Native.throwException(fd);
+            this.fd = fd;
+            el.schedule(ctx.timeoutTask);
+            this.id = ((IoUringEventLoop) el).connect(ctx, fd);
+        }
+
+        @Override
+        void channelEstablish(Channel ch, NioEventLoop el, Throwable ex) {
+            if (ex != null && fd != -1) {
+                ((IoUringEventLoop) el).cancel_connect(id);
+                Native.close(fd);
+                this.fd = -1;
+            }
+        }
+
+        String getRemoteAddr() {
+            return remoteAddr;
+        }
+
+        int getFd() {
+            return fd;
+        }
+
+    }
+
     static final class JavaConnectorUnsafe extends ConnectorUnsafe {
 
         private SocketChannel javaChannel;
@@ -43,33 +43,40 @@ import com.firenio.log.LoggerFactory;
 public abstract class ChannelContext extends LifeCycle implements Configuration {
 
     private String[]                   applicationProtocols;
-    private Map<Object, Object>        attributes         = new HashMap<>();
-    private List<ChannelEventListener> cels               = new ArrayList<>();
-    private ChannelManager             channelManager     = new ChannelManager();
-    private Charset                    charset            = Util.UTF8;
-    private List<ChannelIdleListener>  ciels              = new ArrayList<>();
-    private Map<String, ProtocolCodec> codecs             = new HashMap<>();
+    private Map<Object, Object>        attributes               = new HashMap<>();
+    private List<ChannelEventListener> cels                     = new ArrayList<>();
+    private ChannelManager             channelManager           = new ChannelManager();
+    private Charset                    charset                  = Util.UTF8;
+    private List<ChannelIdleListener>  ciels                    = new ArrayList<>();
+    private Map<String, ProtocolCodec> codecs                   = new HashMap<>();
     private ProtocolCodec              defaultCodec;
-    private boolean                    enableHeartbeatLog = true;
+    //是否将不完整的frame保留在连接自己的buf中，后续数据直接读入该buf，不再每次拷贝回读缓冲(不支持ssl)
+    private boolean                    enableCumulativeRead;
+    private boolean                    enableHeartbeatLog       = true;
     private boolean                    enableSsl;
     //是否启用work event loop，如果启用，则frame在work event loop中处理
     private EventLoopGroup             executorGroup;
     private HeartBeatLogger            heartBeatLogger;
     private String                     host;
+    private IdleStrategy               idleStrategy             = IdleStrategy.SCAN;
     private boolean                    initialized;
-    private IoEventHandle              ioEventHandle      = DefaultIoEventHandle.get();
-    private Logger                     logger             = LoggerFactory.getLogger(getClass());
-    private int                        maxWriteBacklog    = Integer.MAX_VALUE;
+    private IoEventHandle              ioEventHandle            = DefaultIoEventHandle.get();
+    private Logger                     logger                   = LoggerFactory.getLogger(getClass());
+    private int                        maxWriteBacklog          = Integer.MAX_VALUE;
     private String                     openSslPath;
     private int                        port;
-    private boolean                    printConfig        = true;
+    private boolean                    printConfig              = true;
     private NioEventLoopGroup          processorGroup;
     private Properties                 properties;
+    private ReadStrategy               readStrategy             = ReadStrategy.FIXED;
     private InetSocketAddress          serverAddress;
     private SslContext                 sslContext;
     private String                     sslKeystore;
     private String                     sslPem;
-    private long                       startupTime        = Util.now();
+    private long                       startupTime              = Util.now();
+    //写缓冲的高低水位(字节)，积压超过高水位时channel不可写，降到低水位以下时恢复可写
+    private int                        writeBufferHighWaterMark = 1024 * 64;
+    private int                        writeBufferLowWaterMark  = 1024 * 32;
 
     ChannelContext(NioEventLoopGroup group, String host, int port) {
         Assert.notNull(host, "null host");
@@ -139,7 +146,9 @@ public abstract class ChannelContext extends LifeCycle implements Configuration
             logger.info("event loop size       : [ {} ]", eventLoopSize);
             logger.info("enable ssl            : [ {} ]", sslType());
             logger.info("enable epoll          : [ {} ]", Native.EPOLL_AVAILABLE);
-            logger.info("channel idle          : [ {} ]", g.getIdleTime());
+            logger.info("enable io_uring       : [ {} ]", Native.IO_URING_AVAILABLE);
+            logger.info("channel idle          : [ {} ({}) ]", g.getIdleTime(), idleStrategy);
+            logger.info("write water mark      : [ {}/{} ]", writeBufferLowWaterMark, writeBufferHighWaterMark);
             logger.info("host and port         : [ {}:{} ]", getHost(), port);
             if (g.isEnableMemoryPool()) {
                 long   memoryPoolCapacity = g.getMemoryPoolCapacity() * g.getEventLoopSize();
@@ -171,10 +180,13 @@ public abstract class ChannelContext extends LifeCycle implements Configuration
     }
 
     private String getByteBufPoolType(NioEventLoopGroup g) {
+        String type;
         if (Unsafe.UNSAFE_BUF_AVAILABLE) {
-            return "unsafe";
+            type = "unsafe";
+        } else {
+            type = g.isEnableMemoryPoolDirect() ? "direct" : "heap";
         }
-        return g.isEnableMemoryPoolDirect() ? "direct" : "heap";
+        return g.isEnableMemoryPoolArena() ? type + ", arena" : type;
     }
 
     @Override
@@ -269,6 +281,24 @@ public abstract class ChannelContext extends LifeCycle implements Configuration
         this.maxWriteBacklog = maxWriteBacklog;
     }
 
+    public int getWriteBufferHighWaterMark() {
+        return writeBufferHighWaterMark;
+    }
+
+    public void setWriteBufferHighWaterMark(int writeBufferHighWaterMark) {
+        checkNotRunning();
+        this.writeBufferHighWaterMark = writeBufferHighWaterMark;
+    }
+
+    public int getWriteBufferLowWaterMark() {
+        return writeBufferLowWaterMark;
+    }
+
+    public void setWriteBufferLowWaterMark(int writeBufferLowWaterMark) {
+        checkNotRunning();
+        this.writeBufferLowWaterMark = writeBufferLowWaterMark;
+    }
+
     public EventLoop getNextExecutorEventLoop() {
         if (executorGroup == null) {
             return null;
@@ -448,8 +478,35 @@ public abstract class ChannelContext extends LifeCycle implements Configuration
         }
     }
 
+    public ReadStrategy getReadStrategy() {
+        return readStrategy;
+    }
+
+    public void setReadStrategy(ReadStrategy readStrategy) {
+        checkNotRunning();
+        this.readStrategy = readStrategy;
+    }
+
+    public IdleStrategy getIdleStrategy() {
+        return idleStrategy;
+    }
+
+    public void setIdleStrategy(IdleStrategy idleStrategy) {
+        checkNotRunning();
+        this.idleStrategy = idleStrategy;
+    }
+
     abstract boolean isActive();
 
+    public boolean isEnableCumulativeRead() {
+        return enableCumulativeRead;
+    }
+
+    public void setEnableCumulativeRead(boolean enableCumulativeRead) {
+        checkNotRunning();
+        this.enableCumulativeRead = enableCumulativeRead;
+    }
+
     public boolean isEnableHeartbeatLog() {
         return enableHeartbeatLog;
     }
@@ -495,6 +552,36 @@ public abstract class ChannelContext extends LifeCycle implements Configuration
         }
     }
 
+    /**
+     * how the idle channels are found for the ChannelIdleListeners
+     */
+    public enum IdleStrategy {
+
+        // all the channels of the event loop are passed to the listeners at each idle time
+        SCAN,
+
+        // each channel has a timer at its last access time plus the idle time, the listeners
+        // are only called with the channels not accessed in the idle time, the listeners like
+        // ChannelActiveListener which ping the active channels need SCAN
+        TIMER
+
+    }
+
+    /**
+     * how many bytes are read from the channel each time
+     */
+    public enum ReadStrategy {
+
+        // read to all the writable bytes of the read buf
+        FIXED,
+
+        // each channel predicts its read size by the recent reads, the chatty channels with small
+        // messages touch only the head of the read buf, the bulk channels grow to read the whole
+        // read buf, and by readv with the overflow buf if it is available
+        ADAPTIVE
+
+    }
+
     public interface HeartBeatLogger {
 
         void logPingFrom(Channel ch);
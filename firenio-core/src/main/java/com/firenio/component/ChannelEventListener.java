@@ -23,4 +23,12 @@ public interface ChannelEventListener extends EventListener {
 
     void channelOpened(Channel ch) throws Exception;
 
+    /**
+     * called in the event loop when the pending write bytes of the channel go
+     * above the high water mark or drop to the low water mark
+     *
+     * @see Channel#isWritable()
+     */
+    void channelWritabilityChanged(Channel ch);
+
 }
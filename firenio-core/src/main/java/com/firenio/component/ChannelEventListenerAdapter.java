@@ -23,4 +23,7 @@ public class ChannelEventListenerAdapter implements ChannelEventListener {
     @Override
     public void channelOpened(Channel ch) throws Exception {}
 
+    @Override
+    public void channelWritabilityChanged(Channel ch) {}
+
 }
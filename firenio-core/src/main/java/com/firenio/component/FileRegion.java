@@ -0,0 +1,148 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.firenio.component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+import com.firenio.Releasable;
+import com.firenio.common.Util;
+
+/**
+ * A region of a file which is written to the channel from the page cache,
+ * without copy into the heap or the pool. The epoll channel writes it by
+ * sendfile(2) and the java channel by {@link FileChannel#transferTo}. The
+ * file is opened when it is written and closed when released.
+ * <pre>
+ * ch.write(header);
+ * ch.writeAndFlush(new FileRegion(file));
+ * </pre>
+ *
+ * @author wangkai
+ */
+public final class FileRegion implements Releasable {
+
+    private final long        end;
+    private final File        file;
+    private       FileChannel channel;
+    private       int         fd = -1;
+    private       long        position;
+    private volatile boolean  released;
+
+    public FileRegion(File file) {
+        this(file, 0, file.length());
+    }
+
+    public FileRegion(File file, long position, long count) {
+        this.file = file;
+        this.position = position;
+        this.end = position + count;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public boolean hasRemaining() {
+        return position < end;
+    }
+
+    @Override
+    public boolean isReleased() {
+        return released;
+    }
+
+    private FileChannel open_channel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        }
+        return channel;
+    }
+
+    // read the region to dst, for the channels which can not write it without copy
+    int read(ByteBuffer dst) throws IOException {
+        int len = open_channel().read(dst, position);
+        if (len > 0) {
+            position += len;
+        }
+        return len;
+    }
+
+    @Override
+    public void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        if (fd != -1) {
+            Native.close(fd);
+            fd = -1;
+        }
+        Util.close(channel);
+        channel = null;
+    }
+
+    public long remaining() {
+        return end - position;
+    }
+
+    //1 complete, 0 keep write, -1 close
+    int sendfile(int out_fd) {
+        if (fd == -1) {
+            fd = Native.open(file.getPath(), Native.O_RDONLY, 0);
+            if (fd == -1) {
+                return -1;
+            }
+        }
+        long len = Native.sendfile(out_fd, fd, position, end - position);
+        if (len == -1 || (len == 0 && position >= file.length())) {
+            // the file is truncated
+            return -1;
+        }
+        position += len;
+        return position < end ? 0 : 1;
+    }
+
+    //1 complete, 0 keep write, -1 close
+    int transferTo(WritableByteChannel target) {
+        try {
+            FileChannel channel = open_channel();
+            long        len     = channel.transferTo(position, end - position, target);
+            if (len == 0 && position >= channel.size()) {
+                // the file is truncated
+                return -1;
+            }
+            position += len;
+            return position < end ? 0 : 1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FileRegion[" + file + ",pos=" + position + ",end=" + end + "]";
+    }
+
+}
@@ -22,7 +22,8 @@ import com.firenio.common.Util;
 
 public abstract class Frame {
 
-    private Object content;
+    private Object  content;
+    private boolean payload;
 
     public byte[] getArrayContent() {
         return (byte[]) content;
@@ -38,6 +39,21 @@ public abstract class Frame {
 
     public void setContent(Object content) {
         this.content = content;
+        this.payload = false;
+    }
+
+    /**
+     * set a content without the header space reserved by {@link Channel#allocate(int)},
+     * the codec which supports it chains the header before the payload by
+     * {@link com.firenio.buffer.CompositeByteBuf} instead of copy.
+     */
+    public void setPayload(ByteBuf payload) {
+        this.content = payload;
+        this.payload = true;
+    }
+
+    public boolean isPayload() {
+        return payload;
     }
 
     public String getFrameName() {
@@ -64,6 +80,7 @@ public abstract class Frame {
 
     public Frame reset() {
         this.content = null;
+        this.payload = false;
         return this;
     }
 
@@ -77,11 +94,13 @@ public abstract class Frame {
 
     public void setBytes(byte[] bytes, int off, int len, Channel ch) {
         this.content = ch.allocate(len);
+        this.payload = false;
         write(bytes, off, len);
     }
 
     public void setBytes(int header, byte[] bytes, int off, int len) {
         this.content = ByteBuf.buffer(header + len).skipWrite(header);
+        this.payload = false;
         write(bytes, off, len);
     }
 
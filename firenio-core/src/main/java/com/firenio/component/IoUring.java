@@ -0,0 +1,171 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.firenio.component;
+
+import com.firenio.common.Unsafe;
+
+/**
+ * The submission and completion queues of an io_uring, the sqes are written and
+ * the cqes are read from the mapped rings directly, and the ring is entered once
+ * for each loop of the event loop to submit the sqes and reap the cqes.
+ *
+ * @author wangkai
+ */
+final class IoUring {
+
+    static final int  EAGAIN                 = 11;
+    static final int  ECANCELED              = 125;
+    static final int  IORING_FEAT_EXT_ARG    = 1 << 8;
+    static final int  IORING_FEAT_NODROP     = 1 << 1;
+    static final byte IORING_OP_ACCEPT       = 13;
+    static final byte IORING_OP_ASYNC_CANCEL = 14;
+    static final byte IORING_OP_POLL_ADD     = 6;
+    static final byte IORING_OP_WRITEV       = 2;
+    static final int  SIZEOF_CQE             = 16;
+    static final int  SIZEOF_SQE             = 64;
+    static final int  SOCK_CLOEXEC           = 02000000;
+    static final int  SOCK_NONBLOCK          = 04000;
+
+    final int  cq_mask;
+    final long cq_head_address;
+    final long cq_tail_address;
+    final long cqes;
+    final int  fd;
+    final long info;
+    final int  sq_entries;
+    final long sq_head_address;
+    final int  sq_mask;
+    final long sq_tail_address;
+    final long sqes;
+    private int cq_local_head;
+    private int sq_local_tail;
+
+    IoUring(int entries) {
+        long info = Unsafe.allocate(Native.IO_URING_INFO * 8);
+        int  fd   = Native.io_uring_setup(entries, info);
+        if (fd == -1) {
+            Unsafe.free(info);
+            throw new RuntimeException(Native.err_str());
+        }
+        this.fd = fd;
+        this.info = info;
+        this.sq_head_address = Unsafe.getLong(info);
+        this.sq_tail_address = Unsafe.getLong(info + 8);
+        this.sq_mask = (int) Unsafe.getLong(info + 2 * 8);
+        this.sq_entries = (int) Unsafe.getLong(info + 3 * 8);
+        this.sqes = Unsafe.getLong(info + 5 * 8);
+        this.cq_head_address = Unsafe.getLong(info + 6 * 8);
+        this.cq_tail_address = Unsafe.getLong(info + 7 * 8);
+        this.cq_mask = (int) Unsafe.getLong(info + 8 * 8);
+        this.cqes = Unsafe.getLong(info + 10 * 8);
+        this.cq_local_head = Unsafe.getInt(cq_head_address);
+        this.sq_local_tail = Unsafe.getInt(sq_tail_address);
+        // the sqes are submitted in order, so the index array is never changed
+        long sq_array = Unsafe.getLong(info + 4 * 8);
+        for (int i = 0; i < sq_entries; i++) {
+            Unsafe.putInt(sq_array + i * 4, i);
+        }
+    }
+
+    void accept(int fd, long addr, long addr_len, long user_data) {
+        prep(IORING_OP_ACCEPT, fd, addr, 0, addr_len, SOCK_NONBLOCK | SOCK_CLOEXEC, user_data);
+    }
+
+    void cancel(long target, long user_data) {
+        prep(IORING_OP_ASYNC_CANCEL, -1, target, 0, 0, 0, user_data);
+    }
+
+    // the cqe is read from the ready cqes, index should be less than ready()
+    long cqe(int index) {
+        return cqes + (long) ((cq_local_head + index) & cq_mask) * SIZEOF_CQE;
+    }
+
+    static int cqe_res(long cqe) {
+        return Unsafe.getInt(cqe + 8);
+    }
+
+    static long cqe_user_data(long cqe) {
+        return Unsafe.getLong(cqe);
+    }
+
+    void close() {
+        Native.io_uring_exit(fd, info);
+        Unsafe.free(info);
+    }
+
+    // release the cqes to the kernel
+    void consume(int size) {
+        cq_local_head += size;
+        Unsafe.putIntOrdered(cq_head_address, cq_local_head);
+    }
+
+    /**
+     * submit the pending sqes and wait for min_complete cqes, the syscall is skipped if
+     * no sqe to submit and no cqe to wait
+     *
+     * @return the count of the ready cqes
+     */
+    int enter(int min_complete, long timeout) {
+        Unsafe.putIntOrdered(sq_tail_address, sq_local_tail);
+        int to_submit = sq_local_tail - Unsafe.getIntVolatile(sq_head_address);
+        if (to_submit > 0 || min_complete > 0) {
+            Native.io_uring_enter(fd, to_submit, min_complete, timeout);
+        }
+        return ready();
+    }
+
+    private long next_sqe() {
+        if (sq_local_tail - Unsafe.getIntVolatile(sq_head_address) == sq_entries) {
+            submit();
+            if (sq_local_tail - Unsafe.getIntVolatile(sq_head_address) == sq_entries) {
+                throw new RuntimeException("io_uring submission queue overflow");
+            }
+        }
+        long sqe = sqes + (long) (sq_local_tail & sq_mask) * SIZEOF_SQE;
+        sq_local_tail++;
+        Unsafe.setMemory(sqe, SIZEOF_SQE, (byte) 0);
+        return sqe;
+    }
+
+    void poll_add(int fd, int events, long user_data) {
+        prep(IORING_OP_POLL_ADD, fd, 0, 0, 0, events, user_data);
+    }
+
+    private void prep(byte op, int fd, long addr, int len, long off, int op_flags, long user_data) {
+        long sqe = next_sqe();
+        Unsafe.putByte(sqe, op);
+        Unsafe.putInt(sqe + 4, fd);
+        Unsafe.putLong(sqe + 8, off);
+        Unsafe.putLong(sqe + 16, addr);
+        Unsafe.putInt(sqe + 24, len);
+        Unsafe.putInt(sqe + 28, op_flags);
+        Unsafe.putLong(sqe + 32, user_data);
+    }
+
+    int ready() {
+        return Unsafe.getIntVolatile(cq_tail_address) - cq_local_head;
+    }
+
+    // submit the pending sqes without wait, the cancels are submitted before the fd is closed
+    void submit() {
+        enter(0, -1);
+    }
+
+    void writev(int fd, long iovec, int count, long user_data) {
+        prep(IORING_OP_WRITEV, fd, iovec, count, 0, 0, user_data);
+    }
+
+}
@@ -32,4 +32,9 @@ public class LoggerChannelOpenListener implements ChannelEventListener {
         logger.info("channel opened:{}", ch);
     }
 
+    @Override
+    public void channelWritabilityChanged(Channel ch) {
+        logger.debug("channel writable:{} {}", ch.isWritable(), ch);
+    }
+
 }
@@ -49,9 +49,20 @@ public class Native {
     public static final  int      EPOLL_OUT_ET    = EPOLL_OUT | EPOLL_ET;
     public static final  int      EPOLL_IN_OUT_ET = EPOLL_IN_ET | EPOLL_OUT_ET;
     public static final  String[] ERRORS;
+    // the entry of accept_batch: fd(4), pad(4), sockaddr_in6(32)
+    public static final  int      ACCEPT_ENTRY    = 40;
+    public static final  boolean  ACCEPT_BATCH_AVAILABLE;
     public static final  boolean  EPOLL_AVAILABLE;
+    // the length of the ring info filled by io_uring_setup, in longs
+    public static final  int      IO_URING_INFO   = 17;
+    public static final  boolean  IO_URING_AVAILABLE;
+    public static final  boolean  READV_AVAILABLE;
     public static final  int      SIZEOF_EPOLL_EVENT;
     public static final  int      SIZEOF_SOCK_ADDR_IN;
+    public static final  boolean  REUSE_PORT_AVAILABLE;
+    public static final  boolean  SCHED_AFFINITY_AVAILABLE;
+    public static final  boolean  SENDFILE_AVAILABLE;
+    public static final  boolean  SPLICE_AVAILABLE;
     private static final Logger   logger          = LoggerFactory.getLogger(Native.class);
 
     static {
@@ -65,7 +76,21 @@ public class Native {
             }
             SIZEOF_EPOLL_EVENT = size_of_epoll_event();
             SIZEOF_SOCK_ADDR_IN = size_of_sockaddr_in();
+            SENDFILE_AVAILABLE = sendfile_available();
+            SPLICE_AVAILABLE = splice_available();
+            REUSE_PORT_AVAILABLE = reuse_port_available();
+            ACCEPT_BATCH_AVAILABLE = accept_batch_available();
+            IO_URING_AVAILABLE = Options.isEnableIoUring() && io_uring_available();
+            SCHED_AFFINITY_AVAILABLE = sched_affinity_available();
+            READV_AVAILABLE = readv_available();
         } else {
+            ACCEPT_BATCH_AVAILABLE = false;
+            IO_URING_AVAILABLE = false;
+            READV_AVAILABLE = false;
+            REUSE_PORT_AVAILABLE = false;
+            SCHED_AFFINITY_AVAILABLE = false;
+            SENDFILE_AVAILABLE = false;
+            SPLICE_AVAILABLE = false;
             SIZEOF_EPOLL_EVENT = -1;
             SIZEOF_SOCK_ADDR_IN = -1;
             ERRORS = null;
@@ -109,6 +134,85 @@ public class Native {
         return false;
     }
 
+    // the native.o built before sendfile0 is added does not have it
+    private static boolean sendfile_available() {
+        try {
+            sendfile0(-1, -1, 0, 0);
+            return true;
+        } catch (UnsatisfiedLinkError e) {
+            return false;
+        }
+    }
+
+    private static boolean accept_batch_available() {
+        try {
+            accept_batch0(-1, 0, 0);
+            return true;
+        } catch (UnsatisfiedLinkError e) {
+            return false;
+        }
+    }
+
+    private static boolean readv_available() {
+        try {
+            readv0(-1, 0, 0);
+            return true;
+        } catch (UnsatisfiedLinkError e) {
+            return false;
+        }
+    }
+
+    // bind an ephemeral port, it fails if the kernel has no SO_REUSEPORT
+    private static boolean reuse_port_available() {
+        try {
+            int fd = bind_reuse_port0("0.0.0.0", 0, 1);
+            if (fd == -1) {
+                return false;
+            }
+            close0(fd);
+            return true;
+        } catch (UnsatisfiedLinkError e) {
+            return false;
+        }
+    }
+
+    // the event loop waits with a timeout by IORING_ENTER_EXT_ARG, since linux 5.11
+    private static boolean io_uring_available() {
+        long info = Unsafe.allocate(IO_URING_INFO * 8);
+        try {
+            int fd = io_uring_setup0(2, info);
+            if (fd == -1) {
+                return false;
+            }
+            long features = Unsafe.getLong(info + 16 * 8);
+            io_uring_exit0(fd, info);
+            return (features & IoUring.IORING_FEAT_EXT_ARG) != 0 && (features & IoUring.IORING_FEAT_NODROP) != 0;
+        } catch (UnsatisfiedLinkError e) {
+            return false;
+        } finally {
+            Unsafe.free(info);
+        }
+    }
+
+    // the invalid cpu is rejected before the syscall, so the loading thread is not pinned
+    private static boolean sched_affinity_available() {
+        try {
+            sched_setaffinity0(-1);
+            return true;
+        } catch (UnsatisfiedLinkError e) {
+            return false;
+        }
+    }
+
+    private static boolean splice_available() {
+        try {
+            splice0(-1, -1, 0);
+            return true;
+        } catch (UnsatisfiedLinkError e) {
+            return false;
+        }
+    }
+
     private static void load_native(String name) throws IOException {
         byte[] native_data = FileUtil.readBytesByCls(name, Native.class.getClassLoader());
         File   native_tmp  = File.createTempFile(name, ".o");
@@ -125,10 +229,27 @@ public class Native {
         return print_exception(accept0(epfd, listen_fd, address));
     }
 
+    /**
+     * accept at most max channels by accept4, the entries of the accepted
+     * channels are stored at address, see {@link #ACCEPT_ENTRY}
+     *
+     * @return the count of the accepted channels, -1 if failed
+     */
+    public static int accept_batch(int listen_fd, long address, int max) {
+        return print_exception(accept_batch0(listen_fd, address, max));
+    }
+
     public static int bind(String host, int port, int backlog) {
         return bind0(host, port, backlog);
     }
 
+    /**
+     * bind with SO_REUSEPORT, so the sockets bound to the same port share the accepts
+     */
+    public static int bind_reuse_port(String host, int port, int backlog) {
+        return bind_reuse_port0(host, port, backlog);
+    }
+
     public static int close(int fd) {
         if (fd == -1) {
             return -1;
@@ -247,6 +368,57 @@ public class Native {
         return Short.reverseBytes((short) print_exception(get_port0(fd))) & 0xffff;
     }
 
+    public static long sendfile(int out_fd, int in_fd, long offset, long count) {
+        return print_exception(sendfile0(out_fd, in_fd, offset, count));
+    }
+
+    public static int splice(int fd_in, int fd_out, int len) {
+        return print_exception(splice0(fd_in, fd_out, len));
+    }
+
+    /**
+     * @return the read fd in the high 32 bits and the write fd in the low 32 bits, -1 if failed
+     */
+    public static long pipe() {
+        return print_exception(pipe0());
+    }
+
+    /**
+     * create an io_uring and map its rings, the addresses of the rings are stored
+     * at info, see {@link IoUring}
+     *
+     * @return the fd of the ring, -1 if failed
+     */
+    public static int io_uring_setup(int entries, long info) {
+        return print_exception(io_uring_setup0(entries, info));
+    }
+
+    /**
+     * submit the sqes and wait for min_complete cqes at most timeout ms, the timeout
+     * is ignored if min_complete is 0, and it waits without timeout if timeout is -1
+     */
+    public static int io_uring_enter(int fd, int to_submit, int min_complete, long timeout) {
+        return print_exception(io_uring_enter0(fd, to_submit, min_complete, timeout));
+    }
+
+    public static int io_uring_exit(int fd, long info) {
+        return print_exception(io_uring_exit0(fd, info));
+    }
+
+    /**
+     * pin the calling thread to the cpu
+     */
+    public static int sched_setaffinity(int cpu) {
+        return print_exception(sched_setaffinity0(cpu));
+    }
+
+    /**
+     * scatter read to the iovec, returns 0 if no data is available
+     */
+    public static long readv(int fd, long iovec, int count) {
+        return print_exception(readv0(fd, iovec, count));
+    }
+
     public static long writev(int fd, long iovec, int count) {
         return print_exception(writev0(fd, iovec, count));
     }
@@ -306,8 +478,12 @@ public class Native {
 
     private static native int accept0(int epfd, int listen_fd, long address);
 
+    private static native int accept_batch0(int listen_fd, long address, int max);
+
     private static native int bind0(String host, int port, int backlog);
 
+    private static native int bind_reuse_port0(String host, int port, int backlog);
+
     private static native int close0(int fd);
 
     private static native int connect0(String host, int port);
@@ -334,8 +510,24 @@ public class Native {
 
     private static native int write0(int fd, long address, int len);
 
+    private static native long readv0(int fd, long iovec, int count);
+
     private static native int writev0(int fd, long iovec, int count);
 
+    private static native long sendfile0(int out_fd, int in_fd, long offset, long count);
+
+    private static native int splice0(int fd_in, int fd_out, int len);
+
+    private static native long pipe0();
+
+    private static native int io_uring_setup0(int entries, long info);
+
+    private static native int io_uring_enter0(int fd, int to_submit, int min_complete, long timeout);
+
+    private static native int io_uring_exit0(int fd, long info);
+
+    private static native int sched_setaffinity0(int cpu);
+
     // direct io----------------------------------------------------------------------------------------
 
     private static native int open0(String path, int op, int pem);
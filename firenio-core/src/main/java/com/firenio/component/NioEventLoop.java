@@ -34,12 +34,11 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.firenio.Develop;
 import com.firenio.Options;
+import com.firenio.buffer.ArenaByteBufAllocator;
 import com.firenio.buffer.ByteBuf;
 import com.firenio.buffer.ByteBufAllocator;
 import com.firenio.collection.ArrayListStack;
@@ -47,13 +46,18 @@ import com.firenio.collection.Attributes;
 import com.firenio.collection.DelayedQueue;
 import com.firenio.collection.IntMap;
 import com.firenio.collection.LinkedBQStack;
+import com.firenio.collection.MpscUnboundedQueue;
 import com.firenio.collection.Stack;
+import com.firenio.collection.TimingWheel;
 import com.firenio.common.ByteUtil;
 import com.firenio.common.Unsafe;
 import com.firenio.common.Util;
 import com.firenio.component.Channel.EpollChannel;
+import com.firenio.component.Channel.IoUringChannel;
 import com.firenio.component.Channel.JavaChannel;
+import com.firenio.component.ChannelContext.IdleStrategy;
 import com.firenio.component.ChannelConnector.EpollConnectorUnsafe;
+import com.firenio.component.ChannelConnector.IoUringConnectorUnsafe;
 import com.firenio.component.ChannelConnector.JavaConnectorUnsafe;
 import com.firenio.concurrent.EventLoop;
 import com.firenio.log.Logger;
@@ -72,20 +76,29 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
     static final IOException OVER_CH_SIZE_LIMIT = OVER_CH_SIZE_LIMIT();
     static final boolean     USE_HAS_TASK       = true;
 
-    final    ByteBufAllocator        alloc;
-    final    Map<Object, Object>     attributes    = new HashMap<>();
-    final    ByteBuf                 buf;
-    final    IntMap<Channel>         channels      = new IntMap<>(4096);
-    final    int                     ch_size_limit;
-    final    DelayedQueue            delayed_queue = new DelayedQueue();
-    final    BlockingQueue<Runnable> events        = new LinkedBlockingQueue<>();
-    final    NioEventLoopGroup       group;
-    final    int                     index;
-    final    AtomicInteger           selecting     = new AtomicInteger();
-    final    boolean                 sharable;
-    final    long                    buf_address;
-    final    boolean                 acceptor;
-    volatile boolean                 has_task      = false;
+    final    ByteBufAllocator             alloc;
+    final    Map<Object, Object>          attributes    = new HashMap<>();
+    final    ByteBuf                      buf;
+    final    IntMap<Channel>              channels      = new IntMap<>(4096);
+    final    int                          ch_size_limit;
+    // the cpu this event loop is bound to, -1 if not bound
+    final    int                          cpu;
+    final    Runnable[]                   event_batch   = new Runnable[64];
+    final    MpscUnboundedQueue<Runnable> events        = new MpscUnboundedQueue<>();
+    final    NioEventLoopGroup            group;
+    final    int                          index;
+    final    AtomicInteger                selecting     = new AtomicInteger();
+    final    boolean                      sharable;
+    final    TimingWheel                  timing_wheel  = new TimingWheel();
+    final    long                         buf_address;
+    final    boolean                      acceptor;
+    // the times of select_now before block, -1 never block, see WaitStrategy
+    final    int                          wait_spins;
+    Channel[]                             flush_chs     = new Channel[64];
+    int                                   flush_size;
+    volatile boolean                      has_task      = false;
+    // the last events are run and the loop thread is exited
+    volatile boolean                      terminated    = false;
 
     NioEventLoop(NioEventLoopGroup group, int index, String threadName) {
         super(threadName);
@@ -95,6 +108,9 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
         this.acceptor = group.isAcceptor();
         this.alloc = group.getNextByteBufAllocator(index);
         this.ch_size_limit = group.getChannelSizeLimit();
+        this.wait_spins = wait_spins(group);
+        int[] cpus = group.getCpuAffinity();
+        this.cpu = cpus == null || cpus.length == 0 ? -1 : cpus[index % cpus.length];
         int channelReadBuffer = group.getChannelReadBuffer();
         if (channelReadBuffer > 0) {
             this.buf = ByteBuf.buffer(channelReadBuffer);
@@ -105,6 +121,25 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
         }
     }
 
+    private static int wait_spins(NioEventLoopGroup group) {
+        switch (group.getWaitStrategy()) {
+            case BUSY_POLL:
+                return -1;
+            case SPIN_THEN_BLOCK:
+                return Math.max(group.getWaitSpins(), 0);
+            default:
+                return 0;
+        }
+    }
+
+    private void bind_cpu(int cpu) {
+        if (!Native.SCHED_AFFINITY_AVAILABLE) {
+            logger.warn("cpu affinity not available, event loop {} is not bound to cpu {}", index, cpu);
+        } else if (Native.sched_setaffinity(cpu) == -1) {
+            logger.error("event loop {} bind to cpu {} failed: {}", index, cpu, Native.err_str());
+        }
+    }
+
     private static void channel_idle(ChannelIdleListener l, Channel ch, long lastIdleTime, long currentTime) {
         try {
             l.channelIdled(ch, lastIdleTime, currentTime);
@@ -130,6 +165,9 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
             Channel                   ch      = channels.value();
             ChannelContext            context = ch.getContext();
             List<ChannelIdleListener> ls      = context.getChannelIdleEventListeners();
+            if (context.getIdleStrategy() == IdleStrategy.TIMER) {
+                continue;
+            }
             if (ls.size() == 1) {
                 channel_idle(ls.get(0), ch, last_idle_time, current_time);
             } else {
@@ -144,6 +182,10 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
     static void register_ch(ChannelContext ctx, int fd, IntMap<Channel> channels, Channel ch) {
         channels.put(fd, ch);
         ctx.getChannelManager().putChannel(ch);
+        if (ctx.getIdleStrategy() == IdleStrategy.TIMER && !ctx.getChannelIdleEventListeners().isEmpty()) {
+            // the last access time of the new channel is its creation time plus the idle time
+            schedule_idle(ch, ch.getLastAccessTime() + ch.eventLoop.getGroup().getIdleTime() - Util.now());
+        }
         if (ch.isEnableSsl()) {
             // fire open event later
             if (ctx.getSslContext().isClient()) {
@@ -156,6 +198,18 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
         }
     }
 
+    static void schedule_idle(Channel ch, long delay) {
+        ChannelIdleTask task = (ChannelIdleTask) ch.idle_task;
+        if (task == null) {
+            task = new ChannelIdleTask(ch, delay);
+            ch.idle_task = task;
+        } else {
+            // the task is polled out of the wheel, it is offered again with the new deadline
+            task.resetDelay(delay);
+        }
+        ch.eventLoop.timing_wheel.offer(task);
+    }
+
     private static Logger NEW_LOGGER() {
         return LoggerFactory.getLogger(NioEventLoop.class);
     }
@@ -194,7 +248,10 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
         if (sharable) {
             channel_idle_share(channels, last_idle_time, current_time);
         } else {
-            channel_idle(group.getContext(), channels, last_idle_time, current_time);
+            ChannelContext context = group.getContext();
+            if (context.getIdleStrategy() == IdleStrategy.SCAN) {
+                channel_idle(context, channels, last_idle_time, current_time);
+            }
         }
     }
 
@@ -257,8 +314,8 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
     }
 
     @Override
-    public BlockingQueue<Runnable> getJobs() {
-        return events;
+    public int getPendingSize() {
+        return events.size();
     }
 
     protected ByteBuf getReadBuf() {
@@ -282,17 +339,65 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
         channels.remove(id);
     }
 
-    private void run_events(BlockingQueue<Runnable> events) {
+    // the channel is flushed in this event loop, it is written after the ready events or the tasks
+    void flush(Channel ch) {
+        if (flush_size == flush_chs.length) {
+            flush_chs = Arrays.copyOf(flush_chs, flush_size << 1);
+        }
+        flush_chs[flush_size++] = ch;
+    }
+
+    private void run_flushes() {
+        // the channels may be appended when the channels are written
+        for (int i = 0; i < flush_size; i++) {
+            Channel ch = flush_chs[i];
+            flush_chs[i] = null;
+            try {
+                ch.run();
+            } catch (Throwable e) {
+                logger.error(e.getMessage(), e);
+            }
+        }
+        flush_size = 0;
+    }
+
+    private void run_events(MpscUnboundedQueue<Runnable> events) {
         if (!events.isEmpty()) {
+            final Runnable[] batch = this.event_batch;
+            for (; ; ) {
+                int size = events.drain(batch);
+                if (size == 0) {
+                    break;
+                }
+                for (int i = 0; i < size; i++) {
+                    Runnable event = batch[i];
+                    batch[i] = null;
+                    try {
+                        event.run();
+                    } catch (Throwable e) {
+                        logger.error(e.getMessage(), e);
+                    }
+                }
+            }
+        }
+    }
+
+    // close the events submitted after the last events are run, it may be called by the submit threads
+    private void close_events() {
+        MpscUnboundedQueue<Runnable> events = this.events;
+        synchronized (events) {
             for (; ; ) {
                 Runnable event = events.poll();
                 if (event == null) {
-                    break;
+                    if (events.isEmpty()) {
+                        break;
+                    }
+                    // the event is claimed but not yet published
+                    Thread.yield();
+                    continue;
                 }
-                try {
-                    event.run();
-                } catch (Throwable e) {
-                    logger.error(e.getMessage(), e);
+                if (event instanceof Closeable) {
+                    Util.close((Closeable) event);
                 }
             }
         }
@@ -300,9 +405,12 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
 
     private void shutdown() {
         run_events(this.events);
-        if (!delayed_queue.isEmpty()) {
+        run_flushes();
+        // the idle tasks of the channels are canceled before the delayed tasks are run
+        close_channels();
+        if (!timing_wheel.isEmpty()) {
             for (; ; ) {
-                DelayedQueue.DelayTask t = delayed_queue.poll();
+                DelayedQueue.DelayTask t = timing_wheel.poll();
                 if (t == null) {
                     break;
                 }
@@ -316,9 +424,13 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
                 }
             }
         }
-        close_channels();
         shutdown0();
         Util.release(buf);
+        if (alloc instanceof ArenaByteBufAllocator) {
+            ((ArenaByteBufAllocator) alloc).unbindThread();
+        }
+        terminated = true;
+        close_events();
     }
 
     abstract void shutdown0();
@@ -333,46 +445,51 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
         }
     }
 
-    private long run_delayed_events(DelayedQueue dq, long now, long nextIdle, long selectTime) {
+    private long run_delayed_events(TimingWheel tw, long now, long nextIdle, long selectTime) {
         for (; ; ) {
-            DelayedQueue.DelayTask t = dq.peek();
+            DelayedQueue.DelayTask t = tw.poll(now);
             if (t == null) {
                 break;
             }
+            // canceled out of this event loop
             if (t.isCanceled()) {
-                dq.poll();
-                continue;
-            }
-            long delay = t.getDelay();
-            if (now >= delay) {
-                dq.poll();
-                try {
-                    t.done();
-                    t.run();
-                } catch (Throwable e) {
-                    logger.error(e.getMessage(), e);
-                }
                 continue;
             }
-            if (delay < nextIdle) {
-                return delay - now;
-            } else {
-                return selectTime;
+            try {
+                t.done();
+                t.run();
+            } catch (Throwable e) {
+                logger.error(e.getMessage(), e);
             }
         }
-        return selectTime;
+        long next = tw.nextTick();
+        if (next != -1 && next < nextIdle) {
+            // the tick after now, it is at least 1ms later, select(0) blocks the java selector
+            return Math.max(next - now, 1);
+        } else {
+            return selectTime;
+        }
     }
 
     @Override
     public void run() {
         // does it useful to set variables locally ?
-        final long                    idle           = group.getIdleTime();
-        final AtomicInteger           selecting      = this.selecting;
-        final BlockingQueue<Runnable> events         = this.events;
-        final DelayedQueue            dq             = this.delayed_queue;
-        long                          next_idle_time = 0;
-        long                          last_idle_time = 0;
-        long                          select_time    = idle;
+        final long                         idle           = group.getIdleTime();
+        final AtomicInteger                selecting      = this.selecting;
+        final MpscUnboundedQueue<Runnable> events         = this.events;
+        final TimingWheel                  tw             = this.timing_wheel;
+        long                               next_idle_time = 0;
+        long                               last_idle_time = 0;
+        final int                          wait_spins     = this.wait_spins;
+        long                               select_time    = idle;
+        int                                spins          = 0;
+        if (alloc instanceof ArenaByteBufAllocator) {
+            ((ArenaByteBufAllocator) alloc).bindThread(Thread.currentThread());
+        }
+        tw.bindThread(Thread.currentThread());
+        if (cpu != -1) {
+            bind_cpu(cpu);
+        }
         for (; ; ) {
             // when this event loop is going to shutdown,we do not handle the last events
             // because the method "submit" will return false, and if the task is closable,
@@ -388,24 +505,38 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
                 // I am not sure events.size if a better way to instead of has_task?
                 // example method selector.select(...) may throw an io exception
                 // and if we need to try with the method to do something when exception caught?
+                // the spinning loop never sets "selecting", so wakeup() does not write the event fd
                 int selected;
-                if (!has_task() && selecting.compareAndSet(0, 1)) {
+                if (wait_spins == -1 || spins < wait_spins) {
+                    selected = select_now();
+                    if (selected > 0 || has_task()) {
+                        spins = 0;
+                    } else {
+                        spins++;
+                    }
+                } else if (!has_task() && selecting.compareAndSet(0, 1)) {
                     if (has_task()) {
                         selected = select_now();
                     } else {
                         selected = select(select_time);
                     }
                     selecting.set(0);
+                    spins = 0;
                 } else {
                     selected = select_now();
                 }
                 clear_has_task();
                 if (selected > 0) {
                     accept(selected);
+                    // write the channels flushed by the ready events once, after all of them are read
+                    run_flushes();
                 }
                 long now = Util.now();
                 if (now >= next_idle_time) {
                     channel_idle(last_idle_time, now);
+                    if (alloc instanceof ArenaByteBufAllocator) {
+                        ((ArenaByteBufAllocator) alloc).trim();
+                    }
                     last_idle_time = now;
                     next_idle_time = now + idle;
                     select_time = idle;
@@ -413,9 +544,10 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
                     select_time = next_idle_time - now;
                 }
                 run_events(events);
-                if (!dq.isEmpty()) {
-                    select_time = run_delayed_events(dq, now, next_idle_time, select_time);
+                if (!tw.isEmpty()) {
+                    select_time = run_delayed_events(tw, now, next_idle_time, select_time);
                 }
+                run_flushes();
             } catch (Throwable e) {
                 logger.error(e);
             }
@@ -424,13 +556,13 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
 
     public boolean schedule(final DelayedQueue.DelayTask task) {
         if (inEventLoop()) {
-            return delayed_queue.offer(task);
+            return timing_wheel.offer(task);
         } else {
             return submit(new Runnable() {
 
                 @Override
                 public void run() {
-                    delayed_queue.offer(task);
+                    timing_wheel.offer(task);
                 }
             });
         }
@@ -441,16 +573,19 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
         this.attributes.put(key, value);
     }
 
+    @Override
     public boolean submit(Runnable event) {
-        if (super.submit(event)) {
-            wakeup();
-            return true;
-        } else {
-            if (event instanceof Closeable) {
-                Util.close((Closeable) event);
-            }
+        // the event can not be removed from the queue, it is not offered when the loop is stopping
+        if (terminated || !isRunning()) {
+            return false;
+        }
+        events.offer(event);
+        if (terminated) {
+            close_events();
             return false;
         }
+        wakeup();
+        return true;
     }
 
     // FIXME 会不会出现这种情况，数据已经接收到本地，但是还没有被EventLoop处理完
@@ -477,6 +612,8 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
 
     abstract void wakeup0();
 
+    // register the channel accepted by the acceptor event loop, see AcceptBatch
+    abstract void register_accepted(ChannelContext ctx, int fd, long ra_high, long ra_low, int lp, int rp);
 
     static final class JavaEventLoop extends NioEventLoop {
 
@@ -744,6 +881,12 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
             }
         }
 
+        // the java channels are accepted by the selector, no fd is handed over by an AcceptBatch
+        @Override
+        void register_accepted(ChannelContext ctx, int fd, long ra_high, long ra_low, int lp, int rp) {
+            throw new IllegalStateException("fd accepted by the native acceptor: " + fd);
+        }
+
         @Override
         void wakeup0() {
             selector.wakeup();
@@ -809,11 +952,18 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
 
         final IntMap<ChannelContext> ctxs    = new IntMap<>(256);
         final int                    ep_size = 1024;
+        final int                    accept_batch;
         final int                    epfd;
         final int                    event_fd;
         final long                   data;
         final long                   ep_events;
         final long                   iovec;
+        // the second read buf filled by readv after the read buf, null if readv is not available
+        final ByteBuf                overflow_buf;
+        // the two iovec entries of readv
+        final long                   read_iovec;
+        // the read and write fd of the pipe used by splice, created when first used
+        private long                 pipe = -1;
 
         public EpollEventLoop(NioEventLoopGroup group, int index, String threadName) {
             super(group, index, threadName);
@@ -821,31 +971,50 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
             this.event_fd = Native.new_event_fd();
             this.epfd = Native.epoll_create(ep_size);
             this.ep_events = Native.new_epoll_event_array(ep_size);
-            this.data = Unsafe.allocate(256);
+            this.accept_batch = Math.max(1, group.getAcceptBatch());
+            this.data = Unsafe.allocate(accept_batch * Native.ACCEPT_ENTRY);
             this.iovec = Unsafe.allocate(iovec_len * 16);
+            if (buf != null && Native.READV_AVAILABLE) {
+                this.overflow_buf = ByteBuf.buffer(buf.capacity());
+                this.read_iovec = Unsafe.allocate(2 * 16);
+            } else {
+                this.overflow_buf = null;
+                this.read_iovec = 0;
+            }
             int res = Native.epoll_add(epfd, event_fd, Native.EPOLL_IN_ET);
             if (res == -1) {
                 throw new RuntimeException(Native.err_str());
             }
         }
 
-        private static String decode_IPv4(long addr) {
+        // high and low are the big endian bytes of the ipv6 address
+        static String decode_addr(long high, long low) {
+            if (high == 0 && (low >>> 32) == 0xffff) {
+                return decode_IPv4((int) low);
+            } else {
+                return decode_IPv6(high, low);
+            }
+        }
+
+        private static String decode_IPv4(int addr) {
             StringBuilder s = FastThreadLocal.get().getStringBuilder();
-            s.append(ByteUtil.getNumString(Unsafe.getByte(addr + 0)));
+            s.append(ByteUtil.getNumString((byte) (addr >>> 24)));
             s.append('.');
-            s.append(ByteUtil.getNumString(Unsafe.getByte(addr + 1)));
+            s.append(ByteUtil.getNumString((byte) (addr >>> 16)));
             s.append('.');
-            s.append(ByteUtil.getNumString(Unsafe.getByte(addr + 2)));
+            s.append(ByteUtil.getNumString((byte) (addr >>> 8)));
             s.append('.');
-            s.append(ByteUtil.getNumString(Unsafe.getByte(addr + 3)));
+            s.append(ByteUtil.getNumString((byte) addr));
             return s.toString();
         }
 
-        private static String decode_IPv6(long addr) {
+        private static String decode_IPv6(long high, long low) {
             StringBuilder s = FastThreadLocal.get().getStringBuilder();
             for (int i = 0; i < 8; i++) {
-                byte b1 = Unsafe.getByte(addr + (i << 1));
-                byte b2 = Unsafe.getByte(addr + (i << 1) + 1);
+                long v  = i < 4 ? high : low;
+                int  sh = 48 - ((i & 3) << 4);
+                byte b1 = (byte) (v >>> (sh + 8));
+                byte b2 = (byte) (v >>> sh);
                 if (b1 == 0 && b2 == 0) {
                     s.append('0');
                     s.append(':');
@@ -885,37 +1054,56 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
             }
         }
 
+        private static long get_addr(long addr) {
+            long v = Unsafe.getLong(addr);
+            return Unsafe.isLittleOrder() ? Long.reverseBytes(v) : v;
+        }
+
+        // the entries are: fd(4), pad(4), sockaddr_in6, the address is decoded when it is used
         private void accept(long data, int epfd, int fd) {
-            final ChannelAcceptor ctx       = (ChannelAcceptor) ctxs.get(fd);
-            final int             listen_fd = ((ChannelAcceptor.EpollAcceptorUnsafe) ctx.getUnsafe()).listen_fd;
-            final int             cfd       = Native.accept(epfd, listen_fd, data);
-            if (cfd == -1) {
+            final ChannelAcceptor ctx = (ChannelAcceptor) ctxs.get(fd);
+            int                   size;
+            if (Native.ACCEPT_BATCH_AVAILABLE) {
+                size = Native.accept_batch(fd, data, accept_batch);
+                if (size < 1) {
+                    return;
+                }
+            } else {
+                int cfd = Native.accept(epfd, fd, data + 8);
+                if (cfd == -1) {
+                    return;
+                }
+                Unsafe.putInt(data, cfd);
+                size = 1;
+            }
+            final int lp = ctx.getPort();
+            if (!acceptor) {
+                // the listen socket is bound with SO_REUSEPORT by this event loop
+                for (int i = 0; i < size; i++) {
+                    long p  = data + i * Native.ACCEPT_ENTRY;
+                    int  rp = ((Unsafe.getByte(p + 10) & 0xff) << 8) | (Unsafe.getByte(p + 11) & 0xff);
+                    register_accepted(ctx, Unsafe.getInt(p), get_addr(p + 16), get_addr(p + 24), lp, rp);
+                }
                 return;
             }
-            final NioEventLoopGroup group    = ctx.getProcessorGroup();
-            final NioEventLoop      targetEL = group.getNext();
-            //10, 0, -7, -30, 0, 0, 0, 0, -2, -128, 0, 0, 0, 0, 0, 0, 80, 1, -107, 55, -55, 36, -124, -125, 2, 0, 0, 0,
-            //10, 0, -4,  47, 0, 0, 0, 0,  0,       0, 0, 0, 0, 0, 0, 0,  0,  0,     -1, -1, -64, -88, -123,     1, 0, 0, 0, 0,
-            int rp = (Unsafe.getByte(data + 2) & 0xff) << 8;
-            rp |= (Unsafe.getByte(data + 3) & 0xff);
-            String ra;
-            if (Unsafe.getShort(data + 18) == -1 && Unsafe.getByte(data + 24) == 0) {
-                //IPv4
-                ra = decode_IPv4(data + 20);
-            } else {
-                //IPv6
-                ra = decode_IPv6(data + 8);
+            final NioEventLoopGroup group   = ctx.getProcessorGroup();
+            final AcceptBatch[]     batches = new AcceptBatch[group.getEventLoopSize()];
+            for (int i = 0; i < size; i++) {
+                long         p        = data + i * Native.ACCEPT_ENTRY;
+                int          rp       = ((Unsafe.getByte(p + 10) & 0xff) << 8) | (Unsafe.getByte(p + 11) & 0xff);
+                NioEventLoop targetEL = group.getNext();
+                AcceptBatch  batch    = batches[targetEL.getIndex()];
+                if (batch == null) {
+                    batch = new AcceptBatch(targetEL, ctx, size);
+                    batches[targetEL.getIndex()] = batch;
+                }
+                batch.add(Unsafe.getInt(p), get_addr(p + 16), get_addr(p + 24), rp);
             }
-            final int    _lp = ctx.getPort();
-            final int    _rp = rp;
-            final String _ra = ra;
-            targetEL.submit(new Runnable() {
-
-                @Override
-                public void run() {
-                    register_channel(targetEL, ctx, cfd, _ra, _lp, _rp, true);
+            for (AcceptBatch batch : batches) {
+                if (batch != null && !batch.el.submit(batch)) {
+                    batch.close();
                 }
-            });
+            }
         }
 
         private void accept(int fd, int e) {
@@ -964,6 +1152,10 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
         }
 
         private void accept_connect(int fd, int e) {
+            if (ctxs.get(fd) instanceof ChannelAcceptor) {
+                accept(data, epfd, fd);
+                return;
+            }
             ChannelConnector ctx = (ChannelConnector) ctxs.remove(fd);
             if ((e & Native.close_event()) != 0 || !Native.finish_connect(fd)) {
                 ctx.channelEstablish(null, NOT_FINISH_CONNECT);
@@ -981,22 +1173,50 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
             return iovec;
         }
 
+        long getPipe() {
+            if (pipe == -1) {
+                pipe = Native.pipe();
+            }
+            return pipe;
+        }
+
         @Override
         public void shutdown0() {
             Unsafe.free(iovec);
+            if (overflow_buf != null) {
+                overflow_buf.release();
+                Unsafe.free(read_iovec);
+            }
             Unsafe.free(data);
             Unsafe.free(ep_events);
             Native.epoll_del(epfd, event_fd);
             Native.close(event_fd);
             Native.close(epfd);
+            if (pipe != -1) {
+                Native.close((int) (pipe >>> 32));
+                Native.close((int) pipe);
+            }
+        }
+
+        @Override
+        void register_accepted(ChannelContext ctx, int fd, long ra_high, long ra_low, int lp, int rp) {
+            if (register_channel0(this, ctx, fd, true)) {
+                register_ch(ctx, fd, channels, new EpollChannel(this, ctx, epfd, fd, ra_high, ra_low, lp, rp));
+            }
         }
 
         private void register_channel(NioEventLoop el, ChannelContext ctx, int fd, String ra, int lp, int rp, boolean add) {
+            if (register_channel0(el, ctx, fd, add)) {
+                register_ch(ctx, fd, el.channels, new EpollChannel(el, ctx, ((EpollEventLoop) el).epfd, fd, ra, lp, rp));
+            }
+        }
+
+        private boolean register_channel0(NioEventLoop el, ChannelContext ctx, int fd, boolean add) {
             IntMap<Channel> channels = el.channels;
             if (channels.size() >= ch_size_limit) {
                 logger.error(OVER_CH_SIZE_LIMIT.getMessage(), OVER_CH_SIZE_LIMIT);
                 ctx.channelEstablish(null, OVER_CH_SIZE_LIMIT);
-                return;
+                return false;
             }
             int epfd = ((EpollEventLoop) el).epfd;
             int res;
@@ -1011,7 +1231,7 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
                 } else {
                     ctx.channelEstablish(null, new IOException(Native.err_str()));
                 }
-                return;
+                return false;
             }
             Channel old = channels.get(fd);
             if (old != null) {
@@ -1020,8 +1240,7 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
                 }
                 old.close();
             }
-            Channel ch = new EpollChannel(el, ctx, epfd, fd, ra, lp, rp);
-            register_ch(ctx, fd, channels, ch);
+            return true;
         }
 
         @Override
@@ -1041,4 +1260,377 @@ public abstract class NioEventLoop extends EventLoop implements Attributes {
 
     }
 
+    static final class IoUringEventLoop extends NioEventLoop {
+
+        // the op is in the high 32 bits of the user data, the id is in the low 32 bits
+        static final int OP_ACCEPT     = 1;
+        static final int OP_CANCEL     = 2;
+        static final int OP_CONNECT    = 3;
+        static final int OP_READ       = 4;
+        static final int OP_WAKEUP     = 5;
+        static final int OP_WRITE      = 6;
+        static final int OP_WRITE_POLL = 7;
+        static final int RING_ENTRIES  = 4096;
+        // the length of sockaddr_in6
+        static final int SOCK_ADDR_LEN = 28;
+
+        private static final Logger logger = NEW_LOGGER();
+
+        final int                    accept_batch;
+        final IntMap<ChannelContext> ctxs     = new IntMap<>(256);
+        final long                   data;
+        final int                    event_fd;
+        final IoUring                ring;
+        final IntMap<IoUringChannel> ring_chs = new IntMap<>(4096);
+        private ChannelAcceptor      listen_ctx;
+        private int                  listen_fd = -1;
+        // the accepts of the old listen socket are ignored by the generation
+        private int                  listen_gen;
+        private int                  next_id;
+
+        public IoUringEventLoop(NioEventLoopGroup group, int index, String threadName) {
+            super(group, index, threadName);
+            this.ring = new IoUring(RING_ENTRIES);
+            this.event_fd = Native.new_event_fd();
+            this.accept_batch = Math.min(Math.max(1, group.getAcceptBatch()), 0xffff);
+            this.data = Unsafe.allocate(accept_batch * Native.ACCEPT_ENTRY);
+            this.ring.poll_add(event_fd, Native.EPOLL_IN, user_data(OP_WAKEUP, 0));
+        }
+
+        private static Logger NEW_LOGGER() {
+            return LoggerFactory.getLogger(IoUringEventLoop.class);
+        }
+
+        static long user_data(int op, int id) {
+            return ((long) op << 32) | (id & 0xffffffffL);
+        }
+
+        @Override
+        void accept(int size) {
+            final IoUring ring    = this.ring;
+            AcceptBatch[] batches = null;
+            for (int i = 0; i < size; i++) {
+                long cqe       = ring.cqe(i);
+                long user_data = IoUring.cqe_user_data(cqe);
+                int  res       = IoUring.cqe_res(cqe);
+                int  op        = (int) (user_data >>> 32);
+                int  id        = (int) user_data;
+                try {
+                    switch (op) {
+                        case OP_ACCEPT:
+                            batches = accept(batches, id, res);
+                            break;
+                        case OP_CONNECT:
+                            accept_connect(id, res);
+                            break;
+                        case OP_READ:
+                            accept_read(ring_chs.get(id), res);
+                            break;
+                        case OP_WAKEUP:
+                            Native.event_fd_read(event_fd);
+                            ring.poll_add(event_fd, Native.EPOLL_IN, user_data);
+                            break;
+                        case OP_WRITE:
+                        case OP_WRITE_POLL:
+                            accept_write(ring_chs.get(id), op, res);
+                            break;
+                        default:
+                            break;
+                    }
+                } catch (Throwable e) {
+                    logger.error(e.getMessage(), e);
+                }
+            }
+            ring.consume(size);
+            if (batches != null) {
+                for (AcceptBatch batch : batches) {
+                    if (batch != null && !batch.el.submit(batch)) {
+                        batch.close();
+                    }
+                }
+            }
+        }
+
+        // the entries are the same as the epoll event loop: fd(4), addr_len(4), sockaddr_in6
+        private AcceptBatch[] accept(AcceptBatch[] batches, int id, int res) {
+            final ChannelAcceptor ctx  = this.listen_ctx;
+            final int             slot = id & 0xffff;
+            if ((id >>> 16) != listen_gen || ctx == null) {
+                if (res >= 0) {
+                    Native.close(res);
+                }
+                return batches;
+            }
+            if (res < 0) {
+                if (res != -IoUring.ECANCELED) {
+                    accept_slot(slot);
+                }
+                return batches;
+            }
+            long p       = data + slot * Native.ACCEPT_ENTRY;
+            int  rp      = ((Unsafe.getByte(p + 10) & 0xff) << 8) | (Unsafe.getByte(p + 11) & 0xff);
+            long ra_high = EpollEventLoop.get_addr(p + 16);
+            long ra_low  = EpollEventLoop.get_addr(p + 24);
+            accept_slot(slot);
+            NioEventLoopGroup group    = ctx.getProcessorGroup();
+            NioEventLoop      targetEL = group.getNext();
+            if (batches == null) {
+                batches = new AcceptBatch[group.getEventLoopSize()];
+            }
+            AcceptBatch batch = batches[targetEL.getIndex()];
+            if (batch == null) {
+                batch = new AcceptBatch(targetEL, ctx, accept_batch);
+                batches[targetEL.getIndex()] = batch;
+            }
+            batch.add(res, ra_high, ra_low, rp);
+            return batches;
+        }
+
+        private void accept_slot(int slot) {
+            long p = data + slot * Native.ACCEPT_ENTRY;
+            Unsafe.putInt(p + 4, SOCK_ADDR_LEN);
+            ring.accept(listen_fd, p + 8, p + 4, user_data(OP_ACCEPT, (listen_gen << 16) | slot));
+        }
+
+        private void accept_connect(int id, int res) {
+            ChannelConnector ctx = (ChannelConnector) ctxs.remove(id);
+            if (ctx == null) {
+                // canceled by timeout
+                return;
+            }
+            IoUringConnectorUnsafe unsafe = (IoUringConnectorUnsafe) ctx.getUnsafe();
+            int                    fd     = unsafe.getFd();
+            if (res < 0 || (res & Native.close_event()) != 0 || !Native.finish_connect(fd)) {
+                ctx.channelEstablish(null, NOT_FINISH_CONNECT);
+                return;
+            }
+            if (register_channel0(ctx, fd)) {
+                register_channel(ctx, new IoUringChannel(this, ctx, fd, next_id(), unsafe.getRemoteAddr(), Native.get_port(fd), ctx.getPort()));
+            }
+        }
+
+        private void accept_read(IoUringChannel ch, int res) {
+            if (ch == null || !ch.isOpen()) {
+                return;
+            }
+            if (res < 0 || (res & Native.close_event()) != 0) {
+                ch.close();
+                return;
+            }
+            try {
+                ch.read();
+            } catch (Throwable ex) {
+                read_exception_caught(ch, ex);
+                return;
+            }
+            if (ch.isOpen()) {
+                poll_read(ch);
+            }
+        }
+
+        private void accept_write(IoUringChannel ch, int op, int res) {
+            if (ch == null) {
+                return;
+            }
+            if (op == OP_WRITE) {
+                ch.write_complete(res);
+            } else {
+                ch.write_poll_complete(res);
+            }
+        }
+
+        // cancel the request and submit it now, so the request is canceled before the fd is closed
+        void cancel(int op, int id) {
+            ring.cancel(user_data(op, id), user_data(OP_CANCEL, id));
+            ring.submit();
+        }
+
+        void cancel_connect(int id) {
+            if (ctxs.remove(id) != null) {
+                cancel(OP_CONNECT, id);
+            }
+        }
+
+        int connect(ChannelConnector ctx, int fd) {
+            int id = next_id();
+            ctxs.put(id, ctx);
+            ring.poll_add(fd, Native.EPOLL_OUT, user_data(OP_CONNECT, id));
+            return id;
+        }
+
+        void listen(ChannelAcceptor ctx, int fd) {
+            this.listen_ctx = ctx;
+            this.listen_fd = fd;
+            this.listen_gen = (listen_gen + 1) & 0x7fff;
+            for (int i = 0; i < accept_batch; i++) {
+                accept_slot(i);
+            }
+            ring.submit();
+        }
+
+        private int next_id() {
+            int id = (next_id + 1) & 0x7fffffff;
+            if (id == 0) {
+                id = 1;
+            }
+            next_id = id;
+            return id;
+        }
+
+        private void poll_read(IoUringChannel ch) {
+            ring.poll_add(ch.fd, Native.EPOLL_IN, user_data(OP_READ, ch.id));
+        }
+
+        @Override
+        void register_accepted(ChannelContext ctx, int fd, long ra_high, long ra_low, int lp, int rp) {
+            if (register_channel0(ctx, fd)) {
+                register_channel(ctx, new IoUringChannel(this, ctx, fd, next_id(), ra_high, ra_low, lp, rp));
+            } else {
+                Native.close(fd);
+            }
+        }
+
+        private void register_channel(ChannelContext ctx, IoUringChannel ch) {
+            ring_chs.put(ch.id, ch);
+            poll_read(ch);
+            register_ch(ctx, ch.fd, channels, ch);
+        }
+
+        private boolean register_channel0(ChannelContext ctx, int fd) {
+            if (channels.size() >= ch_size_limit) {
+                logger.error(OVER_CH_SIZE_LIMIT.getMessage(), OVER_CH_SIZE_LIMIT);
+                ctx.channelEstablish(null, OVER_CH_SIZE_LIMIT);
+                return false;
+            }
+            Channel old = channels.get(fd);
+            if (old != null) {
+                if (Develop.NATIVE_DEBUG) {
+                    logger.error("old channel ....................,open:{}", old.isOpen());
+                }
+                old.close();
+            }
+            return true;
+        }
+
+        @Override
+        int select(long timeout) {
+            return ring.enter(1, timeout);
+        }
+
+        @Override
+        int select_now() {
+            return ring.enter(0, -1);
+        }
+
+        @Override
+        public void shutdown0() {
+            ring.close();
+            // the writes in flight are canceled when the ring is closed
+            IntMap<IoUringChannel> ring_chs = this.ring_chs;
+            for (ring_chs.scan(); ring_chs.hasNext(); ) {
+                ring_chs.value().release_inflight();
+            }
+            ring_chs.finishScan();
+            Unsafe.free(data);
+            Native.close(event_fd);
+        }
+
+        void unlisten() {
+            if (listen_ctx != null) {
+                for (int i = 0; i < accept_batch; i++) {
+                    ring.cancel(user_data(OP_ACCEPT, (listen_gen << 16) | i), user_data(OP_CANCEL, 0));
+                }
+                ring.submit();
+                this.listen_ctx = null;
+                this.listen_fd = -1;
+            }
+        }
+
+        @Override
+        void wakeup0() {
+            Native.event_fd_write(event_fd, 1L);
+        }
+
+    }
+
+    // the channels accepted by one wakeup for the same target event loop
+    static final class AcceptBatch implements Runnable {
+
+        final ChannelAcceptor ctx;
+        final NioEventLoop    el;
+        final int[]           fds;
+        final long[]          ra_highs;
+        final long[]          ra_lows;
+        final int[]           rps;
+        int                   size;
+
+        AcceptBatch(NioEventLoop el, ChannelAcceptor ctx, int cap) {
+            this.el = el;
+            this.ctx = ctx;
+            this.fds = new int[cap];
+            this.ra_highs = new long[cap];
+            this.ra_lows = new long[cap];
+            this.rps = new int[cap];
+        }
+
+        void add(int fd, long ra_high, long ra_low, int rp) {
+            int i = size++;
+            fds[i] = fd;
+            ra_highs[i] = ra_high;
+            ra_lows[i] = ra_low;
+            rps[i] = rp;
+        }
+
+        void close() {
+            for (int i = 0; i < size; i++) {
+                Native.close(fds[i]);
+            }
+        }
+
+        @Override
+        public void run() {
+            int lp = ctx.getPort();
+            for (int i = 0; i < size; i++) {
+                el.register_accepted(ctx, fds[i], ra_highs[i], ra_lows[i], lp, rps[i]);
+            }
+        }
+
+    }
+
+    // the idle timer of the channel, it is rescheduled to the new deadline if the channel is accessed
+    static final class ChannelIdleTask extends DelayedQueue.DelayTask {
+
+        final Channel ch;
+
+        ChannelIdleTask(Channel ch, long delay) {
+            super(delay);
+            this.ch = ch;
+        }
+
+        @Override
+        public void run() {
+            Channel ch = this.ch;
+            // not rescheduled when the event loop is stopping
+            if (!ch.isOpen() || !ch.eventLoop.isRunning()) {
+                return;
+            }
+            long idle           = ch.eventLoop.getGroup().getIdleTime();
+            long now            = Util.now();
+            long last_idle_time = now - idle;
+            long last_access    = ch.getLastAccessTime();
+            if (last_access >= last_idle_time) {
+                schedule_idle(ch, last_access - last_idle_time + 1);
+                return;
+            }
+            List<ChannelIdleListener> ls = ch.getContext().getChannelIdleEventListeners();
+            for (int i = 0; i < ls.size(); i++) {
+                channel_idle(ls.get(i), ch, last_idle_time, now);
+            }
+            if (ch.isOpen()) {
+                schedule_idle(ch, idle);
+            }
+        }
+
+    }
+
 }
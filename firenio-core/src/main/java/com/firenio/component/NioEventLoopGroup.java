@@ -23,6 +23,7 @@ import com.firenio.buffer.UnpooledByteBufAllocator;
 import com.firenio.common.Unsafe;
 import com.firenio.common.Util;
 import com.firenio.component.NioEventLoop.EpollEventLoop;
+import com.firenio.component.NioEventLoop.IoUringEventLoop;
 import com.firenio.component.NioEventLoop.JavaEventLoop;
 import com.firenio.concurrent.EventLoopGroup;
 import com.firenio.concurrent.RingSequence;
@@ -33,27 +34,40 @@ import com.firenio.concurrent.RingSequence;
  */
 public class NioEventLoopGroup extends EventLoopGroup {
 
+    //每次唤醒最多accept的连接数(epoll)
+    private       int                   acceptBatch             = 64;
     private final boolean               acceptor;
     private       ByteBufAllocatorGroup allocatorGroup;
     private       RingSequence          channelIds;
-    private       int                   channelReadBuffer      = 1024 * 512;
+    private       int                   channelReadBuffer       = 1024 * 512;
     //允许的最大连接数(单核)
-    private       int                   channelSizeLimit       = 1024 * 64;
-    private       boolean               concurrentFrameStack   = true;
+    private       int                   channelSizeLimit        = 1024 * 64;
+    private       boolean               concurrentFrameStack    = true;
     private       ChannelContext        context;
-    private       boolean               enableMemoryPool       = true;
+    //事件循环绑定的cpu(epoll)，第i个事件循环绑定到cpuAffinity[i % cpuAffinity.length]
+    private       int[]                 cpuAffinity;
+    private       boolean               enableMemoryPool        = true;
+    //内存池是否使用分级空闲链表(arena)分配，否则使用线性扫描
+    private       boolean               enableMemoryPoolArena   = false;
     //内存池是否使用启用堆外内存
-    private       boolean               enableMemoryPoolDirect = false;
+    private       boolean               enableMemoryPoolDirect  = false;
     private       NioEventLoop[]        eventLoops;
-    private       long                  idleTime               = 30 * 1000;
+    private       long                  idleTime                = 30 * 1000;
     //内存池内存单元数量(单核)
     private       int                   memoryPoolCapacity;
-    private       int                   memoryPoolRate         = 32;
+    //arena内存池空闲chunk归还系统的时间
+    private       long                  memoryPoolChunkIdleTime = 60 * 1000;
+    //arena内存池最多的chunk数量(每个chunk为memoryPoolCapacity个单元)
+    private       int                   memoryPoolMaxChunks     = 4;
+    private       int                   memoryPoolRate          = 32;
     //内存池单元大小
-    private       int                   memoryPoolUnit         = 512;
+    private       int                   memoryPoolUnit          = 512;
     private       boolean               sharable;
+    //SPIN_THEN_BLOCK时，空转select_now的次数
+    private       int                   waitSpins               = 1024;
+    private       WaitStrategy          waitStrategy            = WaitStrategy.BLOCKING;
     //单条连接write(srcs)的数量
-    private       int                   writeBuffers           = 32;
+    private       int                   writeBuffers            = 32;
 
     public NioEventLoopGroup() {
         this(false);
@@ -112,7 +126,7 @@ public class NioEventLoopGroup extends EventLoopGroup {
                     throw new Exception("EPoll mode only support unsafe(direct) memory");
                 }
             }
-            this.allocatorGroup = new ByteBufAllocatorGroup(getEventLoopSize(), memoryPoolCapacity, memoryPoolUnit, enableMemoryPoolDirect);
+            this.allocatorGroup = new ByteBufAllocatorGroup(getEventLoopSize(), memoryPoolCapacity, memoryPoolUnit, enableMemoryPoolDirect, enableMemoryPoolArena, memoryPoolMaxChunks, memoryPoolChunkIdleTime);
         }
         Util.start(getAllocatorGroup());
         super.doStart();
@@ -124,6 +138,15 @@ public class NioEventLoopGroup extends EventLoopGroup {
         super.doStop();
     }
 
+    public int getAcceptBatch() {
+        return acceptBatch;
+    }
+
+    public void setAcceptBatch(int acceptBatch) {
+        checkNotRunning();
+        this.acceptBatch = acceptBatch;
+    }
+
     public ByteBufAllocatorGroup getAllocatorGroup() {
         return allocatorGroup;
     }
@@ -150,6 +173,15 @@ public class NioEventLoopGroup extends EventLoopGroup {
         this.channelSizeLimit = channelSizeLimit;
     }
 
+    public int[] getCpuAffinity() {
+        return cpuAffinity;
+    }
+
+    public void setCpuAffinity(int... cpuAffinity) {
+        checkNotRunning();
+        this.cpuAffinity = cpuAffinity;
+    }
+
     public ChannelContext getContext() {
         return context;
     }
@@ -181,6 +213,24 @@ public class NioEventLoopGroup extends EventLoopGroup {
         this.memoryPoolCapacity = memoryPoolCapacity;
     }
 
+    public long getMemoryPoolChunkIdleTime() {
+        return memoryPoolChunkIdleTime;
+    }
+
+    public void setMemoryPoolChunkIdleTime(long memoryPoolChunkIdleTime) {
+        checkNotRunning();
+        this.memoryPoolChunkIdleTime = memoryPoolChunkIdleTime;
+    }
+
+    public int getMemoryPoolMaxChunks() {
+        return memoryPoolMaxChunks;
+    }
+
+    public void setMemoryPoolMaxChunks(int memoryPoolMaxChunks) {
+        checkNotRunning();
+        this.memoryPoolMaxChunks = memoryPoolMaxChunks;
+    }
+
     public int getMemoryPoolRate() {
         return memoryPoolRate;
     }
@@ -213,6 +263,24 @@ public class NioEventLoopGroup extends EventLoopGroup {
         }
     }
 
+    public int getWaitSpins() {
+        return waitSpins;
+    }
+
+    public void setWaitSpins(int waitSpins) {
+        checkNotRunning();
+        this.waitSpins = waitSpins;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public void setWaitStrategy(WaitStrategy waitStrategy) {
+        checkNotRunning();
+        this.waitStrategy = waitStrategy;
+    }
+
     public int getWriteBuffers() {
         return writeBuffers;
     }
@@ -246,6 +314,15 @@ public class NioEventLoopGroup extends EventLoopGroup {
         this.enableMemoryPool = enableMemoryPool;
     }
 
+    public boolean isEnableMemoryPoolArena() {
+        return enableMemoryPoolArena;
+    }
+
+    public void setEnableMemoryPoolArena(boolean enableMemoryPoolArena) {
+        checkNotRunning();
+        this.enableMemoryPoolArena = enableMemoryPoolArena;
+    }
+
     public boolean isEnableMemoryPoolDirect() {
         return enableMemoryPoolDirect;
     }
@@ -261,7 +338,9 @@ public class NioEventLoopGroup extends EventLoopGroup {
 
     @Override
     protected NioEventLoop newEventLoop(int index, String t_name) throws IOException {
-        if (Native.EPOLL_AVAILABLE) {
+        if (Native.IO_URING_AVAILABLE) {
+            return new IoUringEventLoop(this, index, t_name);
+        } else if (Native.EPOLL_AVAILABLE) {
             return new EpollEventLoop(this, index, t_name);
         } else {
             return new JavaEventLoop(this, index, t_name);
@@ -272,4 +351,19 @@ public class NioEventLoopGroup extends EventLoopGroup {
         return acceptor;
     }
 
+    /**
+     * how the event loop waits when there is no ready event and no task
+     */
+    public enum WaitStrategy {
+
+        // block in select until an event is ready or the loop is woken up
+        BLOCKING,
+
+        // never block, select_now is called in a loop, for the loops on dedicated cores
+        BUSY_POLL,
+
+        // select_now at most waitSpins times before block
+        SPIN_THEN_BLOCK
+    }
+
 }
@@ -62,8 +62,6 @@ public abstract class EventLoop extends LifeCycle implements Runnable {
         return defaultGroup;
     }
 
-    protected abstract BlockingQueue<Runnable> getJobs();
-
     public int getMaxQueueSize() {
         return getGroup().getMaxQueueSize();
     }
@@ -72,9 +70,7 @@ public abstract class EventLoop extends LifeCycle implements Runnable {
         return monitor;
     }
 
-    public int getPendingSize() {
-        return getJobs().size();
-    }
+    public abstract int getPendingSize();
 
     public boolean inEventLoop() {
         return inEventLoop(Thread.currentThread());
@@ -95,8 +91,10 @@ public abstract class EventLoop extends LifeCycle implements Runnable {
         }
     }
 
-    public boolean submit(Runnable job) {
-        final BlockingQueue<Runnable> jobs = getJobs();
+    public abstract boolean submit(Runnable job);
+
+    // offer the job to the jobs of a blocking queue, it is removed if the loop is stopped meanwhile
+    protected boolean submit(BlockingQueue<Runnable> jobs, Runnable job) {
         if (!jobs.offer(job)) {
             return false;
         }
@@ -83,11 +83,20 @@ public final class ExecutorEventLoop extends EventLoop {
         return group;
     }
 
-    @Override
     public BlockingQueue<Runnable> getJobs() {
         return jobs;
     }
 
+    @Override
+    public int getPendingSize() {
+        return jobs.size();
+    }
+
+    @Override
+    public boolean submit(Runnable job) {
+        return submit(jobs, job);
+    }
+
     @Override
     public Thread getMonitor() {
         throw new UnsupportedOperationException();
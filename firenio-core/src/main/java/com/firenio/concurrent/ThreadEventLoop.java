@@ -71,11 +71,20 @@ public final class ThreadEventLoop extends EventLoop {
         return group;
     }
 
-    @Override
     public BlockingQueue<Runnable> getJobs() {
         return jobs;
     }
 
+    @Override
+    public int getPendingSize() {
+        return jobs.size();
+    }
+
+    @Override
+    public boolean submit(Runnable job) {
+        return submit(jobs, job);
+    }
+
     public boolean offer(Runnable runnable) {
         return jobs.offer(runnable);
     }
@@ -10,11 +10,18 @@
 #include <netinet/in.h>
 #include <netinet/ip.h>
 #include <netinet/tcp.h>
+#include <sched.h>
+#include <signal.h>
+#include <linux/io_uring.h>
 #include <sys/epoll.h>
 #include <sys/eventfd.h>
+#include <sys/mman.h>
+#include <sys/sendfile.h>
 #include <sys/socket.h>
 #include <sys/stat.h>
+#include <sys/syscall.h>
 #include <sys/types.h>
+#include <sys/uio.h>
 
 
 #include "jni.h"
@@ -123,8 +130,33 @@ JNIEXPORT jint JNICALL Java_com_firenio_component_Native_accept0
     return fd;
   }
 
-JNIEXPORT jint JNICALL Java_com_firenio_component_Native_bind0
-  (JNIEnv * e, jclass c, jstring host, jint port, jint backlog){
+JNIEXPORT jint JNICALL Java_com_firenio_component_Native_accept_1batch0
+  (JNIEnv * e, jclass c, jint listenfd, jlong address, jint max){
+    int n = 0;
+    for (int i = 0; i < max; i++) {
+      char *p = (char *)(address + n * 40);
+      struct sockaddr_in6 *addr = (struct sockaddr_in6 *)(p + 8);
+      socklen_t addrlen = 32;
+      memset(addr,0,32);
+      int fd = accept4(listenfd,(struct sockaddr *)addr,&addrlen, SOCK_NONBLOCK | SOCK_CLOEXEC);
+      if (fd == -1){
+        if (n == 0 && errno != EAGAIN && errno != EWOULDBLOCK){
+          return -1;
+        }
+        break;
+      }
+      int on = 1;
+      if(setsockopt(fd, SOL_SOCKET, SO_REUSEADDR, &on, sizeof(on)) < 0){
+        close(fd);
+        continue;
+      }
+      *((int *)p) = fd;
+      n++;
+    }
+    return n;
+  }
+
+static int bind_socket(JNIEnv * e, jstring host, jint port, jint backlog, bool reuse_port){
     int listenfd = socket(AF_INET6,SOCK_STREAM,0);
     if (listenfd == -1){
       return -1;
@@ -134,6 +166,10 @@ JNIEXPORT jint JNICALL Java_com_firenio_component_Native_bind0
       close(listenfd);
       return -1;
     }
+    if(reuse_port && setsockopt(listenfd, SOL_SOCKET, SO_REUSEPORT, &on, sizeof(on)) == -1){
+      close(listenfd);
+      return -1;
+    }
     if(make_socket_non_blocking(listenfd) == -1){
       close(listenfd);
       return -1;
@@ -144,6 +180,7 @@ JNIEXPORT jint JNICALL Java_com_firenio_component_Native_bind0
     servaddr.sin6_family = AF_INET6;
     servaddr.sin6_port = htons(port);
     inet_pton(AF_INET,hhost,&servaddr.sin6_addr);
+    e->ReleaseStringUTFChars(host, hhost);
     if (bind(listenfd,(struct sockaddr*)&servaddr,sizeof(servaddr)) == -1){
       close(listenfd);
       return -1;
@@ -153,6 +190,16 @@ JNIEXPORT jint JNICALL Java_com_firenio_component_Native_bind0
       return -1;
     }
     return listenfd;
+  }
+
+JNIEXPORT jint JNICALL Java_com_firenio_component_Native_bind_1reuse_1port0
+  (JNIEnv * e, jclass c, jstring host, jint port, jint backlog){
+    return bind_socket(e, host, port, backlog, true);
+  }
+
+JNIEXPORT jint JNICALL Java_com_firenio_component_Native_bind0
+  (JNIEnv * e, jclass c, jstring host, jint port, jint backlog){
+    return bind_socket(e, host, port, backlog, false);
     // struct addrinfo hints;
     // struct addrinfo *result, *rp;
     // int s, sfd, on;
@@ -238,6 +285,19 @@ JNIEXPORT jint JNICALL Java_com_firenio_component_Native_read0
     return (jint) res;
   }
 
+JNIEXPORT jlong JNICALL Java_com_firenio_component_Native_readv0
+  (JNIEnv * e, jclass c, jint fd, jlong iovec,jint count){
+    errno = 0;
+    ssize_t res = readv(fd, (struct iovec*)iovec, count);
+    if (res < 1) {
+      if(errno == EAGAIN){
+        return 0;
+      }
+      return -1;
+    }
+    return (jlong) res;
+  }
+
 JNIEXPORT jint JNICALL Java_com_firenio_component_Native_write0
   (JNIEnv * e, jclass c, jint fd, jlong address, jint len){
     errno = 0;
@@ -264,6 +324,159 @@ JNIEXPORT jlong JNICALL Java_com_firenio_component_Native_writev0
     return (jlong) res;
   }
 
+JNIEXPORT jlong JNICALL Java_com_firenio_component_Native_sendfile0
+  (JNIEnv * e, jclass c, jint out_fd, jint in_fd, jlong offset, jlong count){
+    errno = 0;
+    off_t off = (off_t) offset;
+    ssize_t res = sendfile(out_fd, in_fd, &off, (size_t) count);
+    if (res < 1) {
+      if(errno == EAGAIN){
+        return 0;
+      }
+      return -1;
+    }
+    return (jlong) res;
+  }
+
+JNIEXPORT jint JNICALL Java_com_firenio_component_Native_splice0
+  (JNIEnv * e, jclass c, jint fd_in, jint fd_out, jint len){
+    errno = 0;
+    ssize_t res = splice(fd_in, NULL, fd_out, NULL, (size_t) len, SPLICE_F_MOVE | SPLICE_F_NONBLOCK);
+    if (res < 1) {
+      if(errno == EAGAIN){
+        return 0;
+      }
+      return -1;
+    }
+    return (jint) res;
+  }
+
+JNIEXPORT jlong JNICALL Java_com_firenio_component_Native_pipe0
+  (JNIEnv * e, jclass c){
+    int fds[2];
+    if (pipe2(fds, O_NONBLOCK | O_CLOEXEC) == -1) {
+      return -1;
+    }
+    return ((jlong) fds[0] << 32) | (fds[1] & 0xffffffffL);
+  }
+
+// the ring is mapped here and the addresses are stored in info for the java side:
+// sq_head, sq_tail, sq_mask, sq_entries, sq_array, sqes, cq_head, cq_tail, cq_mask,
+// cq_entries, cqes, sq_ring, sq_ring_size, cq_ring, cq_ring_size, sqes_size, features
+JNIEXPORT jint JNICALL Java_com_firenio_component_Native_io_1uring_1setup0
+  (JNIEnv * e, jclass c, jint entries, jlong info){
+    errno = 0;
+    struct io_uring_params p;
+    memset(&p, 0, sizeof(p));
+    int fd = (int) syscall(__NR_io_uring_setup, (unsigned) entries, &p);
+    if (fd < 0) {
+      return -1;
+    }
+    size_t sq_size = p.sq_off.array + p.sq_entries * sizeof(unsigned);
+    size_t cq_size = p.cq_off.cqes + p.cq_entries * sizeof(struct io_uring_cqe);
+    size_t sqes_size = p.sq_entries * sizeof(struct io_uring_sqe);
+    bool single = (p.features & IORING_FEAT_SINGLE_MMAP) != 0;
+    if (single && cq_size > sq_size) {
+      sq_size = cq_size;
+    }
+    char * sq = (char *) mmap(0, sq_size, PROT_READ | PROT_WRITE, MAP_SHARED | MAP_POPULATE, fd, IORING_OFF_SQ_RING);
+    if (sq == MAP_FAILED) {
+      close(fd);
+      return -1;
+    }
+    char * cq = sq;
+    if (!single) {
+      cq = (char *) mmap(0, cq_size, PROT_READ | PROT_WRITE, MAP_SHARED | MAP_POPULATE, fd, IORING_OFF_CQ_RING);
+      if (cq == MAP_FAILED) {
+        munmap(sq, sq_size);
+        close(fd);
+        return -1;
+      }
+    }
+    char * sqes = (char *) mmap(0, sqes_size, PROT_READ | PROT_WRITE, MAP_SHARED | MAP_POPULATE, fd, IORING_OFF_SQES);
+    if (sqes == MAP_FAILED) {
+      if (!single) {
+        munmap(cq, cq_size);
+      }
+      munmap(sq, sq_size);
+      close(fd);
+      return -1;
+    }
+    jlong * out = (jlong *) info;
+    out[0] = (jlong) (sq + p.sq_off.head);
+    out[1] = (jlong) (sq + p.sq_off.tail);
+    out[2] = *(unsigned *) (sq + p.sq_off.ring_mask);
+    out[3] = p.sq_entries;
+    out[4] = (jlong) (sq + p.sq_off.array);
+    out[5] = (jlong) sqes;
+    out[6] = (jlong) (cq + p.cq_off.head);
+    out[7] = (jlong) (cq + p.cq_off.tail);
+    out[8] = *(unsigned *) (cq + p.cq_off.ring_mask);
+    out[9] = p.cq_entries;
+    out[10] = (jlong) (cq + p.cq_off.cqes);
+    out[11] = (jlong) sq;
+    out[12] = sq_size;
+    out[13] = single ? 0 : (jlong) cq;
+    out[14] = cq_size;
+    out[15] = sqes_size;
+    out[16] = p.features;
+    return fd;
+  }
+
+JNIEXPORT jint JNICALL Java_com_firenio_component_Native_io_1uring_1enter0
+  (JNIEnv * e, jclass c, jint fd, jint to_submit, jint min_complete, jlong timeout){
+    errno = 0;
+    int res;
+    if (min_complete > 0) {
+      unsigned flags = IORING_ENTER_GETEVENTS;
+      if (timeout >= 0) {
+        struct __kernel_timespec ts;
+        ts.tv_sec = timeout / 1000;
+        ts.tv_nsec = (timeout % 1000) * 1000000;
+        struct io_uring_getevents_arg arg;
+        memset(&arg, 0, sizeof(arg));
+        arg.sigmask_sz = _NSIG / 8;
+        arg.ts = (__u64) &ts;
+        res = (int) syscall(__NR_io_uring_enter, fd, to_submit, min_complete, flags | IORING_ENTER_EXT_ARG, &arg, sizeof(arg));
+      } else {
+        res = (int) syscall(__NR_io_uring_enter, fd, to_submit, min_complete, flags, NULL, 0);
+      }
+    } else {
+      res = (int) syscall(__NR_io_uring_enter, fd, to_submit, 0, 0, NULL, 0);
+    }
+    if (res < 0) {
+      if (errno == ETIME || errno == EINTR || errno == EAGAIN || errno == EBUSY) {
+        return 0;
+      }
+      return -1;
+    }
+    return res;
+  }
+
+JNIEXPORT jint JNICALL Java_com_firenio_component_Native_io_1uring_1exit0
+  (JNIEnv * e, jclass c, jint fd, jlong info){
+    jlong * in = (jlong *) info;
+    munmap((void *) in[5], (size_t) in[15]);
+    if (in[13] != 0) {
+      munmap((void *) in[13], (size_t) in[14]);
+    }
+    munmap((void *) in[11], (size_t) in[12]);
+    return close(fd);
+  }
+
+JNIEXPORT jint JNICALL Java_com_firenio_component_Native_sched_1setaffinity0
+  (JNIEnv * e, jclass c, jint cpu){
+    if (cpu < 0 || cpu >= CPU_SETSIZE) {
+      errno = EINVAL;
+      return -1;
+    }
+    cpu_set_t set;
+    CPU_ZERO(&set);
+    CPU_SET(cpu, &set);
+    // pid 0 is the calling thread
+    return sched_setaffinity(0, sizeof(cpu_set_t), &set);
+  }
+
 JNIEXPORT jint JNICALL Java_com_firenio_component_Native_strerrno
   (JNIEnv * e, jclass c, jint no, jbyteArray array){
     char * cs = strerror(no);
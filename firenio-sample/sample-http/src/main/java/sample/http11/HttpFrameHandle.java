@@ -34,14 +34,17 @@ import com.firenio.common.FileUtil;
 import com.firenio.common.Util;
 import com.firenio.component.Channel;
 import com.firenio.component.ChannelContext;
+import com.firenio.component.FileRegion;
 import com.firenio.component.Frame;
 import com.firenio.component.IoEventHandle;
 import com.firenio.log.Logger;
 import com.firenio.log.LoggerFactory;
 
-//FIXME writeIndex too large file
 public class HttpFrameHandle extends IoEventHandle {
 
+    // the larger files are not cached and written by sendfile
+    static final int REGION_LIMIT = 1024 * 64;
+
     private Charset                 charset        = Util.UTF8;
     private String                  welcome        = "/";
     private Map<String, HttpEntity> htmlCache      = new HashMap<>();
@@ -202,7 +205,11 @@ public class HttpFrameHandle extends IoEventHandle {
 
     private void reloadEntity(HttpEntity entity, ChannelContext context, HttpStatus status) throws IOException {
         File file = entity.getFile();
-        entity.setBinary(FileUtil.readBytesByFile(file));
+        if (file.isFile() && file.length() > REGION_LIMIT) {
+            entity.content = null;
+        } else {
+            entity.setBinary(FileUtil.readBytesByFile(file));
+        }
         entity.setLastModify(file.lastModified());
     }
 
@@ -300,7 +307,11 @@ public class HttpFrameHandle extends IoEventHandle {
     private void writeAndFlush(Channel ch, HttpFrame frame, HttpEntity entity) throws Exception {
         frame.setContentType(entity.getContentType());
         frame.setResponseHeader(HttpHeader.Last_Modified, entity.getLastModifyGTMBytes());
-        frame.setContent(entity.content.duplicate());
+        if (entity.content == null) {
+            frame.setContent(new FileRegion(entity.getFile()));
+        } else {
+            frame.setContent(entity.content.duplicate());
+        }
         ch.writeAndFlush(frame);
     }
 
@@ -15,8 +15,6 @@
  */
 package sample.http11.proxy;
 
-import java.io.IOException;
-
 import com.firenio.buffer.ByteBuf;
 import com.firenio.codec.http11.ClientHttpCodec;
 import com.firenio.codec.http11.ClientHttpFrame;
@@ -200,6 +198,9 @@ public class HttpProxyServer {
                     s.connector.connect((ch_target, ex) -> {
                         if (ex == null) {
                             ch_target.writeAndFlush(buf);
+                            // forward by splice(2) if supported, else by the codecs
+                            ch_src.spliceTo(ch_target);
+                            ch_target.spliceTo(ch_src);
                         } else {
                             buf.release();
                             HttpProxyAttr.remove(ch_src);
@@ -216,16 +217,6 @@ public class HttpProxyServer {
             return super.decode(ch_src, src);
         }
 
-        @Override
-        protected void parse_line_one(HttpFrame f, CharSequence line) throws IOException {
-            if (line.charAt(0) == 'C' && line.charAt(1) == 'O' && line.charAt(2) == 'N' && line.charAt(3) == 'N' && line.charAt(4) == 'E' && line.charAt(5) == 'C' && line.charAt(6) == 'T' && line.charAt(7) == ' ') {
-                f.setMethod(HttpMethod.CONNECT);
-                parse_url(f, 8, line);
-            } else {
-                super.parse_line_one(f, line);
-            }
-        }
-
     }
 
     public static class HttpProxyAttr extends HttpAttachment {
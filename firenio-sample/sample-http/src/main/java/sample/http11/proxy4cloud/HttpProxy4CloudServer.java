@@ -184,16 +184,6 @@ public class HttpProxy4CloudServer {
             return null;
         }
 
-        @Override
-        protected void parse_line_one(HttpFrame f, CharSequence line) throws IOException {
-            if (line.charAt(0) == 'C' && line.charAt(1) == 'O' && line.charAt(2) == 'N' && line.charAt(3) == 'N' && line.charAt(4) == 'E' && line.charAt(5) == 'C' && line.charAt(6) == 'T' && line.charAt(7) == ' ') {
-                f.setMethod(HttpMethod.CONNECT);
-                parse_url(f, 8, line);
-            } else {
-                super.parse_line_one(f, line);
-            }
-        }
-
         @Override
         protected Object newAttachment() {
             return new HttpProxy4CloudAttr();
@@ -95,6 +95,9 @@ public class NetDataTransferServer {
                     if (ex == null) {
                         raw_ch.setAttachment(ch);
                         ch.setAttachment(raw_ch);
+                        // forward by splice(2) if supported, else by the codec
+                        ch.spliceTo(raw_ch);
+                        raw_ch.spliceTo(ch);
                     } else {
                         Util.close(ch);
                     }
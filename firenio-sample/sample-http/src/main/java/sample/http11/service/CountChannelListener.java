@@ -38,4 +38,7 @@ public class CountChannelListener implements ChannelEventListener {
         chs.put(ch.getChannelId(), ch);
     }
 
+    @Override
+    public void channelWritabilityChanged(Channel ch) {}
+
 }
@@ -15,12 +15,11 @@
  */
 package sample.http11.service;
 
-import java.util.Iterator;
+import java.util.List;
 
 import org.springframework.stereotype.Service;
 
-import com.firenio.buffer.PooledByteBufAllocator;
-import com.firenio.buffer.PooledByteBufAllocator.BufDebug;
+import com.firenio.buffer.ByteBufLeakDetector;
 import com.firenio.codec.http11.HttpFrame;
 import com.firenio.component.Channel;
 
@@ -31,19 +30,13 @@ public class TestProxyServlet extends HttpFrameAcceptor {
 
     @Override
     protected void doAccept(Channel ch, HttpFrame frame) throws Exception {
-        synchronized (PooledByteBufAllocator.BUF_DEBUGS) {
-            Iterator<BufDebug> it = PooledByteBufAllocator.BUF_DEBUGS.values().iterator();
-            if (it.hasNext()) {
-                BufDebug d = it.next();
-                if (d != null) {
-                    Exception e = d.e;
-                    if (e != null) {
-                        throw e;
-                    }
-                }
-            }
+        ByteBufLeakDetector.detect();
+        List<String> reports = ByteBufLeakDetector.getReports();
+        if (reports.isEmpty()) {
+            frame.setString("not found, tracked: " + ByteBufLeakDetector.getTracked(), ch);
+        } else {
+            frame.setString(reports.get(0), ch);
         }
-        frame.setString("not found", ch);
         ch.writeAndFlush(frame);
     }
 
@@ -78,6 +78,8 @@ public class TestShowMemoryServlet extends HttpFrameAcceptor {
                 builder.append("<BR/>\n");
                 builder.append(res[i]);
             }
+            builder.append("<BR/>\n");
+            builder.append(allocator.getMetric());
             allocatorDes = builder.toString();
         }
 
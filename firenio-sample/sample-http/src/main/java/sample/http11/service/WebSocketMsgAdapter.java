@@ -91,11 +91,15 @@ public class WebSocketMsgAdapter extends EventLoop {
         return clientMap.size();
     }
 
-    @Override
     public BlockingQueue<Runnable> getJobs() {
         return msgs;
     }
 
+    @Override
+    public int getPendingSize() {
+        return msgs.size();
+    }
+
     public synchronized Client removeClient(Channel ch) {
         Client client = clientMap.remove(ch.getChannelId());
         if (client != null) {
@@ -105,6 +109,11 @@ public class WebSocketMsgAdapter extends EventLoop {
         return client;
     }
 
+    @Override
+    public boolean submit(Runnable job) {
+        return submit(msgs, job);
+    }
+
     public void sendMsg(Channel ch, String msg) {
         msgs.offer(new Msg(ch, msg));
     }
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.io;
+
+import java.io.OutputStream;
+import java.net.Socket;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.firenio.buffer.ByteBuf;
+import com.firenio.common.Util;
+import com.firenio.component.Channel;
+import com.firenio.component.ChannelAcceptor;
+import com.firenio.component.ChannelAliveListener;
+import com.firenio.component.ChannelContext.IdleStrategy;
+import com.firenio.component.Frame;
+import com.firenio.component.NioEventLoopGroup;
+import com.firenio.component.ProtocolCodec;
+
+import junit.framework.Assert;
+
+/**
+ * @author wangkai
+ */
+public class TestIdleTimer {
+
+    ChannelAcceptor context;
+
+    @After
+    public void clean() {
+        Util.unbind(context);
+    }
+
+    @Before
+    public void server() throws Exception {
+        NioEventLoopGroup group = new NioEventLoopGroup();
+        group.setIdleTime(100);
+        group.setEnableMemoryPoolDirect(true);
+        context = new ChannelAcceptor(group, 8305);
+        context.setIdleStrategy(IdleStrategy.TIMER);
+        context.addChannelIdleEventListener(new ChannelAliveListener());
+        context.addProtocolCodec(new Discard());
+        context.bind();
+    }
+
+    @Test
+    public void test() throws Exception {
+        try (Socket idle = new Socket("127.0.0.1", 8305); Socket active = new Socket("127.0.0.1", 8305)) {
+            idle.setSoTimeout(2000);
+            OutputStream out = active.getOutputStream();
+            long         old = Util.now();
+            // the new channel is closed after two idle times
+            for (; Util.past(old) < 600; ) {
+                out.write(1);
+                Util.sleep(20);
+            }
+            Assert.assertEquals(-1, idle.getInputStream().read());
+            Assert.assertTrue(Util.past(old) < 2000);
+            Assert.assertEquals(1, context.getChannelManager().getManagedChannelSize());
+        }
+    }
+
+    @Test
+    public void testStop() throws Exception {
+        try (Socket s = new Socket("127.0.0.1", 8305)) {
+            s.setSoTimeout(2000);
+            Util.sleep(50);
+            long old = Util.now();
+            // the idle task of the open channel is not rescheduled when the event loop is stopping
+            Util.unbind(context);
+            Assert.assertEquals(-1, s.getInputStream().read());
+            Assert.assertTrue(Util.past(old) < 2000);
+        }
+    }
+
+    static class Discard extends ProtocolCodec {
+
+        @Override
+        public Frame decode(Channel ch, ByteBuf src) {
+            src.skipRead(src.readableBytes());
+            return null;
+        }
+
+        @Override
+        public int getHeaderLength() {
+            return 0;
+        }
+
+        @Override
+        public String getProtocolId() {
+            return "discard";
+        }
+
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.io;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.firenio.Options;
+import com.firenio.buffer.ByteBuf;
+import com.firenio.common.Util;
+import com.firenio.component.Channel;
+import com.firenio.component.ChannelAcceptor;
+import com.firenio.component.Frame;
+import com.firenio.component.ProtocolCodec;
+
+import junit.framework.Assert;
+
+/**
+ * @author wangkai
+ */
+public class TestIoUring {
+
+    ChannelAcceptor context;
+
+    @BeforeClass
+    public static void enable() {
+        // works only if the Native is not loaded before, the test is skipped otherwise
+        Options.setEnableIoUring(true);
+    }
+
+    @After
+    public void clean() {
+        Util.unbind(context);
+    }
+
+    @Before
+    public void server() throws Exception {
+        context = new ChannelAcceptor(8304);
+        context.getProcessorGroup().setEnableMemoryPoolDirect(true);
+        context.addProtocolCodec(new Echo());
+        context.bind();
+        // no silent fallback to epoll, the channels must be in io_uring event loops
+        String loop = context.getProcessorGroup().getEventLoop(0).getClass().getSimpleName();
+        Assume.assumeTrue(loop.equals("IoUringEventLoop"));
+    }
+
+    @Test
+    public void test() throws Exception {
+        Assert.assertTrue(context.toString().startsWith("IoUring"));
+        byte[] data = new byte[1024 * 1024 * 4];
+        byte[] res  = new byte[data.length];
+        new Random().nextBytes(data);
+        try (Socket s = new Socket("127.0.0.1", 8304)) {
+            s.setSoTimeout(5000);
+            OutputStream out = s.getOutputStream();
+            InputStream  in  = s.getInputStream();
+            Util.exec(() -> {
+                try {
+                    out.write(data);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            });
+            int off = 0;
+            for (; off < res.length; ) {
+                int len = in.read(res, off, res.length - off);
+                if (len == -1) {
+                    break;
+                }
+                off += len;
+            }
+            Assert.assertEquals(data.length, off);
+            Assert.assertTrue(Arrays.equals(data, res));
+        }
+    }
+
+    static class Echo extends ProtocolCodec {
+
+        @Override
+        public Frame decode(Channel ch, ByteBuf src) {
+            ByteBuf buf = ch.alloc().allocate(src.readableBytes());
+            buf.writeBytes(src);
+            ch.writeAndFlush(buf);
+            return null;
+        }
+
+        @Override
+        public int getHeaderLength() {
+            return 0;
+        }
+
+        @Override
+        public String getProtocolId() {
+            return "echo";
+        }
+
+    }
+
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.firenio.buffer.ByteBuf;
+import com.firenio.codec.lengthvalue.LengthValueCodec;
+import com.firenio.common.Util;
+import com.firenio.component.Channel;
+import com.firenio.component.ChannelAcceptor;
+import com.firenio.component.Frame;
+import com.firenio.component.IoEventHandle;
+import com.firenio.component.Native;
+import com.firenio.component.NioEventLoopGroup;
+import com.firenio.component.ProtocolCodec;
+
+import junit.framework.Assert;
+
+/**
+ * @author wangkai
+ */
+public class TestReadv {
+
+    static final int FRAMES = 10000;
+
+    ChannelAcceptor context;
+    CountDownLatch  done     = new CountDownLatch(1);
+    AtomicInteger   errors   = new AtomicInteger();
+    int[]           lens     = new int[FRAMES];
+    AtomicInteger   received = new AtomicInteger();
+
+    @After
+    public void clean() {
+        Util.unbind(context);
+    }
+
+    @Before
+    public void server() throws Exception {
+        NioEventLoopGroup group = new NioEventLoopGroup(1);
+        // the frames are larger than the head room of the overflow buf
+        group.setChannelReadBuffer(1024 * 64);
+        group.setEnableMemoryPoolDirect(true);
+        context = new ChannelAcceptor(group, 8306);
+        context.addProtocolCodec(new LengthValueCodec(1024 * 64));
+        context.setIoEventHandle(new IoEventHandle() {
+
+            @Override
+            public void accept(Channel ch, Frame frame) {
+                String s = frame.getStringContent();
+                int    i = received.getAndIncrement();
+                char   c = (char) ('a' + i % 26);
+                if (s.length() != lens[i] || (s.length() > 0 && (s.charAt(0) != c || s.charAt(s.length() - 1) != c))) {
+                    errors.incrementAndGet();
+                }
+                if (i == FRAMES - 1) {
+                    done.countDown();
+                }
+            }
+        });
+        context.bind();
+    }
+
+    @Test
+    public void test() throws Exception {
+        Random                r   = new Random();
+        ByteArrayOutputStream bs  = new ByteArrayOutputStream();
+        DataOutputStream      out = new DataOutputStream(bs);
+        for (int i = 0; i < FRAMES; i++) {
+            int    len  = r.nextInt(4) == 0 ? r.nextInt(60000) : r.nextInt(200);
+            byte[] data = new byte[len];
+            Arrays.fill(data, (byte) ('a' + i % 26));
+            lens[i] = len;
+            out.writeInt(len);
+            out.write(data);
+        }
+        byte[] data = bs.toByteArray();
+        try (Socket s = new Socket("127.0.0.1", 8306)) {
+            OutputStream os = s.getOutputStream();
+            for (int off = 0; off < data.length; ) {
+                int len = Math.min(data.length - off, 1 + r.nextInt(1024 * 1024));
+                os.write(data, off, len);
+                off += len;
+            }
+            Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(FRAMES, received.get());
+        Assert.assertEquals(0, errors.get());
+    }
+
+    @Test
+    public void testConsumeAll() throws Exception {
+        // the codec consumes all the bytes and returns null, it must not be called with an empty buf
+        Assume.assumeTrue(Native.READV_AVAILABLE);
+        NioEventLoopGroup group = new NioEventLoopGroup(1);
+        group.setChannelReadBuffer(1024 * 64);
+        group.setEnableMemoryPoolDirect(true);
+        ChannelAcceptor echo = new ChannelAcceptor(group, 8316);
+        echo.addProtocolCodec(new Echo());
+        echo.bind();
+        try {
+            byte[] data = new byte[1024 * 1024 * 4];
+            byte[] res  = new byte[data.length];
+            new Random().nextBytes(data);
+            try (Socket s = new Socket("127.0.0.1", 8316)) {
+                s.setSoTimeout(5000);
+                OutputStream out = s.getOutputStream();
+                InputStream  in  = s.getInputStream();
+                Util.exec(() -> {
+                    try {
+                        out.write(data);
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                });
+                int off = 0;
+                for (; off < res.length; ) {
+                    int len = in.read(res, off, res.length - off);
+                    if (len == -1) {
+                        break;
+                    }
+                    off += len;
+                }
+                Assert.assertEquals(data.length, off);
+                Assert.assertTrue(Arrays.equals(data, res));
+            }
+            Assert.assertEquals(0, errors.get());
+        } finally {
+            Util.unbind(echo);
+        }
+    }
+
+    class Echo extends ProtocolCodec {
+
+        @Override
+        public Frame decode(Channel ch, ByteBuf src) {
+            if (!src.hasReadableBytes()) {
+                errors.incrementAndGet();
+            }
+            ByteBuf buf = ch.alloc().allocate(src.readableBytes());
+            buf.writeBytes(src);
+            ch.writeAndFlush(buf);
+            return null;
+        }
+
+        @Override
+        public int getHeaderLength() {
+            return 0;
+        }
+
+        @Override
+        public String getProtocolId() {
+            return "echo";
+        }
+
+    }
+
+}
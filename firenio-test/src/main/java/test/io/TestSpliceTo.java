@@ -0,0 +1,146 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.io;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.firenio.buffer.ByteBuf;
+import com.firenio.common.Util;
+import com.firenio.component.Channel;
+import com.firenio.component.ChannelAcceptor;
+import com.firenio.component.ChannelConnector;
+import com.firenio.component.ChannelEventListenerAdapter;
+import com.firenio.component.Frame;
+import com.firenio.component.Native;
+import com.firenio.component.ProtocolCodec;
+
+import junit.framework.Assert;
+
+/**
+ * @author wangkai
+ */
+public class TestSpliceTo {
+
+    ChannelAcceptor echo  = new ChannelAcceptor(8302);
+    ChannelAcceptor proxy = new ChannelAcceptor(8303);
+
+    @After
+    public void clean() {
+        Util.unbind(proxy);
+        Util.unbind(echo);
+    }
+
+    @Before
+    public void server() throws Exception {
+        Assume.assumeTrue(Native.SPLICE_AVAILABLE);
+        echo.getProcessorGroup().setEnableMemoryPoolDirect(true);
+        echo.addProtocolCodec(new Forward());
+        echo.addChannelEventListener(new ChannelEventListenerAdapter() {
+            @Override
+            public void channelOpened(Channel ch) {
+                ch.setAttachment(ch);
+            }
+        });
+        echo.bind();
+        proxy.getProcessorGroup().setEnableMemoryPoolDirect(true);
+        proxy.addProtocolCodec(new Forward());
+        proxy.addChannelEventListener(new ChannelEventListenerAdapter() {
+            @Override
+            public void channelOpened(Channel ch) throws Exception {
+                ChannelConnector context = new ChannelConnector(ch.getEventLoop(), "127.0.0.1", 8302);
+                context.addProtocolCodec(new Forward());
+                context.setPrintConfig(false);
+                context.connect((target, ex) -> {
+                    if (ex == null) {
+                        target.setAttachment(ch);
+                        ch.setAttachment(target);
+                        ch.spliceTo(target);
+                        target.spliceTo(ch);
+                    } else {
+                        Util.close(ch);
+                    }
+                });
+            }
+        });
+        proxy.bind();
+    }
+
+    @Test
+    public void test() throws Exception {
+        byte[] data = new byte[1024 * 1024 * 4];
+        byte[] res  = new byte[data.length];
+        new Random().nextBytes(data);
+        try (Socket s = new Socket("127.0.0.1", 8303)) {
+            s.setSoTimeout(5000);
+            OutputStream out = s.getOutputStream();
+            InputStream  in  = s.getInputStream();
+            Util.exec(() -> {
+                try {
+                    out.write(data);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            });
+            int off = 0;
+            for (; off < res.length; ) {
+                int len = in.read(res, off, res.length - off);
+                if (len == -1) {
+                    break;
+                }
+                off += len;
+            }
+            Assert.assertEquals(data.length, off);
+            Assert.assertTrue(Arrays.equals(data, res));
+        }
+    }
+
+    // forward the bytes to the attachment if not spliced
+    static class Forward extends ProtocolCodec {
+
+        @Override
+        public Frame decode(Channel ch, ByteBuf src) {
+            Channel t = (Channel) ch.getAttachment();
+            if (t == null) {
+                return null;
+            }
+            ByteBuf buf = t.alloc().allocate(src.readableBytes());
+            buf.writeBytes(src);
+            t.writeAndFlush(buf);
+            return null;
+        }
+
+        @Override
+        public int getHeaderLength() {
+            return 0;
+        }
+
+        @Override
+        public String getProtocolId() {
+            return "forward";
+        }
+
+    }
+
+}
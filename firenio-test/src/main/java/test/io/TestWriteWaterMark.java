@@ -0,0 +1,134 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.io;
+
+import java.io.InputStream;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.firenio.buffer.ByteBuf;
+import com.firenio.codec.lengthvalue.LengthValueCodec;
+import com.firenio.common.Util;
+import com.firenio.component.Channel;
+import com.firenio.component.ChannelAcceptor;
+import com.firenio.component.ChannelEventListenerAdapter;
+import com.firenio.component.NioEventLoopGroup;
+
+import junit.framework.Assert;
+
+/**
+ * @author wangkai
+ */
+public class TestWriteWaterMark {
+
+    static final int CHUNK = 1024 * 16;
+    static final int HIGH  = 1024 * 64;
+    static final int LOW   = 1024 * 32;
+    static final int TOTAL = 1024 * 1024 * 16;
+
+    ChannelAcceptor context;
+    AtomicInteger   errors     = new AtomicInteger();
+    AtomicLong      max        = new AtomicLong();
+    AtomicInteger   unwritable = new AtomicInteger();
+    AtomicInteger   writable   = new AtomicInteger();
+    int             written;
+
+    @After
+    public void clean() {
+        Util.unbind(context);
+    }
+
+    @Before
+    public void server() throws Exception {
+        NioEventLoopGroup group = new NioEventLoopGroup(1);
+        group.setEnableMemoryPoolDirect(true);
+        context = new ChannelAcceptor(group, 8308);
+        context.setWriteBufferHighWaterMark(HIGH);
+        context.setWriteBufferLowWaterMark(LOW);
+        context.addProtocolCodec(new LengthValueCodec());
+        context.addChannelEventListener(new ChannelEventListenerAdapter() {
+
+            @Override
+            public void channelOpened(Channel ch) {
+                write(ch);
+            }
+
+            @Override
+            public void channelWritabilityChanged(Channel ch) {
+                if (ch.isWritable()) {
+                    if (ch.getPendingWriteBytes() > LOW) {
+                        errors.incrementAndGet();
+                    }
+                    writable.incrementAndGet();
+                    write(ch);
+                } else {
+                    unwritable.incrementAndGet();
+                }
+            }
+        });
+        context.bind();
+    }
+
+    // write until the channel is not writable, and continue when it is writable again
+    void write(Channel ch) {
+        for (; written < TOTAL && ch.isWritable(); ) {
+            ByteBuf buf = ch.alloc().allocate(CHUNK);
+            for (int i = 0; i < CHUNK; i++) {
+                buf.writeByte((byte) (written + i));
+            }
+            written += CHUNK;
+            ch.writeAndFlush(buf);
+            long pending = ch.getPendingWriteBytes();
+            if (pending > max.get()) {
+                max.set(pending);
+            }
+        }
+    }
+
+    @Test
+    public void test() throws Exception {
+        try (Socket s = new Socket("127.0.0.1", 8308)) {
+            s.setSoTimeout(10000);
+            InputStream in   = s.getInputStream();
+            byte[]      data = new byte[1024 * 8];
+            // read slowly at first to let the backlog go above the high water mark
+            Util.sleep(200);
+            for (int off = 0; off < TOTAL; ) {
+                int len = in.read(data);
+                Assert.assertTrue(len != -1);
+                for (int i = 0; i < len; i++) {
+                    if (data[i] != (byte) (off + i)) {
+                        errors.incrementAndGet();
+                    }
+                }
+                off += len;
+            }
+            // the writable event is fired after the last write
+            Util.sleep(100);
+        }
+        Assert.assertEquals(0, errors.get());
+        Assert.assertTrue(unwritable.get() > 0);
+        Assert.assertEquals(unwritable.get(), writable.get());
+        // the backlog is not more than a chunk above the high water mark
+        Assert.assertTrue(max.get() <= HIGH + CHUNK);
+    }
+
+}
@@ -15,6 +15,7 @@
  */
 package test.io.buffer;
 
+import com.firenio.buffer.ArenaByteBufAllocator;
 import com.firenio.buffer.ByteBufAllocatorGroup;
 import com.firenio.buffer.PooledByteBufAllocator;
 import com.firenio.common.Util;
@@ -31,7 +32,7 @@ public class TestAllocUtil {
     public static PooledByteBufAllocator direct(int cap) throws Exception {
         ByteBufAllocatorGroup group = new ByteBufAllocatorGroup(1, cap, 1, true);
         Util.start(group);
-        return group.getAllocator(0);
+        return (PooledByteBufAllocator) group.getAllocator(0);
     }
 
     public static PooledByteBufAllocator heap() throws Exception {
@@ -41,7 +42,19 @@ public class TestAllocUtil {
     public static PooledByteBufAllocator heap(int cap) throws Exception {
         ByteBufAllocatorGroup group = new ByteBufAllocatorGroup(1, cap, 1, false);
         Util.start(group);
-        return group.getAllocator(0);
+        return (PooledByteBufAllocator) group.getAllocator(0);
+    }
+
+    public static ArenaByteBufAllocator arena(int cap, boolean direct) throws Exception {
+        ByteBufAllocatorGroup group = new ByteBufAllocatorGroup(1, cap, 1, direct, true);
+        Util.start(group);
+        return (ArenaByteBufAllocator) group.getAllocator(0);
+    }
+
+    public static ArenaByteBufAllocator arena(int cap, boolean direct, int maxChunks, long chunkIdleTime) throws Exception {
+        ByteBufAllocatorGroup group = new ByteBufAllocatorGroup(1, cap, 1, direct, true, maxChunks, chunkIdleTime);
+        Util.start(group);
+        return (ArenaByteBufAllocator) group.getAllocator(0);
     }
 
 }
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.io.buffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import junit.framework.Assert;
+import org.junit.Test;
+
+import com.firenio.buffer.ArenaByteBufAllocator;
+import com.firenio.buffer.ArenaByteBufAllocator.PoolState;
+import com.firenio.buffer.ByteBuf;
+import com.firenio.buffer.ByteBufAllocatorMetric;
+import com.firenio.common.Util;
+
+/**
+ * @author wangkai
+ */
+public class TestArenaBytebuf {
+
+    @Test
+    public void testAlloc() throws Exception {
+        final ArenaByteBufAllocator a = TestAllocUtil.arena(1024 * 64, false);
+        CountDownLatch              c = new CountDownLatch(Util.availableProcessors());
+        for (int i = 0; i < Util.availableProcessors(); i++) {
+            Util.exec(() -> {
+                Random        r    = new Random();
+                List<ByteBuf> bufs = new ArrayList<>();
+                for (int j = 0; j < 99999; j++) {
+                    ByteBuf buf = a.allocate(r.nextInt(1024) + 1);
+                    bufs.add(buf);
+                    if (j % 3 != 0) {
+                        bufs.remove(r.nextInt(bufs.size())).release();
+                    }
+                }
+                for (ByteBuf buf : bufs) {
+                    buf.release();
+                }
+                c.countDown();
+            });
+        }
+        c.await();
+        PoolState s = a.getState();
+        Assert.assertEquals(0, s.buf);
+        Assert.assertEquals(s.free, s.memory);
+        Assert.assertEquals(s.mfree, s.memory);
+    }
+
+    @Test
+    public void testThreadCache() throws Exception {
+        final ArenaByteBufAllocator a    = TestAllocUtil.arena(1024 * 64, false);
+        final List<ByteBuf>         bufs = new ArrayList<>();
+        a.bindThread(Thread.currentThread());
+        for (int i = 0; i < 99999; i++) {
+            ByteBuf buf = a.allocate(i % 4096 + 1);
+            if (i % 2 == 0) {
+                buf.release();
+            } else {
+                bufs.add(buf);
+            }
+            if (bufs.size() == 64) {
+                final List<ByteBuf> remote = new ArrayList<>(bufs);
+                bufs.clear();
+                Thread t = new Thread(() -> {
+                    for (ByteBuf b : remote) {
+                        b.release();
+                    }
+                });
+                t.start();
+                t.join();
+            }
+        }
+        for (ByteBuf buf : bufs) {
+            buf.release();
+        }
+        a.unbindThread();
+        PoolState s = a.getState();
+        Assert.assertEquals(0, s.buf);
+        Assert.assertEquals(s.free, s.memory);
+        Assert.assertEquals(s.mfree, s.memory);
+    }
+
+    @Test
+    public void testUnbindRace() throws Exception {
+        // the remote frees offered while the owner is unbinding are not lost
+        for (int i = 0; i < 200; i++) {
+            final ArenaByteBufAllocator a    = TestAllocUtil.arena(1024 * 64, false);
+            final List<ByteBuf>         bufs = new ArrayList<>();
+            a.bindThread(Thread.currentThread());
+            for (int j = 0; j < 256; j++) {
+                bufs.add(a.allocate(j % 512 + 1));
+            }
+            Thread t = new Thread(() -> {
+                for (ByteBuf b : bufs) {
+                    b.release();
+                }
+            });
+            t.start();
+            a.unbindThread();
+            t.join();
+            PoolState s = a.getState();
+            Assert.assertEquals(0, s.buf);
+            Assert.assertEquals(s.free, s.memory);
+        }
+    }
+
+    @Test
+    public void testGrowth() throws Exception {
+        ArenaByteBufAllocator a    = TestAllocUtil.arena(1024, true, 4, 100);
+        List<ByteBuf>         bufs = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ByteBuf buf = a.allocate(600);
+            Assert.assertTrue(buf.isPooled());
+            bufs.add(buf);
+        }
+        Assert.assertEquals(4, a.getState().chunk);
+        Assert.assertFalse(a.allocate(600).isPooled());
+        bufs.get(1).release();
+        ByteBuf buf = bufs.remove(2);
+        buf.writeBytes(new byte[600]);
+        buf.writeByte((byte) 1);
+        Assert.assertEquals(1, buf.getByte(600));
+        bufs.remove(1);
+        bufs.add(buf);
+        for (ByteBuf b : bufs) {
+            b.release();
+        }
+        Thread.sleep(200);
+        a.trim();
+        PoolState s = a.getState();
+        Assert.assertEquals(1, s.chunk);
+        Assert.assertEquals(0, s.buf);
+        Assert.assertEquals(s.free, s.memory);
+    }
+
+    @Test
+    public void testMetric() throws Exception {
+        ArenaByteBufAllocator a    = TestAllocUtil.arena(1024, true, 2, 100);
+        List<ByteBuf>         bufs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            bufs.add(a.allocate(600));
+        }
+        ByteBufAllocatorMetric m = a.getMetric();
+        Assert.assertEquals(3, m.getAllocations());
+        Assert.assertEquals(1, m.getUnpooledFallbacks());
+        Assert.assertEquals(2, m.getOutstandingBufs());
+        Assert.assertEquals(2, m.getChunks());
+        Assert.assertEquals(1024 * 2, m.getCapacity());
+        for (ByteBuf b : bufs) {
+            b.release();
+        }
+        m = a.getMetric();
+        Assert.assertEquals(0, m.getOutstandingBufs());
+        Assert.assertEquals(0, m.getUsedBytes());
+    }
+
+    @Test
+    public void testExpansion() throws Exception {
+        ArenaByteBufAllocator a    = TestAllocUtil.arena(1024 * 4, true);
+        ByteBuf               buf  = a.allocate(2);
+        ByteBuf               hole = a.allocate(1);
+        for (int i = 0; i < 100; i++) {
+            buf.writeByte((byte) i);
+        }
+        hole.release();
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals((byte) i, buf.getByte(i));
+        }
+        buf.release();
+        PoolState s = a.getState();
+        Assert.assertEquals(0, s.buf);
+        Assert.assertEquals(s.mfree, s.memory);
+    }
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.io.buffer;
+
+import junit.framework.Assert;
+import org.junit.Test;
+
+import com.firenio.buffer.ArenaByteBufAllocator;
+import com.firenio.buffer.ByteBuf;
+import com.firenio.buffer.ByteBufLeakDetector;
+
+/**
+ * @author wangkai
+ */
+public class TestByteBufLeakDetector {
+
+    @Test
+    public void testLeak() throws Exception {
+        ArenaByteBufAllocator a = TestAllocUtil.arena(1024 * 64, true);
+        ByteBufLeakDetector.setInterval(1);
+        try {
+            long leaks = ByteBufLeakDetector.getLeaks();
+            for (int i = 0; i < 100; i++) {
+                ByteBuf buf = a.allocate(100);
+                buf.retain();
+                buf.release();
+                if (i % 10 != 0) {
+                    buf.release();
+                }
+            }
+            for (int i = 0; i < 10 && ByteBufLeakDetector.getLeaks() - leaks < 10; i++) {
+                System.gc();
+                Thread.sleep(100);
+                ByteBufLeakDetector.detect();
+            }
+            Assert.assertEquals(10, ByteBufLeakDetector.getLeaks() - leaks);
+            Assert.assertEquals(0, ByteBufLeakDetector.getTracked());
+            Assert.assertTrue(ByteBufLeakDetector.getReports().get(0).contains("retain"));
+        } finally {
+            ByteBufLeakDetector.setInterval(0);
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.io.buffer;
+
+import junit.framework.Assert;
+import org.junit.Test;
+
+import com.firenio.buffer.ByteBuf;
+import com.firenio.buffer.CompositeByteBuf;
+
+/**
+ * @author wangkai
+ */
+public class TestCompositeByteBuf {
+
+    static byte[] data(int off, int len) {
+        byte[] b = new byte[len];
+        for (int i = 0; i < len; i++) {
+            b[i] = (byte) (off + i);
+        }
+        return b;
+    }
+
+    @Test
+    public void testRead() {
+        ByteBuf a = ByteBuf.buffer(16);
+        ByteBuf b = ByteBuf.heap(16);
+        a.writeBytes(data(0, 10));
+        a.skipRead(3);
+        b.writeBytes(data(10, 10));
+        CompositeByteBuf c = new CompositeByteBuf(a, b);
+        Assert.assertEquals(17, c.readableBytes());
+        for (int i = 0; i < 17; i++) {
+            Assert.assertEquals(i + 3, c.getByte(i));
+        }
+        Assert.assertEquals((8 << 24) | (9 << 16) | (10 << 8) | 11, c.getInt(5));
+        Assert.assertEquals(Integer.reverseBytes(c.getInt(5)), c.getIntLE(5));
+        Assert.assertEquals(12, c.indexOf((byte) 15));
+        Assert.assertEquals(2, c.lastIndexOf((byte) 5));
+        ByteBuf flat = ByteBuf.buffer(17);
+        flat.writeBytes(c);
+        Assert.assertEquals(17, flat.readableBytes());
+        Assert.assertEquals(19, flat.getByte(16));
+        c.release();
+        Assert.assertTrue(a.isReleased());
+    }
+
+    @Test
+    public void testPollComponent() {
+        ByteBuf a = ByteBuf.buffer(16);
+        ByteBuf b = ByteBuf.buffer(16);
+        a.writeBytes(data(0, 10));
+        b.writeBytes(data(10, 10));
+        CompositeByteBuf c = new CompositeByteBuf(a, b);
+        c.skipRead(12);
+        ByteBuf p = c.pollComponent();
+        Assert.assertSame(b, p);
+        Assert.assertEquals(8, p.readableBytes());
+        Assert.assertEquals(12, p.readByte());
+        Assert.assertNull(c.pollComponent());
+        Assert.assertTrue(a.isReleased());
+        c.release();
+        Assert.assertFalse(b.isReleased());
+        b.release();
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.io.buffer;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.firenio.buffer.ByteBuf;
+import com.firenio.buffer.PooledByteBufAllocator;
+import com.firenio.common.Assert;
+
+/**
+ * @author wangkai
+ */
+public class TestIndexOf {
+
+    static void test(ByteBuf buf) {
+        Random r    = new Random();
+        byte[] data = new byte[256];
+        for (int n = 0; n < 10000; n++) {
+            // mostly one byte, so the searched byte is at any position or not found
+            for (int i = 0; i < data.length; i++) {
+                data[i] = (byte) (r.nextInt(16) == 0 ? r.nextInt(256) : 'a');
+            }
+            buf.clear();
+            buf.writeBytes(data);
+            byte b     = (byte) (r.nextBoolean() ? '\n' : r.nextInt(256));
+            int  start = r.nextInt(data.length);
+            int  size  = r.nextInt(data.length - start + 1);
+            int  res   = -1;
+            for (int i = start; i < start + size; i++) {
+                if (data[i] == b) {
+                    res = buf.absReadIndex() + i;
+                    break;
+                }
+            }
+            Assert.expectEquals(res, buf.indexOf(b, buf.absReadIndex() + start, size));
+        }
+        buf.release();
+    }
+
+    @Test
+    public void direct() {
+        test(ByteBuf.direct(256));
+    }
+
+    @Test
+    public void directPool() throws Exception {
+        PooledByteBufAllocator alloc = TestAllocUtil.direct(1024 * 4);
+        // not aligned to 8 bytes
+        alloc.allocate(3);
+        test(alloc.allocate(256));
+    }
+
+    @Test
+    public void heap() {
+        test(ByteBuf.heap(256));
+    }
+
+    @Test
+    public void heapPool() throws Exception {
+        PooledByteBufAllocator alloc = TestAllocUtil.heap(1024 * 4);
+        alloc.allocate(3);
+        test(alloc.allocate(256));
+    }
+
+}
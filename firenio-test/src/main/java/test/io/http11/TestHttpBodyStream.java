@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.io.http11;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.firenio.codec.http11.HttpCodec;
+import com.firenio.codec.http11.HttpFrame;
+import com.firenio.common.Util;
+import com.firenio.component.Channel;
+import com.firenio.component.ChannelAcceptor;
+import com.firenio.component.Frame;
+import com.firenio.component.IoEventHandle;
+import com.firenio.component.NioEventLoopGroup;
+
+import junit.framework.Assert;
+
+/**
+ * @author wangkai
+ */
+public class TestHttpBodyStream {
+
+    // larger than the body limit of the codec
+    static final int BODY = 1024 * 1024 * 4;
+
+    ChannelAcceptor              context;
+    TestHttpUtil.SumBodyListener listener = new TestHttpUtil.SumBodyListener("/upload");
+
+    @After
+    public void clean() {
+        Util.unbind(context);
+    }
+
+    @Before
+    public void server() throws Exception {
+        NioEventLoopGroup group = new NioEventLoopGroup(1);
+        group.setEnableMemoryPoolDirect(true);
+        context = new ChannelAcceptor(group, 8309);
+        context.addProtocolCodec(new HttpCodec("firenio", 0, listener));
+        context.setIoEventHandle(new IoEventHandle() {
+
+            @Override
+            public void accept(Channel ch, Frame frame) throws Exception {
+                HttpFrame f = (HttpFrame) frame;
+                if (f.isBodyStream()) {
+                    // responded when the body is complete
+                    return;
+                }
+                byte[] content = f.getArrayContent();
+                f.setString(f.getRequestURL() + ":" + (content == null ? 0 : content.length), ch);
+                ch.writeAndFlush(f);
+            }
+        });
+        context.bind();
+    }
+
+    @Test
+    public void test() throws Exception {
+        Random r    = new Random();
+        byte[] body = new byte[BODY];
+        r.nextBytes(body);
+        long sum = 0;
+        for (byte b : body) {
+            sum += b & 0xff;
+        }
+        ByteArrayOutputStream req = new ByteArrayOutputStream();
+        req.write(("POST /upload HTTP/1.1\r\nContent-Length: " + BODY + "\r\n\r\n").getBytes());
+        req.write(body);
+        // the requests after the streamed body are decoded as before
+        req.write("POST /small HTTP/1.1\r\nContent-Length: 5\r\n\r\nhelloGET /get HTTP/1.1\r\n\r\n".getBytes());
+        byte[] data = req.toByteArray();
+        try (Socket s = new Socket("127.0.0.1", 8309)) {
+            s.setSoTimeout(10000);
+            OutputStream out = s.getOutputStream();
+            for (int off = 0; off < data.length; ) {
+                int len = Math.min(data.length - off, 1 + r.nextInt(1024 * 128));
+                out.write(data, off, len);
+                off += len;
+            }
+            InputStream in = s.getInputStream();
+            Assert.assertEquals("/upload:" + BODY + ":" + sum, TestHttpUtil.readResponse(in));
+            Assert.assertEquals("/small:5", TestHttpUtil.readResponse(in));
+            Assert.assertEquals("/get:0", TestHttpUtil.readResponse(in));
+        }
+    }
+
+    @Test
+    public void testHeadersOnce() throws Exception {
+        // the body is buffered by the codec, it spans several reads
+        try (Socket s = new Socket("127.0.0.1", 8309)) {
+            s.setSoTimeout(10000);
+            OutputStream out = s.getOutputStream();
+            out.write("POST /small HTTP/1.1\r\nContent-Length: 10\r\n\r\nhel".getBytes());
+            out.flush();
+            Thread.sleep(50);
+            out.write("lo wo".getBytes());
+            out.flush();
+            Thread.sleep(50);
+            out.write("rl".getBytes());
+            out.flush();
+            Assert.assertEquals("/small:10", TestHttpUtil.readResponse(s.getInputStream()));
+            Assert.assertEquals(1, listener.getHeaders());
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.io.http11;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.firenio.buffer.ByteBuf;
+import com.firenio.codec.http11.HttpCodec;
+import com.firenio.codec.http11.HttpFrame;
+import com.firenio.common.Util;
+import com.firenio.component.Channel;
+import com.firenio.component.ChannelAcceptor;
+import com.firenio.component.Frame;
+import com.firenio.component.IoEventHandle;
+import com.firenio.component.NioEventLoopGroup;
+
+import junit.framework.Assert;
+
+/**
+ * @author wangkai
+ */
+public class TestHttpChunked {
+
+    static final int STREAM = 1024 * 1024;
+
+    ChannelAcceptor context;
+
+    @After
+    public void clean() {
+        Util.unbind(context);
+    }
+
+    @Before
+    public void server() throws Exception {
+        NioEventLoopGroup group = new NioEventLoopGroup(1);
+        group.setEnableMemoryPoolDirect(true);
+        context = new ChannelAcceptor(group, 8310);
+        context.addProtocolCodec(new HttpCodec("firenio", 0, new TestHttpUtil.SumBodyListener("/stream")));
+        context.setIoEventHandle(new IoEventHandle() {
+
+            @Override
+            public void accept(Channel ch, Frame frame) throws Exception {
+                HttpFrame f = (HttpFrame) frame;
+                if (f.isBodyStream()) {
+                    return;
+                }
+                if ("/echo".equals(f.getRequestURL())) {
+                    // echo the body by a chunked response
+                    Assert.assertTrue(f.isChunked());
+                    f.setResponseChunked(true);
+                    ch.writeAndFlush(f);
+                    f.writeChunk(ch, "!".getBytes());
+                    ByteBuf buf = ch.alloc().allocate(16);
+                    buf.writeBytes("?".getBytes());
+                    f.writeChunk(ch, buf);
+                    f.writeLastChunk(ch);
+                } else {
+                    f.setString(f.getRequestURL(), ch);
+                    ch.writeAndFlush(f);
+                }
+            }
+        });
+        context.bind();
+    }
+
+    @Test
+    public void test() throws Exception {
+        Random                r   = new Random();
+        ByteArrayOutputStream req = new ByteArrayOutputStream();
+        req.write("POST /echo HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n".getBytes());
+        req.write("5;ext=1\r\nhello\r\n6\r\n world\r\n0\r\nTrailer: x\r\n\r\n".getBytes());
+        req.write("POST /stream HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n".getBytes());
+        byte[] body = new byte[STREAM];
+        r.nextBytes(body);
+        long sum = 0;
+        for (byte b : body) {
+            sum += b & 0xff;
+        }
+        for (int off = 0; off < body.length; ) {
+            int len = Math.min(body.length - off, 1 + r.nextInt(5000));
+            req.write((Integer.toHexString(len) + "\r\n").getBytes());
+            req.write(body, off, len);
+            req.write("\r\n".getBytes());
+            off += len;
+        }
+        req.write("0\r\n\r\n".getBytes());
+        req.write("GET /get HTTP/1.1\r\n\r\n".getBytes());
+        byte[] data = req.toByteArray();
+        try (Socket s = new Socket("127.0.0.1", 8310)) {
+            s.setSoTimeout(10000);
+            OutputStream out = s.getOutputStream();
+            for (int off = 0; off < data.length; ) {
+                int len = Math.min(data.length - off, 1 + r.nextInt(r.nextBoolean() ? 16 : 1024 * 64));
+                out.write(data, off, len);
+                off += len;
+            }
+            InputStream in = s.getInputStream();
+            Assert.assertEquals("hello world!?", TestHttpUtil.readResponse(in));
+            Assert.assertEquals("/stream:" + STREAM + ":" + sum, TestHttpUtil.readResponse(in));
+            Assert.assertEquals("/get", TestHttpUtil.readResponse(in));
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.io.http11;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.firenio.codec.http11.HttpCodec;
+import com.firenio.codec.http11.HttpFrame;
+import com.firenio.codec.http11.HttpHeader;
+import com.firenio.common.Util;
+import com.firenio.component.Channel;
+import com.firenio.component.ChannelAcceptor;
+import com.firenio.component.Frame;
+import com.firenio.component.IoEventHandle;
+import com.firenio.component.NioEventLoopGroup;
+
+import junit.framework.Assert;
+
+/**
+ * @author wangkai
+ */
+public class TestHttpHeaderScan {
+
+    static final int REQUESTS = 1000;
+
+    ChannelAcceptor context;
+
+    @After
+    public void clean() {
+        Util.unbind(context);
+    }
+
+    @Before
+    public void server() throws Exception {
+        NioEventLoopGroup group = new NioEventLoopGroup(1);
+        group.setEnableMemoryPoolDirect(true);
+        context = new ChannelAcceptor(group, 8311);
+        context.addProtocolCodec(new HttpCodec("firenio", 0));
+        context.setIoEventHandle(new IoEventHandle() {
+
+            @Override
+            public void accept(Channel ch, Frame frame) throws Exception {
+                HttpFrame f = (HttpFrame) frame;
+                String    s = f.getRequestHeader(HttpHeader.Host) + "|" + f.getRequestHeader(HttpHeader.User_Agent) + "|" + f.getRequestHeader(HttpHeader.Accept) + "|" + f.getRequestHeaders().size();
+                f.setString(s, ch);
+                ch.writeAndFlush(f);
+            }
+        });
+        context.bind();
+    }
+
+    @Test
+    public void test() throws Exception {
+        Random                r   = new Random();
+        ByteArrayOutputStream req = new ByteArrayOutputStream();
+        for (int i = 0; i < REQUESTS; i++) {
+            // mixed case names, unknown headers, empty values and lines without colon
+            req.write(("GET /h" + i + " HTTP/1.1\r\n").getBytes());
+            req.write(("hOsT:  example.com" + i + "\r\n").getBytes());
+            req.write("X-Unknown-Header-Name: some value\r\n".getBytes());
+            req.write("no colon line\r\n".getBytes());
+            req.write(("USER-AGENT:firenio/" + i + "\n").getBytes());
+            req.write("accept:\r\n".getBytes());
+            req.write("\r\n".getBytes());
+        }
+        byte[] data = req.toByteArray();
+        try (Socket s = new Socket("127.0.0.1", 8311)) {
+            s.setSoTimeout(10000);
+            OutputStream out = s.getOutputStream();
+            for (int off = 0; off < data.length; ) {
+                int len = Math.min(data.length - off, 1 + r.nextInt(r.nextBoolean() ? 16 : 1024 * 8));
+                out.write(data, off, len);
+                off += len;
+            }
+            InputStream in = s.getInputStream();
+            for (int i = 0; i < REQUESTS; i++) {
+                Assert.assertEquals("example.com" + i + "|firenio/" + i + "||3", TestHttpUtil.readResponse(in));
+            }
+        }
+    }
+
+}
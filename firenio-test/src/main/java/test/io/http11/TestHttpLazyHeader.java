@@ -0,0 +1,144 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.io.http11;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.firenio.codec.http11.HttpCodec;
+import com.firenio.codec.http11.HttpFrame;
+import com.firenio.codec.http11.HttpHeader;
+import com.firenio.common.Util;
+import com.firenio.component.Channel;
+import com.firenio.component.ChannelAcceptor;
+import com.firenio.component.Frame;
+import com.firenio.component.IoEventHandle;
+import com.firenio.component.NioEventLoopGroup;
+
+import junit.framework.Assert;
+
+/**
+ * @author wangkai
+ */
+public class TestHttpLazyHeader {
+
+    static final int REQUESTS = 1000;
+
+    ChannelAcceptor context;
+    ChannelAcceptor liteContext;
+
+    @After
+    public void clean() {
+        Util.unbind(context);
+        Util.unbind(liteContext);
+    }
+
+    @Before
+    public void server() throws Exception {
+        NioEventLoopGroup group = new NioEventLoopGroup(1);
+        group.setEnableMemoryPoolDirect(true);
+        context = new ChannelAcceptor(group, 8312);
+        // the frames are cached, the headers and params of the last request should not be seen
+        context.addProtocolCodec(new HttpCodec("firenio", 16));
+        context.setIoEventHandle(new IoEventHandle() {
+
+            @Override
+            public void accept(Channel ch, Frame frame) throws Exception {
+                HttpFrame f = (HttpFrame) frame;
+                String    c;
+                if (f.getRequestURL().endsWith("3")) {
+                    c = f.getRequestHeaders().get(HttpHeader.Cookie.getId());
+                } else {
+                    c = f.getRequestHeader(HttpHeader.Cookie);
+                }
+                f.setString(f.getRequestURL() + "|" + f.getRequestParam("a") + "|" + f.getRequestParam("b") + "|" + f.getHost() + "|" + c, ch);
+                ch.writeAndFlush(f);
+            }
+        });
+        context.bind();
+        liteContext = new ChannelAcceptor(group, 8313);
+        liteContext.addProtocolCodec(new HttpCodec("firenio", 16, true, false));
+        liteContext.setIoEventHandle(new IoEventHandle() {
+
+            @Override
+            public void accept(Channel ch, Frame frame) throws Exception {
+                HttpFrame f = (HttpFrame) frame;
+                f.setString(f.getRequestURL() + "|" + f.getRequestParam("a") + "|" + f.getRequestParam("b"), ch);
+                ch.writeAndFlush(f);
+            }
+        });
+        liteContext.bind();
+    }
+
+    @Test
+    public void test() throws Exception {
+        ByteArrayOutputStream req = new ByteArrayOutputStream();
+        String[]              res = new String[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            if (i % 2 == 0) {
+                req.write(("GET /p" + i + "?a=" + i + "&b=x" + i + " HTTP/1.1\r\n").getBytes());
+                req.write(("Host: h" + i + "\r\n").getBytes());
+                req.write(("Cookie: c=" + i + "\r\nCookie: c=last" + i + "\r\n\r\n").getBytes());
+                res[i] = "/p" + i + "|" + i + "|x" + i + "|h" + i + "|c=last" + i;
+            } else {
+                req.write(("GET /p" + i + " HTTP/1.1\r\n\r\n").getBytes());
+                res[i] = "/p" + i + "|null|null|null|null";
+            }
+        }
+        test(8312, req.toByteArray(), res);
+    }
+
+    @Test
+    public void testLite() throws Exception {
+        ByteArrayOutputStream req = new ByteArrayOutputStream();
+        String[]              res = new String[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            if (i % 2 == 0) {
+                req.write(("GET /p" + i + "?a=" + i + "&b=x" + i + " HTTP/1.1\r\nHost: h\r\n\r\n").getBytes());
+                res[i] = "/p" + i + "|" + i + "|x" + i;
+            } else {
+                req.write(("GET /p" + i + " HTTP/1.1\r\n\r\n").getBytes());
+                res[i] = "/p" + i + "|null|null";
+            }
+        }
+        test(8313, req.toByteArray(), res);
+    }
+
+    static void test(int port, byte[] data, String[] res) throws Exception {
+        Random r = new Random();
+        try (Socket s = new Socket("127.0.0.1", port)) {
+            s.setSoTimeout(10000);
+            OutputStream out = s.getOutputStream();
+            for (int off = 0; off < data.length; ) {
+                int len = Math.min(data.length - off, 1 + r.nextInt(r.nextBoolean() ? 16 : 1024 * 8));
+                out.write(data, off, len);
+                off += len;
+            }
+            InputStream in = s.getInputStream();
+            for (int i = 0; i < res.length; i++) {
+                Assert.assertEquals(res[i], TestHttpUtil.readResponse(in));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.io.http11;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.firenio.codec.http11.HttpCodec;
+import com.firenio.codec.http11.HttpFrame;
+import com.firenio.common.Util;
+import com.firenio.component.Channel;
+import com.firenio.component.ChannelAcceptor;
+import com.firenio.component.Frame;
+import com.firenio.component.IoEventHandle;
+import com.firenio.component.NioEventLoopGroup;
+import com.firenio.concurrent.ExecutorEventLoopGroup;
+
+import junit.framework.Assert;
+
+/**
+ * @author wangkai
+ */
+public class TestHttpPipeline {
+
+    static final String[] METHODS  = {"GET", "POST", "PUT", "DELETE", "HEAD", "OPTIONS", "PATCH", "TRACE"};
+    static final int      REQUESTS = 2000;
+
+    ChannelAcceptor context;
+    ChannelAcceptor liteContext;
+
+    @After
+    public void clean() {
+        Util.unbind(context);
+        Util.unbind(liteContext);
+    }
+
+    @Before
+    public void server() throws Exception {
+        IoEventHandle handle = new IoEventHandle() {
+
+            @Override
+            public void accept(Channel ch, Frame frame) throws Exception {
+                HttpFrame f       = (HttpFrame) frame;
+                byte[]    content = f.getArrayContent();
+                if ("/error".equals(f.getRequestURL())) {
+                    throw new AssertionError("error in handler");
+                }
+                if (new Random().nextInt(100) == 0) {
+                    // let the later requests go ahead if they are accepted at the same time
+                    Util.sleep(2);
+                }
+                f.setString(f.getMethod().getValue() + " " + f.getRequestURL() + " " + (content == null ? "" : new String(content)), ch);
+                ch.writeAndFlush(f);
+            }
+        };
+        NioEventLoopGroup group = new NioEventLoopGroup(1);
+        group.setEnableMemoryPoolDirect(true);
+        context = new ChannelAcceptor(group, 8314);
+        // the frames are accepted by many threads
+        context.setExecutorGroup(new ExecutorEventLoopGroup("http-exec", 8, 1024 * 8));
+        context.addProtocolCodec(new HttpCodec("firenio", 0));
+        context.setIoEventHandle(handle);
+        context.bind();
+        liteContext = new ChannelAcceptor(group, 8315);
+        liteContext.addProtocolCodec(new HttpCodec("firenio", 0, true, false));
+        liteContext.setIoEventHandle(handle);
+        liteContext.bind();
+    }
+
+    @Test
+    public void test() throws Exception {
+        test(8314);
+    }
+
+    @Test
+    public void testLite() throws Exception {
+        test(8315);
+    }
+
+    @Test
+    public void testError() throws Exception {
+        // the frames after an error in the handler are still executed
+        try (Socket s = new Socket("127.0.0.1", 8314)) {
+            s.setSoTimeout(10000);
+            s.getOutputStream().write("GET /error HTTP/1.1\r\n\r\nGET /next HTTP/1.1\r\n\r\n".getBytes());
+            Assert.assertEquals("GET /next ", TestHttpUtil.readResponse(s.getInputStream(), false));
+        }
+    }
+
+    static void test(int port) throws Exception {
+        Random                r   = new Random();
+        ByteArrayOutputStream req = new ByteArrayOutputStream();
+        String[]              res = new String[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            String m = METHODS[r.nextInt(METHODS.length)];
+            if (m.equals("POST") || m.equals("PUT") || m.equals("PATCH")) {
+                String body = "b" + i;
+                req.write((m + " /r" + i + " HTTP/1.1\r\nContent-Length: " + body.length() + "\r\n\r\n" + body).getBytes());
+                res[i] = m + " /r" + i + " " + body;
+            } else {
+                req.write((m + " /r" + i + " HTTP/1.1\r\n\r\n").getBytes());
+                // no body in the response of HEAD
+                res[i] = m.equals("HEAD") ? "" : m + " /r" + i + " ";
+            }
+        }
+        byte[] data = req.toByteArray();
+        try (Socket s = new Socket("127.0.0.1", port)) {
+            s.setSoTimeout(10000);
+            OutputStream out = s.getOutputStream();
+            for (int off = 0; off < data.length; ) {
+                int len = Math.min(data.length - off, 1 + r.nextInt(1024 * 16));
+                out.write(data, off, len);
+                off += len;
+            }
+            InputStream in = s.getInputStream();
+            for (int i = 0; i < REQUESTS; i++) {
+                Assert.assertEquals(res[i], TestHttpUtil.readResponse(in, res[i].isEmpty()));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.io.http11;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+
+import com.firenio.buffer.ByteBuf;
+import com.firenio.codec.http11.HttpBodyListener;
+import com.firenio.codec.http11.HttpFrame;
+import com.firenio.component.Channel;
+
+import junit.framework.Assert;
+
+/**
+ * @author wangkai
+ */
+public class TestHttpUtil {
+
+    public static byte[] read(InputStream in, int len) throws Exception {
+        byte[] b = new byte[len];
+        for (int off = 0; off < len; ) {
+            int r = in.read(b, off, len - off);
+            Assert.assertTrue("closed before the body is read", r != -1);
+            off += r;
+        }
+        return b;
+    }
+
+    public static String readLine(InputStream in) throws Exception {
+        StringBuilder line = new StringBuilder();
+        for (; line.length() < 2 || line.charAt(line.length() - 1) != '\n'; ) {
+            int b = in.read();
+            Assert.assertTrue("closed before the line is read", b != -1);
+            line.append((char) b);
+        }
+        return line.substring(0, line.length() - 2);
+    }
+
+    public static String readResponse(InputStream in) throws Exception {
+        return readResponse(in, false);
+    }
+
+    // the body of the response to a HEAD request is not read
+    public static String readResponse(InputStream in, boolean head) throws Exception {
+        int     len     = -1;
+        boolean chunked = false;
+        for (String line = readLine(in); line.length() > 0; line = readLine(in)) {
+            if (line.startsWith("Content-Length: ")) {
+                len = Integer.parseInt(line.substring(16));
+            } else if (line.equals("Transfer-Encoding: chunked")) {
+                chunked = true;
+            }
+        }
+        if (head) {
+            Assert.assertTrue(len != -1);
+            return "";
+        }
+        if (!chunked) {
+            return new String(read(in, Math.max(len, 0)));
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (int size = Integer.parseInt(readLine(in), 16); size > 0; size = Integer.parseInt(readLine(in), 16)) {
+            body.write(read(in, size));
+            Assert.assertEquals("", readLine(in));
+        }
+        Assert.assertEquals("", readLine(in));
+        return body.toString();
+    }
+
+    // sums the body of the url, it is responded with url:count:sum when the body is complete
+    public static class SumBodyListener implements HttpBodyListener {
+
+        final String url;
+        long         count;
+        volatile int headers;
+        long         sum;
+
+        public SumBodyListener(String url) {
+            this.url = url;
+        }
+
+        public int getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public boolean onHeaders(Channel ch, HttpFrame f) {
+            headers++;
+            count = 0;
+            sum = 0;
+            return url.equals(f.getRequestURL());
+        }
+
+        @Override
+        public void onBody(Channel ch, HttpFrame f, ByteBuf buf) {
+            for (; buf.hasReadableBytes(); ) {
+                sum += buf.readByte() & 0xff;
+                count++;
+            }
+        }
+
+        @Override
+        public void onBodyComplete(Channel ch, HttpFrame f) throws Exception {
+            f.setString(f.getRequestURL() + ":" + count + ":" + sum, ch);
+            ch.writeAndFlush(f);
+        }
+
+    }
+
+}
@@ -35,4 +35,9 @@ public class SetOptionListener implements ChannelEventListener {
         ch.setOption(SocketOptions.TCP_NODELAY, 1);
     }
 
+    @Override
+    public void channelWritabilityChanged(Channel ch) {
+
+    }
+
 }
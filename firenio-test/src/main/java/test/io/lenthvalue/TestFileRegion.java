@@ -0,0 +1,108 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.io.lenthvalue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.firenio.buffer.ByteBuf;
+import com.firenio.codec.lengthvalue.LengthValueCodec;
+import com.firenio.codec.lengthvalue.LengthValueFrame;
+import com.firenio.common.Util;
+import com.firenio.component.Channel;
+import com.firenio.component.ChannelAcceptor;
+import com.firenio.component.ChannelConnector;
+import com.firenio.component.FileRegion;
+import com.firenio.component.Frame;
+import com.firenio.component.IoEventHandle;
+import com.firenio.component.Native;
+import com.firenio.concurrent.Waiter;
+
+import junit.framework.Assert;
+
+/**
+ * @author wangkai
+ */
+public class TestFileRegion {
+
+    static final int LIMIT = 1024 * 512;
+
+    ChannelAcceptor context = new ChannelAcceptor(8301);
+    File            file;
+    String          text;
+
+    @After
+    public void clean() {
+        Util.unbind(context);
+        if (file != null) {
+            file.delete();
+        }
+    }
+
+    @Before
+    public void server() throws Exception {
+        Assume.assumeTrue(Native.SENDFILE_AVAILABLE);
+        StringBuilder b = new StringBuilder();
+        for (int i = 0; b.length() < 1024 * 300; i++) {
+            b.append(i).append(',');
+        }
+        text = b.toString();
+        file = File.createTempFile("firenio", ".txt");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(text.getBytes(Util.UTF8));
+        }
+        context.setIoEventHandle(new IoEventHandle() {
+            @Override
+            public void accept(Channel ch, Frame f) throws Exception {
+                FileRegion region = new FileRegion(file);
+                ByteBuf    header = ch.alloc().allocate(4);
+                header.writeInt((int) region.remaining());
+                ch.write(header);
+                ch.writeAndFlush(region);
+            }
+        });
+        context.getProcessorGroup().setEnableMemoryPoolDirect(true);
+        context.addProtocolCodec(new LengthValueCodec(LIMIT));
+        context.bind();
+    }
+
+    @Test
+    public void test() throws Exception {
+        Waiter<String>   w         = new Waiter<>();
+        ChannelConnector connector = new ChannelConnector(8301);
+        connector.getProcessorGroup().setEnableMemoryPoolDirect(true);
+        connector.setIoEventHandle(new IoEventHandle() {
+            @Override
+            public void accept(Channel ch, Frame f) throws Exception {
+                w.call(f.getStringContent(), null);
+            }
+        });
+        connector.addProtocolCodec(new LengthValueCodec(LIMIT));
+        Channel          ch = connector.connect();
+        LengthValueFrame f  = new LengthValueFrame();
+        f.setString("file", ch);
+        ch.writeAndFlush(f);
+        w.await(3000);
+        Util.close(connector);
+        Assert.assertEquals(text, w.getResponse());
+    }
+
+}
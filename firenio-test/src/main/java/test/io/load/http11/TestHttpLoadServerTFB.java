@@ -52,6 +52,7 @@ public class TestHttpLoadServerTFB {
     public static void main(String[] args) throws Exception {
         boolean lite       = Util.getBooleanProperty("lite");
         boolean read       = Util.getBooleanProperty("read");
+        boolean reusePort  = Util.getBooleanProperty("reusePort");
         boolean pool       = true;
         boolean direct     = true;
         boolean inline     = true;
@@ -126,6 +127,7 @@ public class TestHttpLoadServerTFB {
         group.setWriteBuffers(32);
         group.setEventLoopSize(Util.availableProcessors() * core);
         group.setConcurrentFrameStack(false);
+        context.setReusePort(reusePort);
         context.addProtocolCodec(codec);
         if (print_open) {
             context.addChannelEventListener(new ChannelEventListener() {
@@ -139,6 +141,9 @@ public class TestHttpLoadServerTFB {
                 public void channelClosed(Channel ch) {
                     System.out.println("close " + Util.now_f());
                 }
+
+                @Override
+                public void channelWritabilityChanged(Channel ch) {}
             });
         }
         context.addChannelEventListener(new ChannelEventListenerAdapter() {
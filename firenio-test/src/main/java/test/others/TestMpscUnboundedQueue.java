@@ -0,0 +1,81 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.others;
+
+import org.junit.Test;
+
+import com.firenio.collection.MpscUnboundedQueue;
+import com.firenio.common.Assert;
+
+/**
+ * @author wangkai
+ */
+public class TestMpscUnboundedQueue {
+
+    @Test
+    public void testPollAndDrain() {
+        MpscUnboundedQueue<Integer> queue = new MpscUnboundedQueue<>(4);
+        for (int i = 0; i < 10; i++) {
+            queue.offer(i);
+        }
+        Assert.expectEquals(10, queue.size());
+        Assert.expectEquals(0, queue.poll());
+        Integer[] dst  = new Integer[6];
+        int       size = queue.drain(dst);
+        Assert.expectEquals(6, size);
+        for (int i = 0; i < size; i++) {
+            Assert.expectEquals(i + 1, dst[i]);
+        }
+        Assert.expectEquals(3, queue.drain(dst));
+        Assert.expectTrue(queue.isEmpty());
+        Assert.expectTrue(queue.poll() == null);
+    }
+
+    @Test
+    public void testProducers() throws Exception {
+        final int                         producers = 4;
+        final int                         count     = 100000;
+        final MpscUnboundedQueue<Integer> queue     = new MpscUnboundedQueue<>(16);
+        Thread[]                          threads   = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int base = p * count;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < count; i++) {
+                    queue.offer(base + i);
+                }
+            });
+            threads[p].start();
+        }
+        // the elements of each producer are polled in order
+        int[]     next  = new int[producers];
+        Integer[] dst   = new Integer[64];
+        int       total = 0;
+        for (; total < producers * count; ) {
+            int size = queue.drain(dst);
+            for (int i = 0; i < size; i++) {
+                int v = dst[i];
+                int p = v / count;
+                Assert.expectEquals(next[p]++, v % count);
+            }
+            total += size;
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        Assert.expectTrue(queue.isEmpty());
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2015 The FireNio Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.others;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.firenio.collection.DelayedQueue.DelayTask;
+import com.firenio.collection.TimingWheel;
+import com.firenio.common.Assert;
+import com.firenio.common.Util;
+
+/**
+ * @author wangkai
+ */
+public class TestTimingWheel {
+
+    @Test
+    public void testCancel() {
+        TimingWheel wheel = new TimingWheel(Util.now());
+        DelayTask   t1    = new TestDelayTask(10);
+        DelayTask   t2    = new TestDelayTask(100000);
+        wheel.offer(t1);
+        wheel.offer(t2);
+        Assert.expectEquals(2, wheel.size());
+        t1.cancel();
+        t2.cancel();
+        Assert.expectTrue(wheel.isEmpty());
+        Assert.expectTrue(wheel.poll(t2.getDelay()) == null);
+        Assert.expectTrue(!wheel.offer(t1));
+    }
+
+    @Test
+    public void testCancelOutOfThread() throws Exception {
+        final TimingWheel wheel = new TimingWheel(Util.now());
+        final DelayTask   t     = new TestDelayTask(10);
+        wheel.bindThread(Thread.currentThread());
+        wheel.offer(t);
+        Thread thread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                t.cancel();
+            }
+        });
+        thread.start();
+        thread.join();
+        // only flagged, it is skipped by the event loop when it is polled
+        Assert.expectEquals(1, wheel.size());
+        Assert.expectTrue(wheel.poll(t.getDelay()) == t);
+        Assert.expectTrue(t.isCanceled());
+        Assert.expectTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void testExpire() {
+        TimingWheel     wheel = new TimingWheel();
+        List<DelayTask> tasks = new ArrayList<>();
+        Random          r     = new Random();
+        for (int i = 0; i < 10000; i++) {
+            // the delays cover all the levels
+            long delay = r.nextInt(4) == 0 ? r.nextInt(1 << 26) : r.nextInt(1 << (8 * (1 + r.nextInt(2))));
+            tasks.add(new TestDelayTask(delay));
+        }
+        long[] deadlines = new long[tasks.size()];
+        for (int i = 0; i < deadlines.length; i++) {
+            DelayTask t = tasks.get(i);
+            deadlines[i] = t.getDelay();
+            wheel.offer(t);
+        }
+        Arrays.sort(deadlines);
+        // the tasks are polled after they are offered
+        long base    = Util.now();
+        int  expired = 0;
+        int  due     = 0;
+        for (long now = base; expired < tasks.size(); now += 1 + r.nextInt(4096)) {
+            for (; ; ) {
+                DelayTask t = wheel.poll(now);
+                if (t == null) {
+                    break;
+                }
+                Assert.expectTrue(t.getDelay() <= now);
+                expired++;
+            }
+            // all the tasks expired before now are polled
+            for (; due < deadlines.length && deadlines[due] <= now; ) {
+                due++;
+            }
+            Assert.expectEquals(due, expired);
+        }
+        Assert.expectTrue(wheel.isEmpty());
+    }
+
+    static class TestDelayTask extends DelayTask {
+
+        public TestDelayTask(long delay) {
+            super(delay);
+        }
+
+        @Override
+        public void run() {}
+
+    }
+
+}